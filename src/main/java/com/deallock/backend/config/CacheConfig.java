@@ -1,8 +1,15 @@
 package com.deallock.backend.config;
 
+import com.deallock.backend.repositories.NotificationRepository;
+import com.deallock.backend.services.DealPageGenerations;
+import com.deallock.backend.services.SchedulerLeaseService;
+import com.deallock.backend.services.UnreadNotificationCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.cache.CacheManager;
@@ -11,9 +18,14 @@ import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
@@ -28,18 +40,111 @@ public class CacheConfig extends CachingConfigurerSupport {
      * - Deal lists change often, so we keep them short-lived to avoid stale admin/user UIs.
      * - Still helps reduce DB load when users refresh / dashboards poll.
      */
+    private static final Map<String, Duration> CACHE_TTLS = Map.of(
+            "userDeals", Duration.ofSeconds(15),
+            "userDealPages", Duration.ofSeconds(15),
+            "adminDealPages", Duration.ofSeconds(10),
+            // Admin list is kept as per-deal rows + an id index and evicted per deal, so these can
+            // live longer; the TTL only bounds staleness from writers that forget to evict.
+            "adminDealRows", Duration.ofSeconds(60),
+            "adminDealIndex", Duration.ofSeconds(60),
+            // Evicted on role changes (AdminRecipientService.evict); rarely changes otherwise.
+            "adminRecipients", Duration.ofMinutes(10),
+            // Login identifier -> user id for CurrentUserService; hits are re-checked against the
+            // loaded row, so the TTL only bounds how long a dropped account lingers.
+            "currentUserIds", Duration.ofMinutes(2));
+
+    /** L1 TTL for caches without an explicit entry above. */
+    private static final Duration DEFAULT_L1_TTL = Duration.ofMinutes(1);
+
+    @Value("${app.cache.l1.max-weight:20000}")
+    private long l1MaxWeight;
+
+    @Bean
+    public CacheTierMetrics cacheTierMetrics(MeterRegistry meterRegistry) {
+        return new CacheTierMetrics(meterRegistry);
+    }
+
+    /**
+     * Redis (L2) with a per-node Caffeine L1 in front, so hot dashboard polls don't pay a network
+     * round trip + JSON decode each time. L1 entries use the same TTLs and are dropped on every
+     * node via pub/sub when DealCacheService evicts.
+     */
     @Bean
     @Profile("redis")
-    public CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory,
+                                          StringRedisTemplate stringRedisTemplate,
+                                          CacheInvalidationBus cacheInvalidationBus,
+                                          CacheTierMetrics cacheTierMetrics) {
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .disableCachingNullValues()
                 .serializeValuesWith(SerializationPair.fromSerializer(RedisSerializer.json()));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withCacheConfiguration("userDeals", defaultConfig.entryTtl(Duration.ofSeconds(15)))
-                .withCacheConfiguration("adminDeals", defaultConfig.entryTtl(Duration.ofSeconds(10)))
-                .build();
+        // clear() must not run the default KEYS over the whole instance; SCAN in batches instead.
+        RedisCacheWriter writer = RedisCacheWriter.nonLockingRedisCacheWriter(
+                redisConnectionFactory, BatchStrategies.scan(1000));
+        RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(writer)
+                .cacheDefaults(defaultConfig);
+        CACHE_TTLS.forEach((name, ttl) -> builder.withCacheConfiguration(name, defaultConfig.entryTtl(ttl)));
+        RedisCacheManager l2 = builder.build();
+        l2.afterPropertiesSet();
+
+        return new TwoLevelCacheManager(CACHE_TTLS, DEFAULT_L1_TTL, l1MaxWeight, l2, stringRedisTemplate,
+                cacheInvalidationBus, cacheTierMetrics);
+    }
+
+    @Bean
+    @Profile("redis")
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate);
+    }
+
+    @Bean
+    @Profile("redis")
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    /**
+     * Single node without Redis: same TTLs, L1 only (instead of Spring's unbounded, never-expiring
+     * ConcurrentMapCacheManager default).
+     */
+    @Bean
+    @Profile("!redis")
+    public CacheManager localCacheManager(CacheTierMetrics cacheTierMetrics) {
+        return new TwoLevelCacheManager(CACHE_TTLS, DEFAULT_L1_TTL, l1MaxWeight, null, null, cacheTierMetrics);
+    }
+
+    /** Bean name is referenced from the @Cacheable keys in DealReadService. */
+    @Bean(name = "dealPageGenerations")
+    @Profile("redis")
+    public DealPageGenerations redisDealPageGenerations(StringRedisTemplate stringRedisTemplate) {
+        return new DealPageGenerations(stringRedisTemplate);
+    }
+
+    @Bean(name = "dealPageGenerations")
+    @Profile("!redis")
+    public DealPageGenerations localDealPageGenerations() {
+        return new DealPageGenerations(null);
+    }
+
+    @Bean
+    @Profile("redis")
+    public UnreadNotificationCounter redisUnreadNotificationCounter(NotificationRepository notificationRepository,
+                                                                    StringRedisTemplate stringRedisTemplate,
+                                                                    SchedulerLeaseService schedulerLeaseService) {
+        return new UnreadNotificationCounter(notificationRepository, stringRedisTemplate, schedulerLeaseService);
+    }
+
+    @Bean
+    @Profile("!redis")
+    public UnreadNotificationCounter localUnreadNotificationCounter(NotificationRepository notificationRepository,
+                                                                    SchedulerLeaseService schedulerLeaseService) {
+        return new UnreadNotificationCounter(notificationRepository, null, schedulerLeaseService);
     }
 
     /**
@@ -0,0 +1,87 @@
+package com.deallock.backend.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Broadcasts L1 evictions over Redis pub/sub so every node drops its in-process copy.
+ *
+ * Payload: {@code <nodeId>\n<cacheName>\n<typed key>} where the key is {@code L:<long>},
+ * {@code S:<string>} or empty for "clear the whole cache". Messages from this node are ignored.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "deallock:cache:invalidate";
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private volatile TwoLevelCacheManager cacheManager;
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    void bind(TwoLevelCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public void publishEvict(String cacheName, Object key) {
+        publish(cacheName, encodeKey(key));
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, "");
+    }
+
+    private void publish(String cacheName, String encodedKey) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + cacheName + "\n" + encodedKey);
+        } catch (RuntimeException ex) {
+            // Other nodes fall back to their L1 TTL.
+            log.warn("Cache invalidation publish failed (cache={}). Continuing.", cacheName, ex);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCacheManager manager = cacheManager;
+        TwoLevelCache cache = manager == null ? null : manager.getExistingCache(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].isEmpty()) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(decodeKey(parts[2]));
+        }
+    }
+
+    private static String encodeKey(Object key) {
+        if (key instanceof Long || key instanceof Integer) {
+            return "L:" + key;
+        }
+        return "S:" + key;
+    }
+
+    private static Object decodeKey(String encoded) {
+        if (encoded.startsWith("L:")) {
+            try {
+                return Long.valueOf(encoded.substring(2));
+            } catch (NumberFormatException ignored) {
+                return encoded.substring(2);
+            }
+        }
+        return encoded.startsWith("S:") ? encoded.substring(2) : encoded;
+    }
+}
@@ -0,0 +1,44 @@
+package com.deallock.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hit/miss counters per cache and tier: {@code deallock.cache.requests{cache, tier=l1|l2, result=hit|miss}}.
+ */
+public class CacheTierMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public CacheTierMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void hit(String cacheName, String tier) {
+        counter(cacheName, tier, "hit").increment();
+    }
+
+    public void miss(String cacheName, String tier) {
+        counter(cacheName, tier, "miss").increment();
+    }
+
+    public void hit(String cacheName, String tier, long count) {
+        if (count > 0) counter(cacheName, tier, "hit").increment(count);
+    }
+
+    public void miss(String cacheName, String tier, long count) {
+        if (count > 0) counter(cacheName, tier, "miss").increment(count);
+    }
+
+    private Counter counter(String cacheName, String tier, String result) {
+        return counters.computeIfAbsent(cacheName + '|' + tier + '|' + result, k ->
+                Counter.builder("deallock.cache.requests")
+                        .tag("cache", cacheName)
+                        .tag("tier", tier)
+                        .tag("result", result)
+                        .register(registry));
+    }
+}
@@ -0,0 +1,56 @@
+package com.deallock.backend.config;
+
+import com.deallock.backend.services.LiveEvent;
+import com.deallock.backend.services.LiveEventHub;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Fans /api/stream events out to every node.
+ *
+ * With Redis, events are published as JSON on {@link #CHANNEL} and every node (this one included)
+ * hands them to its {@link LiveEventHub} from {@link #onMessage}. Without Redis, or when a publish
+ * fails, events are delivered to this node's hub directly; other nodes then only catch up on the
+ * client's next resync/reload, same as before the stream existed.
+ */
+public class LiveEventBus implements MessageListener {
+
+    public static final String CHANNEL = "deallock:live-events";
+
+    private static final Logger log = LoggerFactory.getLogger(LiveEventBus.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StringRedisTemplate redisTemplate;
+    private final LiveEventHub hub;
+
+    public LiveEventBus(StringRedisTemplate redisTemplate, LiveEventHub hub) {
+        this.redisTemplate = redisTemplate;
+        this.hub = hub;
+    }
+
+    public void publish(LiveEvent event) {
+        if (redisTemplate == null) {
+            hub.deliver(event);
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+        } catch (Exception ex) {
+            log.warn("Live event publish failed (type={}). Delivering locally only.", event.type(), ex);
+            hub.deliver(event);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            hub.deliver(objectMapper.readValue(message.getBody(), LiveEvent.class));
+        } catch (Exception ex) {
+            log.warn("Dropping malformed live event: {}", ex.getMessage());
+        }
+    }
+}
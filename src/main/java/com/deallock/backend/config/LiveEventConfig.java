@@ -0,0 +1,58 @@
+package com.deallock.backend.config;
+
+import com.deallock.backend.services.LiveEventHub;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class LiveEventConfig implements WebMvcConfigurer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public LiveEventConfig(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Same open-in-view behaviour Boot registers by default, minus /api/stream: an SSE request
+     * stays open for up to 30 minutes, and the request-bound EntityManager would keep its JDBC
+     * connection checked out of the pool for that whole time.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor).excludePathPatterns("/api/stream");
+    }
+
+    @Bean
+    @Profile("redis")
+    public LiveEventBus redisLiveEventBus(StringRedisTemplate stringRedisTemplate, LiveEventHub liveEventHub) {
+        return new LiveEventBus(stringRedisTemplate, liveEventHub);
+    }
+
+    @Bean
+    @Profile("redis")
+    public RedisMessageListenerContainer liveEventListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                    LiveEventBus liveEventBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(liveEventBus, new ChannelTopic(LiveEventBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @Profile("!redis")
+    public LiveEventBus localLiveEventBus(LiveEventHub liveEventHub) {
+        return new LiveEventBus(null, liveEventHub);
+    }
+}
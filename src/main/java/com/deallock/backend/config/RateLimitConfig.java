@@ -0,0 +1,41 @@
+package com.deallock.backend.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @Profile("redis")
+    public RateLimiter redisRateLimiter(StringRedisTemplate stringRedisTemplate, RateLimitProperties properties) {
+        return new RateLimiter(stringRedisTemplate, properties.maxKeys());
+    }
+
+    @Bean
+    @Profile("!redis")
+    public RateLimiter localRateLimiter(RateLimitProperties properties) {
+        return new RateLimiter(null, properties.maxKeys());
+    }
+
+    @Bean
+    public RateLimitPolicies rateLimitPolicies(RateLimitProperties properties) {
+        return new RateLimitPolicies(properties.policies());
+    }
+
+    /**
+     * RateLimitFilter runs inside the security chain (see SecurityConfig), where it sees the
+     * signed-in user and the form-login POST; don't also register it as a plain servlet filter.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
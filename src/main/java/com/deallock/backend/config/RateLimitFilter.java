@@ -1,104 +1,91 @@
 package com.deallock.backend.config;
 
+import com.deallock.backend.config.RateLimitProperties.Policy;
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+/**
+ * Applies the {@code app.rate-limit.policies} table. Each matching request takes one token from
+ * the policy's request bucket and, when the policy has a byte budget, its Content-Length from the
+ * byte bucket, so a client can't tie up upload threads and heap with back-to-back 3MB bodies.
+ * Bodies without a Content-Length are charged the multipart maximum, the most we'd accept.
+ */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private static final long WINDOW_MS = 60_000L;
+    private final RateLimiter rateLimiter;
+    private final RateLimitPolicies policies;
+    private final long unknownLengthBytes;
 
-    private static class Counter {
-        long windowStartMs;
-        int count;
-
-        Counter(long windowStartMs) {
-            this.windowStartMs = windowStartMs;
-            this.count = 0;
-        }
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           RateLimitPolicies policies,
+                           @Value("${spring.servlet.multipart.max-request-size:3MB}") DataSize maxRequestSize) {
+        this.rateLimiter = rateLimiter;
+        this.policies = policies;
+        this.unknownLengthBytes = maxRequestSize.toBytes();
     }
 
-    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
-
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String path = request.getRequestURI();
-        String method = request.getMethod();
-
-        if (!"POST".equalsIgnoreCase(method)) {
-            return true;
-        }
-
-        return !(path.equals("/api/send-otp")
-                || path.equals("/api/verify-otp")
-                || path.equals("/api/signup")
-                || path.equals("/login")
-                || path.equals("/forgot-password"));
+        return policyFor(request) == null;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        String path = request.getRequestURI();
-        String clientIp = getClientIp(request);
-        String key = clientIp + ":" + path;
-
-        int limit = limitForPath(path);
-        long now = System.currentTimeMillis();
-
-        Counter counter = counters.computeIfAbsent(key, k -> new Counter(now));
-        synchronized (counter) {
-            if (now - counter.windowStartMs >= WINDOW_MS) {
-                counter.windowStartMs = now;
-                counter.count = 0;
-            }
-
-            if (counter.count >= limit) {
-                response.setStatus(429);
-                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-                response.getWriter().write("{\"message\":\"Too many requests. Please try again later.\"}");
-                return;
-            }
+        Policy policy = policyFor(request);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = policy.name() + ":" + subject(policy, request);
 
-            counter.count++;
+        RateLimiter.Decision decision = rateLimiter.tryConsume(key, policy.requests(), policy.window(), 1);
+        if (decision.allowed() && policy.bytes() != null) {
+            long length = request.getContentLengthLong();
+            long cost = length >= 0 ? Math.max(1, length) : unknownLengthBytes;
+            decision = rateLimiter.tryConsume(key + ":bytes", policy.bytes().toBytes(), policy.window(), cost);
+        }
+        if (!decision.allowed()) {
+            long retryAfterSeconds = Math.max(1, (decision.retryAfterMillis() + 999) / 1000);
+            response.setStatus(429);
+            response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many requests. Please try again later.\"}");
+            return;
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private int limitForPath(String path) {
-        if (path.equals("/api/send-otp")) {
-            return 5;
-        }
-        if (path.equals("/api/verify-otp")) {
-            return 10;
-        }
-        if (path.equals("/api/signup")) {
-            return 5;
-        }
-        if (path.equals("/login")) {
-            return 10;
-        }
-        if (path.equals("/forgot-password")) {
-            return 5;
-        }
-        return 10;
+    private Policy policyFor(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return policies.match(request.getMethod(), path);
     }
 
-    private String getClientIp(HttpServletRequest request) {
-        String forwarded = request.getHeader("X-Forwarded-For");
-        if (forwarded != null && !forwarded.isBlank()) {
-            return forwarded.split(",")[0].trim();
+    private String subject(Policy policy, HttpServletRequest request) {
+        if (policy.key() == RateLimitProperties.Key.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "u:" + authentication.getName();
+            }
         }
-        return request.getRemoteAddr();
+        // Behind the proxy, server.forward-headers-strategy=native has already replaced the
+        // remote address with the client's; reading X-Forwarded-For here would let any client
+        // pick a fresh bucket per request.
+        return "ip:" + request.getRemoteAddr();
     }
 }
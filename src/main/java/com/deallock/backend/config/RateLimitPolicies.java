@@ -0,0 +1,102 @@
+package com.deallock.backend.config;
+
+import com.deallock.backend.config.RateLimitProperties.Policy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The policy table compiled into a segment trie, so finding the policy for a request costs one
+ * hash lookup per path segment no matter how many routes are configured.
+ *
+ * When several patterns match, the most specific wins: at each segment a literal beats
+ * {@code *}/{@code {var}}, which beats a trailing {@code **}. A pattern can carry several policies
+ * (e.g. different methods); the first one whose methods include the request's is used.
+ */
+public class RateLimitPolicies {
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        Node single;
+        Node rest;
+        final List<Policy> policies = new ArrayList<>();
+    }
+
+    private final Node root = new Node();
+
+    public RateLimitPolicies(List<Policy> policies) {
+        for (Policy policy : policies) {
+            for (String path : policy.paths()) {
+                insert(path, policy);
+            }
+        }
+    }
+
+    /** The policy for this request, or null when the route isn't limited. */
+    public Policy match(String method, String path) {
+        return match(root, segments(path), 0, method.toUpperCase());
+    }
+
+    private void insert(String pattern, Policy policy) {
+        String[] segments = segments(pattern);
+        Node node = root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' must be the last segment: " + pattern);
+                }
+                if (node.rest == null) node.rest = new Node();
+                node = node.rest;
+            } else if (segment.equals("*") || (segment.startsWith("{") && segment.endsWith("}"))) {
+                if (node.single == null) node.single = new Node();
+                node = node.single;
+            } else {
+                node = node.literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.policies.add(policy);
+    }
+
+    private static Policy match(Node node, String[] segments, int index, String method) {
+        if (index == segments.length) {
+            Policy own = forMethod(node, method);
+            if (own != null) return own;
+            // "/a/**" also covers "/a" itself.
+            return node.rest == null ? null : forMethod(node.rest, method);
+        }
+        Node literal = node.literals.get(segments[index]);
+        if (literal != null) {
+            Policy found = match(literal, segments, index + 1, method);
+            if (found != null) return found;
+        }
+        if (node.single != null) {
+            Policy found = match(node.single, segments, index + 1, method);
+            if (found != null) return found;
+        }
+        return node.rest == null ? null : forMethod(node.rest, method);
+    }
+
+    private static Policy forMethod(Node node, String method) {
+        for (Policy policy : node.policies) {
+            if (policy.methods().isEmpty() || policy.methods().contains(method)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    /** Non-empty segments, so "/api//deals/" and "/api/deals" match alike. */
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>(8);
+        int start = 0;
+        for (int i = 0; i <= path.length(); i++) {
+            if (i == path.length() || path.charAt(i) == '/') {
+                if (i > start) segments.add(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return segments.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,54 @@
+package com.deallock.backend.config;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * {@code app.rate-limit}: the bucket store bound plus the route policy table RateLimitFilter
+ * enforces. Routes that match no policy are not limited.
+ */
+@ConfigurationProperties("app.rate-limit")
+public record RateLimitProperties(long maxKeys, List<Policy> policies) {
+
+    public RateLimitProperties {
+        if (maxKeys <= 0) maxKeys = 100_000;
+        policies = policies == null ? List.of() : List.copyOf(policies);
+    }
+
+    /** Whose budget a request is charged to. */
+    public enum Key {
+        /** Client IP, as resolved by the container's forwarded-header handling. */
+        IP,
+        /** Signed-in username; falls back to the client IP for anonymous requests. */
+        USER
+    }
+
+    /**
+     * One row of the table.
+     *
+     * @param name     bucket namespace; policies sharing a name share a budget
+     * @param methods  HTTP methods the policy applies to; empty means all
+     * @param paths    patterns, one segment per {@code /}: literals, {@code *} or {@code {var}} for a
+     *                 single segment, and a trailing {@code **} for any remainder
+     * @param requests requests allowed per {@code window}
+     * @param bytes    request body bytes allowed per {@code window}; null for no byte budget
+     */
+    public record Policy(String name, List<String> methods, List<String> paths, Key key,
+                         long requests, DataSize bytes, Duration window) {
+
+        public Policy {
+            if (name == null || name.isBlank()) {
+                throw new IllegalArgumentException("rate limit policy needs a name");
+            }
+            if (paths == null || paths.isEmpty()) {
+                throw new IllegalArgumentException("rate limit policy '" + name + "' has no paths");
+            }
+            methods = methods == null ? List.of() : methods.stream().map(String::toUpperCase).toList();
+            paths = List.copyOf(paths);
+            if (key == null) key = Key.IP;
+            if (window == null) window = Duration.ofMinutes(1);
+        }
+    }
+}
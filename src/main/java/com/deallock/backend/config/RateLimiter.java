@@ -0,0 +1,160 @@
+package com.deallock.backend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+/**
+ * Token buckets for RateLimitFilter.
+ *
+ * A bucket holds up to {@code capacity} tokens and refills continuously at
+ * {@code capacity / window}, so a client gets its full budget once and then a steady rate; there
+ * is no window edge where two budgets can be spent back to back.
+ *
+ * With Redis (profile "redis") buckets live in Redis and are shared by every node; one Lua script
+ * refills and takes tokens atomically, using Redis' clock. Without Redis, or for a few seconds
+ * after a Redis error, buckets are kept in a size-bounded Caffeine map and updated lock-free with
+ * CAS. A bucket idle for a whole window is full again, which is exactly what a missing entry
+ * means, so entries expire after their window and memory stays bounded under scanning traffic.
+ */
+public class RateLimiter {
+
+    static final String KEY_PREFIX = "deallock:rl:";
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+    private static final long REDIS_RETRY_NANOS = Duration.ofSeconds(5).toNanos();
+
+    /**
+     * KEYS[1] bucket; ARGV capacity, window ms, cost. Returns {allowed 0|1, retry-after ms}.
+     * Tokens are kept as a float in a hash next to the last refill time.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> TAKE = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            local cost = tonumber(ARGV[3])
+            local t = redis.call('TIME')
+            local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+              tokens = capacity
+              ts = now
+            end
+            local rate = capacity / window
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            local allowed = 0
+            local retry = 0
+            if tokens >= cost then
+              tokens = tokens - cost
+              allowed = 1
+            else
+              retry = math.ceil((cost - tokens) / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], window)
+            return {allowed, retry}
+            """, List.class);
+
+    /** Outcome of one {@link #tryConsume}; {@code retryAfterMillis} is 0 when allowed. */
+    public record Decision(boolean allowed, long retryAfterMillis) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    /** Immutable so a bucket can be swapped with a single CAS. */
+    private record Bucket(double tokens, long refilledAtNanos) {}
+
+    private record Entry(AtomicReference<Bucket> bucket, long windowNanos) {}
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Entry> local;
+    private volatile long redisRetryAtNanos;
+
+    /**
+     * @param redisTemplate null when running without Redis
+     * @param maxKeys       upper bound on locally tracked buckets; least-recently used go first
+     */
+    public RateLimiter(StringRedisTemplate redisTemplate, long maxKeys) {
+        this.redisTemplate = redisTemplate;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        return entry.windowNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.windowNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return entry.windowNanos();
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Takes {@code cost} tokens from the bucket {@code key} (capacity {@code capacity}, refilled
+     * over {@code window}).
+     */
+    public Decision tryConsume(String key, long capacity, Duration window, long cost) {
+        if (capacity <= 0 || cost <= 0) return Decision.ALLOWED;
+        if (redisTemplate != null && System.nanoTime() - redisRetryAtNanos >= 0) {
+            try {
+                return consumeRedis(key, capacity, window, cost);
+            } catch (RuntimeException ex) {
+                redisRetryAtNanos = System.nanoTime() + REDIS_RETRY_NANOS;
+                log.warn("Rate limit Redis call failed; using per-node buckets for {}s. {}",
+                        Duration.ofNanos(REDIS_RETRY_NANOS).toSeconds(), ex.getMessage());
+            }
+        }
+        return consumeLocal(key, capacity, window, cost);
+    }
+
+    long localSize() {
+        local.cleanUp();
+        return local.estimatedSize();
+    }
+
+    private Decision consumeRedis(String key, long capacity, Duration window, long cost) {
+        List<?> result = redisTemplate.execute(TAKE, List.of(KEY_PREFIX + key),
+                Long.toString(capacity), Long.toString(Math.max(1, window.toMillis())), Long.toString(cost));
+        if (result == null || result.size() < 2) {
+            throw new IllegalStateException("unexpected_rate_limit_reply");
+        }
+        boolean allowed = ((Number) result.get(0)).longValue() == 1;
+        return allowed ? Decision.ALLOWED : new Decision(false, ((Number) result.get(1)).longValue());
+    }
+
+    private Decision consumeLocal(String key, long capacity, Duration window, long cost) {
+        long windowNanos = Math.max(1, window.toNanos());
+        long now = System.nanoTime();
+        Entry entry = local.get(key, k -> new Entry(new AtomicReference<>(new Bucket(capacity, now)), windowNanos));
+        double ratePerNano = (double) capacity / windowNanos;
+        AtomicReference<Bucket> ref = entry.bucket();
+        while (true) {
+            Bucket current = ref.get();
+            double tokens = Math.min(capacity, current.tokens() + Math.max(0, now - current.refilledAtNanos()) * ratePerNano);
+            if (tokens < cost) {
+                long waitNanos = (long) Math.ceil((cost - tokens) / ratePerNano);
+                return new Decision(false, Math.max(1, waitNanos / 1_000_000));
+            }
+            Bucket next = new Bucket(tokens - cost, Math.max(now, current.refilledAtNanos()));
+            if (ref.compareAndSet(current, next)) {
+                return Decision.ALLOWED;
+            }
+        }
+    }
+}
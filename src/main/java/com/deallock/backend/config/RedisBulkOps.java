@@ -0,0 +1,79 @@
+package com.deallock.backend.config;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * MGET / pipelined SET against the same keys and serializers a {@link RedisCache} uses, so a
+ * caller needing many entries pays one round trip instead of one per key. Entries written here
+ * are readable through the RedisCache and vice versa.
+ */
+class RedisBulkOps {
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCacheConfiguration config;
+    private final String cacheName;
+    private final Duration ttl;
+
+    RedisBulkOps(StringRedisTemplate redisTemplate, RedisCache cache, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.config = cache.getCacheConfiguration();
+        this.cacheName = cache.getName();
+        this.ttl = ttl;
+    }
+
+    /** Values found for {@code keys}; absent keys are simply missing from the result. */
+    Map<Object, Object> getAll(List<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        if (keys.isEmpty()) return found;
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            rawKeys[i] = rawKey(keys.get(i));
+        }
+        List<byte[]> values = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+                connection.stringCommands().mGet(rawKeys));
+        if (values == null) return found;
+        for (int i = 0; i < keys.size() && i < values.size(); i++) {
+            byte[] raw = values.get(i);
+            if (raw == null) continue;
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(raw));
+            if (value != null) {
+                found.put(keys.get(i), value);
+            }
+        }
+        return found;
+    }
+
+    void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) return;
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                byte[] key = rawKey(entry.getKey());
+                byte[] value = ByteUtils.getBytes(config.getValueSerializationPair().write(entry.getValue()));
+                if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+                    connection.stringCommands().set(key, value);
+                } else {
+                    connection.stringCommands().set(key, value, Expiration.from(ttl), SetOption.upsert());
+                }
+            }
+            return null;
+        });
+    }
+
+    // Mirrors RedisCache#createCacheKey for the simple keys (ids, strings) we cache under.
+    private byte[] rawKey(Object key) {
+        String converted = key instanceof String s ? s : config.getConversionService().convert(key, String.class);
+        String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cacheName) + converted : converted;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+}
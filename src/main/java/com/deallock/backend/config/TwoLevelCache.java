@@ -0,0 +1,232 @@
+package com.deallock.backend.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * In-process Caffeine L1 in front of an optional shared L2 (Redis).
+ *
+ * Reads try L1, then L2 (promoting hits into L1). Writes go to both. Evictions clear both and
+ * are broadcast so other nodes drop their L1 copy. L2 errors are logged and treated as misses,
+ * so a Redis outage degrades to per-node caching instead of failing requests.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> l1;
+    private final Cache l2;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheTierMetrics metrics;
+    private final RedisBulkOps l2Bulk;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<Object, Object> l1,
+                         Cache l2,
+                         CacheInvalidationBus invalidationBus,
+                         CacheTierMetrics metrics) {
+        this(name, l1, l2, null, invalidationBus, metrics);
+    }
+
+    TwoLevelCache(String name,
+                  com.github.benmanes.caffeine.cache.Cache<Object, Object> l1,
+                  Cache l2,
+                  RedisBulkOps l2Bulk,
+                  CacheInvalidationBus invalidationBus,
+                  CacheTierMetrics metrics) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.l2Bulk = l2Bulk;
+        this.invalidationBus = invalidationBus;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object local = l1.getIfPresent(key);
+        if (local != null) {
+            metrics.hit(name, "l1");
+            return new SimpleValueWrapper(local);
+        }
+        metrics.miss(name, "l1");
+        if (l2 == null) {
+            return null;
+        }
+
+        ValueWrapper remote;
+        try {
+            remote = l2.get(key);
+        } catch (RuntimeException ex) {
+            log.warn("L2 cache GET failed (cache={}, key={}). Treating as miss.", name, key, ex);
+            remote = null;
+        }
+        if (remote == null || remote.get() == null) {
+            metrics.miss(name, "l2");
+            return null;
+        }
+        metrics.hit(name, "l2");
+        l1.put(key, remote.get());
+        return remote;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        // Null results are never cached (matches disableCachingNullValues on the Redis side).
+        if (value == null) {
+            return;
+        }
+        l1.put(key, value);
+        if (l2 != null) {
+            try {
+                l2.put(key, value);
+            } catch (RuntimeException ex) {
+                log.warn("L2 cache PUT failed (cache={}, key={}). Continuing with L1 only.", name, key, ex);
+            }
+        }
+    }
+
+    /**
+     * Multi-key {@link #get}: L1 first, then the remaining keys from L2 in one MGET (or one GET
+     * per key when the L2 can't batch). Missing keys are absent from the result.
+     */
+    public Map<Object, Object> getAll(List<?> keys) {
+        Map<Object, Object> found = new HashMap<>(l1.getAllPresent(keys));
+        metrics.hit(name, "l1", found.size());
+        if (found.size() == keys.size()) {
+            return found;
+        }
+        List<?> missing = keys.stream().filter(k -> !found.containsKey(k)).toList();
+        metrics.miss(name, "l1", missing.size());
+        if (l2 == null) {
+            return found;
+        }
+
+        Map<Object, Object> remote = new HashMap<>();
+        try {
+            if (l2Bulk != null) {
+                remote.putAll(l2Bulk.getAll(missing));
+            } else {
+                for (Object key : missing) {
+                    ValueWrapper wrapper = l2.get(key);
+                    if (wrapper != null && wrapper.get() != null) {
+                        remote.put(key, wrapper.get());
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("L2 cache MGET failed (cache={}, keys={}). Treating as misses.", name, missing.size(), ex);
+        }
+        metrics.hit(name, "l2", remote.size());
+        metrics.miss(name, "l2", missing.size() - remote.size());
+        l1.putAll(remote);
+        found.putAll(remote);
+        return found;
+    }
+
+    /** Multi-key {@link #put}: one pipelined write to L2 when it supports it. */
+    public void putAll(Map<?, ?> entries) {
+        Map<Object, Object> values = new HashMap<>();
+        entries.forEach((key, value) -> {
+            if (value != null) values.put(key, value);
+        });
+        if (values.isEmpty()) {
+            return;
+        }
+        l1.putAll(values);
+        if (l2 != null) {
+            try {
+                if (l2Bulk != null) {
+                    l2Bulk.putAll(values);
+                } else {
+                    values.forEach(l2::put);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("L2 cache PUT failed (cache={}, keys={}). Continuing with L1 only.", name, values.size(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictLocal(key);
+        if (l2 != null) {
+            try {
+                l2.evict(key);
+            } catch (RuntimeException ex) {
+                log.warn("L2 cache EVICT failed (cache={}, key={}). Continuing.", name, key, ex);
+            }
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishEvict(name, key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        clearLocal();
+        if (l2 != null) {
+            try {
+                l2.clear();
+            } catch (RuntimeException ex) {
+                log.warn("L2 cache CLEAR failed (cache={}). Continuing.", name, ex);
+            }
+        }
+        if (invalidationBus != null) {
+            invalidationBus.publishClear(name);
+        }
+    }
+
+    void evictLocal(Object key) {
+        l1.invalidate(key);
+    }
+
+    void clearLocal() {
+        l1.invalidateAll();
+    }
+}
@@ -0,0 +1,104 @@
+package com.deallock.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Hands out {@link TwoLevelCache}s: a bounded Caffeine L1 per cache name, backed by the
+ * optional L2 manager (Redis). Without an L2 this is a plain TTL-bounded in-process cache.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final long maxWeight;
+    private final CacheManager l2;
+    private final StringRedisTemplate l2Template;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheTierMetrics metrics;
+
+    public TwoLevelCacheManager(Map<String, Duration> ttls,
+                                Duration defaultTtl,
+                                long maxWeight,
+                                CacheManager l2,
+                                CacheInvalidationBus invalidationBus,
+                                CacheTierMetrics metrics) {
+        this(ttls, defaultTtl, maxWeight, l2, null, invalidationBus, metrics);
+    }
+
+    /**
+     * @param l2Template when set (and the L2 is Redis), {@link TwoLevelCache#getAll}/putAll use
+     *                   MGET and pipelined SETs instead of one round trip per key
+     */
+    public TwoLevelCacheManager(Map<String, Duration> ttls,
+                                Duration defaultTtl,
+                                long maxWeight,
+                                CacheManager l2,
+                                StringRedisTemplate l2Template,
+                                CacheInvalidationBus invalidationBus,
+                                CacheTierMetrics metrics) {
+        this.ttls = Map.copyOf(ttls);
+        this.defaultTtl = defaultTtl;
+        this.maxWeight = maxWeight;
+        this.l2 = l2;
+        this.l2Template = l2Template;
+        this.invalidationBus = invalidationBus;
+        this.metrics = metrics;
+        if (invalidationBus != null) {
+            invalidationBus.bind(this);
+        }
+        ttls.keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::create);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    TwoLevelCache getExistingCache(String name) {
+        return caches.get(name);
+    }
+
+    private TwoLevelCache create(String name) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> l1 = Caffeine.newBuilder()
+                .expireAfterWrite(ttls.getOrDefault(name, defaultTtl))
+                .maximumWeight(maxWeight)
+                .weigher(TwoLevelCacheManager::weigh)
+                .build();
+        Cache remote = l2 == null ? null : l2.getCache(name);
+        RedisBulkOps bulk = l2Template != null && remote instanceof RedisCache redisCache
+                ? new RedisBulkOps(l2Template, redisCache, ttls.get(name))
+                : null;
+        return new TwoLevelCache(name, l1, remote, bulk, invalidationBus, metrics);
+    }
+
+    /**
+     * Rough size in "rows": our cached values are deal lists or {items, nextCursor} pages, so
+     * the row count is a good proxy for memory and keeps one huge admin list from being treated
+     * like a single small entry.
+     */
+    private static int weigh(Object key, Object value) {
+        if (value instanceof Collection<?> c) {
+            return 1 + c.size();
+        }
+        if (value instanceof Map<?, ?> m && m.get("items") instanceof List<?> items) {
+            return 1 + items.size();
+        }
+        return 1;
+    }
+}
@@ -1,9 +1,13 @@
 package com.deallock.backend.controllers;
 
 import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.DealAttachment;
 import com.deallock.backend.repositories.DealRepository;
 import com.deallock.backend.repositories.UserRepository;
+import com.deallock.backend.services.AdminDashboardService;
 import com.deallock.backend.services.CurrentUserService;
+import com.deallock.backend.services.DealAttachmentService;
+import com.deallock.backend.services.DealCacheService;
 import com.deallock.backend.services.FileStorageService;
 import com.deallock.backend.services.NotificationDispatchService;
 import com.deallock.backend.services.NotificationService;
@@ -11,7 +15,8 @@ import java.io.IOException;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.security.Principal;
 import java.util.Set;
 import org.springframework.stereotype.Controller;
@@ -34,19 +39,28 @@ public class AdminController {
     private final NotificationDispatchService notifier;
     private final CurrentUserService currentUserService;
     private final FileStorageService fileStorageService;
+    private final DealAttachmentService dealAttachmentService;
+    private final AdminDashboardService adminDashboardService;
+    private final DealCacheService dealCacheService;
 
     public AdminController(DealRepository dealRepository,
                            UserRepository userRepository,
                            NotificationService notificationService,
                            NotificationDispatchService notifier,
                            CurrentUserService currentUserService,
-                           FileStorageService fileStorageService) {
+                           FileStorageService fileStorageService,
+                           DealAttachmentService dealAttachmentService,
+                           AdminDashboardService adminDashboardService,
+                           DealCacheService dealCacheService) {
         this.dealRepository = dealRepository;
         this.userRepository = userRepository;
         this.notificationService = notificationService;
         this.notifier = notifier;
         this.currentUserService = currentUserService;
         this.fileStorageService = fileStorageService;
+        this.dealAttachmentService = dealAttachmentService;
+        this.adminDashboardService = adminDashboardService;
+        this.dealCacheService = dealCacheService;
     }
 
     @GetMapping("/admin")
@@ -57,85 +71,29 @@ public class AdminController {
                         Principal principal) {
         start = sanitizeDateParam(start);
         end = sanitizeDateParam(end);
-        List<Deal> allDeals;
+        ZoneId zone = ZoneId.systemDefault();
+        Instant startInstant = Instant.EPOCH;
+        Instant endInstant = Instant.now().plusSeconds(60L * 60L * 24L * 365L * 10L);
         if ((start != null && !start.isBlank()) || (end != null && !end.isBlank())) {
-            ZoneId zone = ZoneId.systemDefault();
             try {
-                Instant startInstant = start != null && !start.isBlank()
-                        ? LocalDate.parse(start).atStartOfDay(zone).toInstant()
-                        : Instant.EPOCH;
-                Instant endInstant = end != null && !end.isBlank()
-                        ? LocalDate.parse(end).plusDays(1).atStartOfDay(zone).toInstant()
-                        : Instant.now().plusSeconds(60L * 60L * 24L * 365L * 10L);
-                allDeals = dealRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startInstant, endInstant);
+                if (start != null && !start.isBlank()) {
+                    startInstant = LocalDate.parse(start).atStartOfDay(zone).toInstant();
+                }
+                if (end != null && !end.isBlank()) {
+                    endInstant = LocalDate.parse(end).plusDays(1).atStartOfDay(zone).toInstant();
+                }
             } catch (Exception ex) {
-                allDeals = dealRepository.findAllByOrderByCreatedAtDesc();
+                startInstant = Instant.EPOCH;
+                endInstant = Instant.now().plusSeconds(60L * 60L * 24L * 365L * 10L);
             }
-        } else {
-            allDeals = dealRepository.findAllByOrderByCreatedAtDesc();
         }
-        List<Deal> paymentConfirmedDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> "PAID_CONFIRMED".equalsIgnoreCase(d.getPaymentStatus()))
-                .toList();
-        List<Deal> paymentNotReceivedDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> "NOT_PAID".equalsIgnoreCase(d.getPaymentStatus()))
-                .toList();
-        List<Deal> securedDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(Deal::isSecured)
-                .toList();
-        List<Deal> balancePaymentDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(Deal::isSecured)
-                .filter(d -> d.getBalancePaymentStatus() == null
-                        || !"PAID_CONFIRMED".equalsIgnoreCase(d.getBalancePaymentStatus()))
-                .toList();
-        List<Deal> deliveryInitiationDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(Deal::isSecured)
-                .filter(d -> "PAID_CONFIRMED".equalsIgnoreCase(d.getBalancePaymentStatus()))
-                .filter(d -> d.getDeliveryInitiatedAt() == null)
-                .toList();
-        List<Deal> inTransitDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> d.getDeliveryInitiatedAt() != null)
-                .filter(d -> d.getDeliveryConfirmedAt() == null)
-                .toList();
-        List<Deal> deliveryConfirmationDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> d.getDeliveryInitiatedAt() != null)
-                .filter(Deal::isDeliveryConfirmedByUser)
-                .filter(d -> d.getDeliveryConfirmedAt() == null)
-                .toList();
-        List<Deal> feedbackDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> d.getFeedback() != null && !d.getFeedback().isBlank())
-                .toList();
-        List<Deal> concludedDeals = allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .filter(d -> d.getDeliveryConfirmedAt() != null)
-                .toList();
 
-        model.addAttribute("pendingDeals", allDeals.stream()
-                .filter(d -> d.getStatus() == null || "Pending Approval".equalsIgnoreCase(d.getStatus()))
-                .toList());
-        model.addAttribute("approvedDeals", allDeals.stream()
-                .filter(d -> "Approved".equalsIgnoreCase(d.getStatus()))
-                .toList());
-        model.addAttribute("rejectedDeals", allDeals.stream()
-                .filter(d -> "Rejected".equalsIgnoreCase(d.getStatus()))
-                .toList());
-        model.addAttribute("paymentConfirmedDeals", paymentConfirmedDeals);
-        model.addAttribute("paymentNotReceivedDeals", paymentNotReceivedDeals);
-        model.addAttribute("securedDeals", securedDeals);
-        model.addAttribute("balancePaymentDeals", balancePaymentDeals);
-        model.addAttribute("deliveryInitiationDeals", deliveryInitiationDeals);
-        model.addAttribute("inTransitDeals", inTransitDeals);
-        model.addAttribute("deliveryConfirmationDeals", deliveryConfirmationDeals);
-        model.addAttribute("feedbackDeals", feedbackDeals);
-        model.addAttribute("concludedDeals", concludedDeals);
+        // Only the per-stage totals are rendered server-side (sidebar badges); the deal table is
+        // loaded by addashboard.js from /api/admin/deals.
+        Map<String, Long> stageCounts = new HashMap<>();
+        adminDashboardService.countByStage(startInstant, endInstant)
+                .forEach((stage, total) -> stageCounts.put(stage.modelAttribute(), total));
+        model.addAttribute("stageCounts", stageCounts);
         model.addAttribute("message", message);
         model.addAttribute("start", start);
         model.addAttribute("end", end);
@@ -167,6 +125,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setStatus("Approved");
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifyApproval(deal);
             notifier.notifyUser(deal.getUser(),
                     "Your deal was approved.",
@@ -193,6 +152,7 @@ public class AdminController {
             }
             deal.setRejectionReason(reason);
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Your deal was rejected. Reason: " + safe(reason),
                     "Deal Rejected",
@@ -212,6 +172,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setPaymentStatus("PAID_CONFIRMED");
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Payment confirmed for your deal.",
                     "Payment Confirmed",
@@ -231,6 +192,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setPaymentStatus("NOT_PAID");
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Payment not received for your deal.",
                     "Payment Not Received",
@@ -263,21 +225,25 @@ public class AdminController {
             deal.setSecured(true);
             deal.setSecuredAt(Instant.now());
             if (securedPhoto != null && !securedPhoto.isEmpty()) {
+                String previousKey = deal.getSecuredItemPhotoKey();
                 try {
                     FileStorageService.StoredFile stored = fileStorageService.save("deals/secured-items", securedPhoto, MAX_UPLOAD_BYTES, IMAGE_TYPES);
-                    deal.setSecuredItemPhoto(null);
                     deal.setSecuredItemPhotoContentType(stored.contentType());
                     deal.setSecuredItemPhotoKey(stored.key());
+                    dealAttachmentService.clear(deal, DealAttachment.Slot.SECURED_ITEM_PHOTO);
+                    fileStorageService.release(previousKey);
                 } catch (IOException ex) {
                     try {
-                        deal.setSecuredItemPhoto(securedPhoto.getBytes());
-                        deal.setSecuredItemPhotoContentType(securedPhoto.getContentType());
+                        deal.setSecuredItemPhotoContentType(dealAttachmentService.storeBlob(
+                                deal, DealAttachment.Slot.SECURED_ITEM_PHOTO, securedPhoto.getBytes(), securedPhoto.getContentType()));
                         deal.setSecuredItemPhotoKey(null);
+                        fileStorageService.release(previousKey);
                     } catch (Exception ignored) {
                     }
                 }
             }
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Your deal has been secured.",
                     "Deal Secured",
@@ -297,6 +263,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setBalancePaymentStatus("PAID_CONFIRMED");
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Balance payment confirmed for your deal.",
                     "Balance Payment Confirmed",
@@ -316,6 +283,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setDeliveryInitiatedAt(Instant.now());
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Delivery initiated for your deal.",
                     "Delivery Initiated",
@@ -335,6 +303,7 @@ public class AdminController {
         dealRepository.findById(id).ifPresent(deal -> {
             deal.setDeliveryConfirmedAt(Instant.now());
             dealRepository.save(deal);
+            dealCacheService.evictAdminDeal(deal.getId());
             notifier.notifyUser(deal.getUser(),
                     "Delivery confirmed by admin.",
                     "Delivery Confirmation",
@@ -353,7 +322,11 @@ public class AdminController {
     public String delete(@PathVariable("id") Long id,
                          @RequestParam(value = "start", required = false) String start,
                          @RequestParam(value = "end", required = false) String end) {
-        dealRepository.deleteById(id);
+        dealRepository.findById(id).ifPresent(deal -> {
+            dealRepository.delete(deal);
+            fileStorageService.release(deal);
+        });
+        dealCacheService.evictAdminDealIndex(id);
         if (start != null || end != null) {
             String startParam = start == null ? "" : start;
             String endParam = end == null ? "" : end;
@@ -1,15 +1,18 @@
 package com.deallock.backend.controllers;
 
 import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.DealAttachment;
 import com.deallock.backend.entities.MarketplaceItem;
 import com.deallock.backend.entities.User;
 import com.deallock.backend.repositories.DealRepository;
 import com.deallock.backend.repositories.MarketplaceItemRepository;
 import com.deallock.backend.repositories.UserRepository;
+import com.deallock.backend.services.DealAttachmentService;
 import com.deallock.backend.services.DealCacheService;
 import com.deallock.backend.services.DealReadService;
 import com.deallock.backend.services.NotificationDispatchService;
 import com.deallock.backend.services.FileStorageService;
+import com.deallock.backend.services.ListedDealIds;
 import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
@@ -46,6 +49,8 @@ public class AdminDealApiController {
     private final DealCacheService dealCacheService;
     private final FileStorageService fileStorageService;
     private final UserRepository userRepository;
+    private final DealAttachmentService dealAttachmentService;
+    private final ListedDealIds listedDealIds;
 
     @Value("${app.deals.payment-timeout:24h}")
     private Duration paymentTimeout;
@@ -56,7 +61,9 @@ public class AdminDealApiController {
                                   DealReadService dealReadService,
                                   DealCacheService dealCacheService,
                                   FileStorageService fileStorageService,
-                                  UserRepository userRepository) {
+                                  UserRepository userRepository,
+                                  DealAttachmentService dealAttachmentService,
+                                  ListedDealIds listedDealIds) {
         this.dealRepository = dealRepository;
         this.marketplaceItemRepository = marketplaceItemRepository;
         this.notifier = notifier;
@@ -64,14 +71,26 @@ public class AdminDealApiController {
         this.dealCacheService = dealCacheService;
         this.fileStorageService = fileStorageService;
         this.userRepository = userRepository;
+        this.dealAttachmentService = dealAttachmentService;
+        this.listedDealIds = listedDealIds;
     }
 
     @GetMapping
-    public ResponseEntity<?> list(Authentication authentication) {
+    public ResponseEntity<?> list(@RequestParam(value = "limit", required = false) Integer limit,
+                                  @RequestParam(value = "after", required = false) String after,
+                                  Authentication authentication) {
         if (!isAdmin(authentication)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        return ResponseEntity.ok(dealReadService.listAllDealsForAdmin());
+        String cursor = after == null || after.isBlank() ? null : after.trim();
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(dealReadService.listAllDealsForAdmin());
+        }
+        try {
+            return ResponseEntity.ok(dealReadService.pageAllDealsForAdmin(cursor, DealReadService.clampPageSize(limit)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+        }
     }
 
     @PostMapping("/{id}/approve")
@@ -93,7 +112,7 @@ public class AdminDealApiController {
         deal.setRejectionReason(null);
         dealRepository.save(deal);
 
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (user != null) {
             dealCacheService.evictUserDealsById(user.getId());
             if (user.getEmail() != null) {
@@ -146,7 +165,7 @@ public class AdminDealApiController {
         deal.setRejectionReason(reason);
         dealRepository.save(deal);
 
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (user != null) {
             dealCacheService.evictUserDealsById(user.getId());
             if (user.getEmail() != null) {
@@ -185,15 +204,8 @@ public class AdminDealApiController {
         }
 
         deal.setPaymentStatus("PAID_CONFIRMED");
-        // Clear old BLOBs
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDealsById(deal.getUser().getId());
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
@@ -229,14 +241,8 @@ public class AdminDealApiController {
         }
 
         deal.setPaymentStatus("NOT_PAID");
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDealsById(deal.getUser().getId());
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
@@ -271,24 +277,21 @@ public class AdminDealApiController {
         deal.setSecured(true);
         deal.setSecuredAt(Instant.now());
         if (securedPhoto != null && !securedPhoto.isEmpty()) {
+            String previousKey = deal.getSecuredItemPhotoKey();
             try {
                 FileStorageService.StoredFile stored = fileStorageService.save("deals/secured-items", securedPhoto, MAX_UPLOAD_BYTES, IMAGE_TYPES);
-                deal.setSecuredItemPhoto(null);
                 deal.setSecuredItemPhotoContentType(stored.contentType());
                 deal.setSecuredItemPhotoKey(stored.key());
+                dealAttachmentService.clear(deal, DealAttachment.Slot.SECURED_ITEM_PHOTO);
             } catch (IOException ex) {
-                deal.setSecuredItemPhoto(securedPhoto.getBytes());
-                deal.setSecuredItemPhotoContentType(securedPhoto.getContentType());
+                deal.setSecuredItemPhotoContentType(dealAttachmentService.storeBlob(
+                        deal, DealAttachment.Slot.SECURED_ITEM_PHOTO, securedPhoto.getBytes(), securedPhoto.getContentType()));
                 deal.setSecuredItemPhotoKey(null);
             }
+            fileStorageService.release(previousKey);
         }
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDealsById(deal.getUser().getId());
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
@@ -324,14 +327,8 @@ public class AdminDealApiController {
         }
 
         deal.setBalancePaymentStatus("PAID_CONFIRMED");
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDealsById(deal.getUser().getId());
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
@@ -367,14 +364,8 @@ public class AdminDealApiController {
         }
 
         deal.setDeliveryInitiatedAt(Instant.now());
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDealsById(deal.getUser().getId());
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
@@ -410,14 +401,8 @@ public class AdminDealApiController {
         }
 
         deal.setDeliveryConfirmedAt(Instant.now());
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
         }
@@ -449,7 +434,8 @@ public class AdminDealApiController {
         }
 
         dealRepository.delete(deal);
-        dealCacheService.evictAdminDeals();
+        fileStorageService.release(deal);
+        dealCacheService.evictAdminDealIndex(id);
         if (deal.getUser() != null) {
             dealCacheService.evictUserDeals(deal.getUser().getEmail());
         }
@@ -495,20 +481,41 @@ public class AdminDealApiController {
         item.setListed(true);
         item.setCreatedAt(Instant.now());
         item.setSourceDealId(deal.getId());
-        if (deal.getItemPhoto() != null && deal.getItemPhoto().length > 0) {
-            item.setPhoto(deal.getItemPhoto());
+        // Reuse the stored file when there is one; only DB-fallback photos need their bytes copied.
+        if (deal.getItemPhotoKey() != null && !deal.getItemPhotoKey().isBlank()) {
+            item.setPhotoKey(deal.getItemPhotoKey());
+            fileStorageService.retain(item.getPhotoKey());
             item.setPhotoContentType(deal.getItemPhotoContentType());
-        }
-        if (deal.getItemPhoto2() != null && deal.getItemPhoto2().length > 0) {
-            item.setPhoto2(deal.getItemPhoto2());
+        } else {
+            dealAttachmentService.readBlob(deal, DealAttachment.Slot.ITEM_PHOTO).ifPresent(bytes -> {
+                item.setPhoto(bytes);
+                item.setPhotoContentType(deal.getItemPhotoContentType());
+            });
+        }
+        if (deal.getItemPhoto2Key() != null && !deal.getItemPhoto2Key().isBlank()) {
+            item.setPhoto2Key(deal.getItemPhoto2Key());
+            fileStorageService.retain(item.getPhoto2Key());
             item.setPhoto2ContentType(deal.getItemPhoto2ContentType());
-        }
-        if (deal.getItemPhoto3() != null && deal.getItemPhoto3().length > 0) {
-            item.setPhoto3(deal.getItemPhoto3());
+        } else {
+            dealAttachmentService.readBlob(deal, DealAttachment.Slot.ITEM_PHOTO_2).ifPresent(bytes -> {
+                item.setPhoto2(bytes);
+                item.setPhoto2ContentType(deal.getItemPhoto2ContentType());
+            });
+        }
+        if (deal.getItemPhoto3Key() != null && !deal.getItemPhoto3Key().isBlank()) {
+            item.setPhoto3Key(deal.getItemPhoto3Key());
+            fileStorageService.retain(item.getPhoto3Key());
             item.setPhoto3ContentType(deal.getItemPhoto3ContentType());
+        } else {
+            dealAttachmentService.readBlob(deal, DealAttachment.Slot.ITEM_PHOTO_3).ifPresent(bytes -> {
+                item.setPhoto3(bytes);
+                item.setPhoto3ContentType(deal.getItemPhoto3ContentType());
+            });
         }
 
         marketplaceItemRepository.save(item);
+        listedDealIds.markListed(id);
+        dealCacheService.evictAdminDeal(id);
         return ResponseEntity.ok(Map.of("message", "listed", "marketplaceItemId", item.getId()));
     }
 
@@ -4,9 +4,13 @@ import com.deallock.backend.entities.MarketplaceItem;
 import com.deallock.backend.entities.MarketplaceOrder;
 import com.deallock.backend.repositories.MarketplaceOrderRepository;
 import com.deallock.backend.repositories.MarketplaceItemRepository;
+import com.deallock.backend.services.DealCacheService;
+import com.deallock.backend.services.LiveEventPublisher;
 import com.deallock.backend.services.MarketplaceOrderFlowService;
+import com.deallock.backend.services.MediaDelivery;
 import com.deallock.backend.services.NotificationDispatchService;
 import com.deallock.backend.services.FileStorageService;
+import com.deallock.backend.services.ListedDealIds;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,6 +19,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -43,17 +48,29 @@ public class AdminMarketplaceApiController {
     private final MarketplaceOrderFlowService orderFlowService;
     private final NotificationDispatchService notifier;
     private final FileStorageService fileStorageService;
+    private final DealCacheService dealCacheService;
+    private final ListedDealIds listedDealIds;
+    private final MediaDelivery mediaDelivery;
+    private final LiveEventPublisher liveEventPublisher;
 
     public AdminMarketplaceApiController(MarketplaceItemRepository marketplaceItemRepository,
                                          MarketplaceOrderRepository marketplaceOrderRepository,
                                          MarketplaceOrderFlowService orderFlowService,
                                          NotificationDispatchService notifier,
-                                         FileStorageService fileStorageService) {
+                                         FileStorageService fileStorageService,
+                                         DealCacheService dealCacheService,
+                                         ListedDealIds listedDealIds,
+                                         MediaDelivery mediaDelivery,
+                                         LiveEventPublisher liveEventPublisher) {
         this.marketplaceItemRepository = marketplaceItemRepository;
         this.marketplaceOrderRepository = marketplaceOrderRepository;
         this.orderFlowService = orderFlowService;
         this.notifier = notifier;
         this.fileStorageService = fileStorageService;
+        this.dealCacheService = dealCacheService;
+        this.listedDealIds = listedDealIds;
+        this.mediaDelivery = mediaDelivery;
+        this.liveEventPublisher = liveEventPublisher;
     }
 
     @GetMapping
@@ -143,6 +160,8 @@ public class AdminMarketplaceApiController {
         order.setShippedAt(shippedAt);
         order.setDeliveredAt(deliveredAt);
         order.setUpdatedAt(updatedAt);
+        liveEventPublisher.orderChanged(order.getId(),
+                order.getUser() == null ? null : order.getUser().getId(), normalizedNext);
 
         String orderCode = "MO-" + order.getId();
         String statusText = humanStatus(normalizedNext);
@@ -162,7 +181,9 @@ public class AdminMarketplaceApiController {
     }
 
     @GetMapping("/orders/{id}/payment-proof")
-    public ResponseEntity<byte[]> paymentProof(@PathVariable("id") Long id, Authentication authentication) {
+    public ResponseEntity<Resource> paymentProof(@PathVariable("id") Long id,
+                                                 @RequestParam(value = "v", required = false) String version,
+                                                 Authentication authentication) {
         if (!isAdmin(authentication)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
@@ -172,16 +193,8 @@ public class AdminMarketplaceApiController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (order.getPaymentProofContentType() != null && !order.getPaymentProofContentType().isBlank()) {
-            type = MediaType.parseMediaType(order.getPaymentProofContentType());
-        }
-
-        byte[] bytes = resolveBytes(order.getPaymentProof(), order.getPaymentProofKey());
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return mediaDelivery.serve(order.getPaymentProofKey(), order.getPaymentProofContentType(),
+                order::getPaymentProof, version, false);
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -273,7 +286,15 @@ public class AdminMarketplaceApiController {
         if (opt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        marketplaceItemRepository.delete(opt.get());
+        var item = opt.get();
+        Long sourceDealId = item.getSourceDealId();
+        marketplaceItemRepository.delete(item);
+        fileStorageService.release(item.getPhotoKey(), item.getPhoto2Key(), item.getPhoto3Key());
+        if (sourceDealId != null) {
+            // The admin deal row shows whether the deal is on the marketplace.
+            listedDealIds.markUnlisted(sourceDealId);
+            dealCacheService.evictAdminDeal(sourceDealId);
+        }
         return ResponseEntity.ok(Map.of("message", "deleted"));
     }
 
@@ -316,6 +337,7 @@ public class AdminMarketplaceApiController {
     }
 
     private void storeMarketplaceItemPhoto(MarketplaceItem item, MultipartFile file, int slot) throws Exception {
+        String previousKey = slot == 2 ? item.getPhoto2Key() : slot == 3 ? item.getPhoto3Key() : item.getPhotoKey();
         try {
             FileStorageService.StoredFile stored = fileStorageService.save("marketplace/items", file, MAX_UPLOAD_BYTES, IMAGE_TYPES);
             if (slot == 2) {
@@ -347,26 +369,13 @@ public class AdminMarketplaceApiController {
                 item.setPhotoKey(null);
             }
         }
+        fileStorageService.release(previousKey);
     }
 
     private boolean hasMedia(byte[] blob, String key) {
         return (blob != null && blob.length > 0) || (key != null && !key.isBlank());
     }
 
-    private byte[] resolveBytes(byte[] blob, String key) {
-        if (blob != null && blob.length > 0) {
-            return blob;
-        }
-        if (key == null || key.isBlank()) {
-            return null;
-        }
-        try {
-            return fileStorageService.read(key);
-        } catch (IOException ignored) {
-            return null;
-        }
-    }
-
     private String humanStatus(String status) {
         return switch (status) {
             case MarketplaceOrderFlowService.STATUS_PENDING_PAYMENT -> "Pending Payment";
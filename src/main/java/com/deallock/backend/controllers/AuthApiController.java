@@ -11,7 +11,9 @@ import com.deallock.backend.entities.User;
 import com.deallock.backend.repositories.ActivationTokenRepository;
 import com.deallock.backend.repositories.OtpCodeRepository;
 import com.deallock.backend.repositories.UserRepository;
+import com.deallock.backend.services.AdminRecipientService;
 import com.deallock.backend.services.AuditLogService;
+import com.deallock.backend.services.CurrentUserService;
 import com.deallock.backend.services.EmailService;
 import com.deallock.backend.services.SmsService;
 import java.security.SecureRandom;
@@ -47,6 +49,8 @@ public class AuthApiController {
     private final PasswordEncoder passwordEncoder;
     private final AuditLogService auditLogService;
     private final SmsService smsService;
+    private final AdminRecipientService adminRecipientService;
+    private final CurrentUserService currentUserService;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -57,7 +61,9 @@ public class AuthApiController {
                              EmailService emailService,
                              PasswordEncoder passwordEncoder,
                              AuditLogService auditLogService,
-                             SmsService smsService) {
+                             SmsService smsService,
+                             AdminRecipientService adminRecipientService,
+                             CurrentUserService currentUserService) {
         this.userRepository = userRepository;
         this.otpRepo = otpRepo;
         this.activationRepo = activationRepo;
@@ -65,6 +71,8 @@ public class AuthApiController {
         this.passwordEncoder = passwordEncoder;
         this.auditLogService = auditLogService;
         this.smsService = smsService;
+        this.adminRecipientService = adminRecipientService;
+        this.currentUserService = currentUserService;
     }
 
     @PostMapping("/send-otp")
@@ -236,6 +244,9 @@ public class AuthApiController {
                 .build();
 
         userRepository.save(user);
+        if (isAdminEmail) {
+            adminRecipientService.evict();
+        }
 
         // Consume the OTP that was used for verification now that signup-init is successful.
         emailEntry.ifPresent(otpRepo::delete);
@@ -303,11 +314,17 @@ public class AuthApiController {
         }
         user.setDateOfBirth(req.dateOfBirth);
         user.setPassword(passwordEncoder.encode(req.password));
+        boolean promoted = false;
         if (email != null && ADMIN_EMAIL.equalsIgnoreCase(email)) {
+            promoted = !"ROLE_ADMIN".equals(user.getRole());
             user.setRole("ROLE_ADMIN");
         }
         user.setEnabled(true);
         userRepository.save(user);
+        currentUserService.evict(user);
+        if (promoted) {
+            adminRecipientService.evict();
+        }
 
         auditLogService.log("PROFILE_COMPLETE", email, request, true, null);
         return ResponseEntity.ok(Map.of("message", "Profile completed. You can now log in."));
@@ -368,13 +385,18 @@ public class AuthApiController {
         // Admin bootstrap: if the admin email signed up but never completed profile,
         // allow OTP login and make the account active.
         if (isAdmin) {
-            if (!"ROLE_ADMIN".equals(user.getRole())) {
+            boolean promoted = !"ROLE_ADMIN".equals(user.getRole());
+            if (promoted) {
                 user.setRole("ROLE_ADMIN");
             }
             if (!user.isEnabled()) {
                 user.setEnabled(true);
             }
             userRepository.save(user);
+            if (promoted) {
+                currentUserService.evict(user);
+                adminRecipientService.evict();
+            }
         }
 
         if (!user.isEnabled()) {
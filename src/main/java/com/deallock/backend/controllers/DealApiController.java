@@ -1,15 +1,17 @@
 package com.deallock.backend.controllers;
 
 import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.DealAttachment;
 import com.deallock.backend.repositories.DealRepository;
 import com.deallock.backend.repositories.UserRepository;
+import com.deallock.backend.services.DealAttachmentService;
 import com.deallock.backend.services.DealCacheService;
 import com.deallock.backend.services.DealReadService;
 import com.deallock.backend.services.NewsletterService;
 import com.deallock.backend.services.NotificationDispatchService;
-import com.deallock.backend.services.SmsService;
 import com.deallock.backend.services.CurrentUserService;
 import com.deallock.backend.services.FileStorageService;
+import com.deallock.backend.services.MediaDelivery;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -23,6 +25,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -47,13 +50,14 @@ public class DealApiController {
 
     private final DealRepository dealRepository;
     private final UserRepository userRepository;
-    private final SmsService smsService;
     private final NotificationDispatchService notifier;
     private final DealReadService dealReadService;
     private final DealCacheService dealCacheService;
     private final NewsletterService newsletterService;
     private final CurrentUserService currentUserService;
     private final FileStorageService fileStorageService;
+    private final DealAttachmentService dealAttachmentService;
+    private final MediaDelivery mediaDelivery;
 
     @Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
@@ -64,32 +68,46 @@ public class DealApiController {
 
     public DealApiController(DealRepository dealRepository,
                              UserRepository userRepository,
-                             SmsService smsService,
                              NotificationDispatchService notifier,
                              DealReadService dealReadService,
                              DealCacheService dealCacheService,
                              NewsletterService newsletterService,
                              CurrentUserService currentUserService,
-                             FileStorageService fileStorageService) {
+                             FileStorageService fileStorageService,
+                             DealAttachmentService dealAttachmentService,
+                             MediaDelivery mediaDelivery) {
         this.dealRepository = dealRepository;
         this.userRepository = userRepository;
-        this.smsService = smsService;
         this.notifier = notifier;
         this.dealReadService = dealReadService;
         this.dealCacheService = dealCacheService;
         this.newsletterService = newsletterService;
         this.currentUserService = currentUserService;
         this.fileStorageService = fileStorageService;
+        this.dealAttachmentService = dealAttachmentService;
+        this.mediaDelivery = mediaDelivery;
     }
 
     @GetMapping
-    public ResponseEntity<?> listDeals(Principal principal) {
+    public ResponseEntity<?> listDeals(@RequestParam(value = "limit", required = false) Integer limit,
+                                       @RequestParam(value = "after", required = false) String after,
+                                       Principal principal) {
         var userOpt = currentUserService.resolve(principal);
         if (userOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
-        return ResponseEntity.ok(dealReadService.listDealsForUser(userOpt.get()));
+        // Without paging params keep returning the full array the dashboards expect.
+        String cursor = after == null || after.isBlank() ? null : after.trim();
+        if (limit == null && cursor == null) {
+            return ResponseEntity.ok(dealReadService.listDealsForUser(userOpt.get()));
+        }
+        try {
+            return ResponseEntity.ok(dealReadService.pageDealsForUser(
+                    userOpt.get(), cursor, DealReadService.clampPageSize(limit)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+        }
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -181,6 +199,8 @@ public class DealApiController {
             incoming = new MultipartFile[]{itemPhoto};
         }
 
+        // Photos that could not go to file storage are kept in deal_attachments once the deal has an id.
+        Map<Integer, MultipartFile> blobFallbacks = new HashMap<>();
         if (incoming != null) {
             int saved = 0;
             for (MultipartFile file : incoming) {
@@ -190,20 +210,24 @@ public class DealApiController {
                 }
 
                 saved++;
-                if (saved == 1) {
-                    storeDealItemPhoto(deal, file, 1);
-                } else if (saved == 2) {
-                    storeDealItemPhoto(deal, file, 2);
-                } else if (saved == 3) {
-                    storeDealItemPhoto(deal, file, 3);
+                if (!storeDealItemPhoto(deal, file, saved)) {
+                    blobFallbacks.put(saved, file);
+                }
+                if (saved == 3) {
                     break;
                 }
             }
         }
 
         dealRepository.save(deal);
+        if (!blobFallbacks.isEmpty()) {
+            for (var entry : blobFallbacks.entrySet()) {
+                storeDealItemPhotoBlob(deal, entry.getValue(), entry.getKey());
+            }
+            dealRepository.save(deal);
+        }
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDealIndex(deal.getId());
         CompletableFuture.runAsync(() -> {
             try {
                 if (Boolean.TRUE.equals(subscribeUpdates) && userOpt.get().getEmail() != null) {
@@ -215,31 +239,29 @@ public class DealApiController {
                 }
             } catch (Exception ignored) {
             }
-            try {
-                notifyAdminsAndUserOnCreate(deal);
-            } catch (Exception ignored) {
-            }
-            try {
-                notifier.notifyUser(userOpt.get(),
-                        "Deal sent. We received your deal.",
-                        "Your Deal Was Created",
-                        "Deal received. We are reviewing: " + safe(deal.getTitle()),
-                        "Deal received. We are reviewing: " + safe(deal.getTitle()));
-                notifier.notifyAdmins(
-                        "New deal submitted: " + safe(deal.getTitle()),
-                        "New Deal Created",
-                        "New deal submitted: " + safe(deal.getTitle()),
-                        "New deal submitted: " + safe(deal.getTitle()));
-            } catch (Exception ignored) {
-            }
-            try {
-                if (userOpt.get().getPhone() != null) {
-                    smsService.sendToUser(userOpt.get().getPhone(), "Deal received. Awaiting approval.");
-                    smsService.sendWhatsAppToUser(userOpt.get().getPhone(), "Deal received. Awaiting approval.");
-                }
-            } catch (Exception ignored) {
-            }
         });
+        // Email/SMS/WhatsApp are only queued here (see NotificationOutboxWorker).
+        try {
+            notifyAdminsAndUserOnCreate(deal);
+        } catch (Exception ignored) {
+        }
+        try {
+            notifier.notifyUser(userOpt.get(),
+                    "Deal sent. We received your deal.",
+                    "Your Deal Was Created",
+                    "Deal received. We are reviewing: " + safe(deal.getTitle()),
+                    "Deal received. We are reviewing: " + safe(deal.getTitle()));
+            notifier.notifyAdmins(
+                    "New deal submitted: " + safe(deal.getTitle()),
+                    "New Deal Created",
+                    "New deal submitted: " + safe(deal.getTitle()),
+                    "New deal submitted: " + safe(deal.getTitle()));
+        } catch (Exception ignored) {
+        }
+        try {
+            notifier.notifyUser(userOpt.get(), null, null, null, "Deal received. Awaiting approval.");
+        } catch (Exception ignored) {
+        }
         return ResponseEntity.ok(Map.of(
                 "message", "Deal created",
                 "id", deal.getId(),
@@ -261,8 +283,10 @@ public class DealApiController {
     }
 
     @GetMapping("/{id}/photo")
-    public ResponseEntity<byte[]> dealPhoto(@PathVariable("id") Long id,
-                                            Principal principal,
+    public ResponseEntity<Resource> dealPhoto(@PathVariable("id") Long id,
+                                              @RequestParam(value = "v", required = false) String version,
+                                              @RequestParam(value = "size", required = false) Integer size,
+                                              Principal principal,
                                             Authentication authentication) {
         var userOpt = currentUserService.resolve(principal);
         if (userOpt.isEmpty()) {
@@ -281,13 +305,15 @@ public class DealApiController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        return dealPhotoSlot(deal, 1);
+        return dealPhotoSlot(deal, 1, version, size);
     }
 
     @GetMapping("/{id}/photo/{slot}")
-    public ResponseEntity<byte[]> dealPhotoSlot(@PathVariable("id") Long id,
-                                                @PathVariable("slot") int slot,
-                                                Principal principal,
+    public ResponseEntity<Resource> dealPhotoSlot(@PathVariable("id") Long id,
+                                                  @PathVariable("slot") int slot,
+                                                  @RequestParam(value = "v", required = false) String version,
+                                                  @RequestParam(value = "size", required = false) Integer size,
+                                                  Principal principal,
                                                 Authentication authentication) {
         var userOpt = currentUserService.resolve(principal);
         if (userOpt.isEmpty()) {
@@ -306,43 +332,41 @@ public class DealApiController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        return dealPhotoSlot(deal, slot);
+        return dealPhotoSlot(deal, slot, version, size);
     }
 
-    private ResponseEntity<byte[]> dealPhotoSlot(Deal deal, int slot) {
-        byte[] bytes;
+    private ResponseEntity<Resource> dealPhotoSlot(Deal deal, int slot, String version, Integer size) {
         String contentType;
         String key;
-
         if (slot == 2) {
-            bytes = deal.getItemPhoto2();
             contentType = deal.getItemPhoto2ContentType();
             key = deal.getItemPhoto2Key();
         } else if (slot == 3) {
-            bytes = deal.getItemPhoto3();
             contentType = deal.getItemPhoto3ContentType();
             key = deal.getItemPhoto3Key();
         } else {
-            bytes = deal.getItemPhoto();
             contentType = deal.getItemPhotoContentType();
             key = deal.getItemPhotoKey();
         }
+        return serveAttachment(deal, DealAttachment.Slot.itemPhoto(slot), key, contentType, version, size);
+    }
 
-        bytes = resolveBytes(bytes, key);
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (contentType != null && !contentType.isBlank()) {
-            type = MediaType.parseMediaType(contentType);
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+    private ResponseEntity<Resource> serveAttachment(Deal deal,
+                                                     DealAttachment.Slot slot,
+                                                     String key,
+                                                     String contentType,
+                                                     String version,
+                                                     Integer size) {
+        return mediaDelivery.serve(key, contentType,
+                () -> dealAttachmentService.readBlob(deal, slot).orElse(null),
+                version, false, size);
     }
 
     @GetMapping("/{id}/secured-photo")
-    public ResponseEntity<byte[]> securedPhoto(@PathVariable("id") Long id,
-                                               Principal principal,
+    public ResponseEntity<Resource> securedPhoto(@PathVariable("id") Long id,
+                                                 @RequestParam(value = "v", required = false) String version,
+                                                 @RequestParam(value = "size", required = false) Integer size,
+                                                 Principal principal,
                                                Authentication authentication) {
         var userOpt = currentUserService.resolve(principal);
         if (userOpt.isEmpty()) {
@@ -361,15 +385,8 @@ public class DealApiController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (deal.getSecuredItemPhotoContentType() != null) {
-            type = MediaType.parseMediaType(deal.getSecuredItemPhotoContentType());
-        }
-        byte[] bytes = resolveBytes(deal.getSecuredItemPhoto(), deal.getSecuredItemPhotoKey());
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return serveAttachment(deal, DealAttachment.Slot.SECURED_ITEM_PHOTO,
+                deal.getSecuredItemPhotoKey(), deal.getSecuredItemPhotoContentType(), version, size);
     }
 
     @DeleteMapping("/{id}")
@@ -395,8 +412,9 @@ public class DealApiController {
         }
 
         dealRepository.deleteById(id);
+        fileStorageService.release(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDealIndex(id);
         String actor = isAdmin ? "admin" : "user";
         notifier.notifyAdmins(
                 "Deal canceled by " + actor + ": " + safe(deal.getTitle()),
@@ -483,7 +501,7 @@ public class DealApiController {
 
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
 
         notifier.notifyUser(deal.getUser(),
                 "Payment period extended by " + addWeeks + " week(s). Extra service fee applied.",
@@ -536,7 +554,7 @@ public class DealApiController {
         deal.setPaymentStatus("PAID_PENDING_CONFIRMATION");
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         return ResponseEntity.ok(Map.of("message", "Payment marked as processing"));
     }
 
@@ -583,16 +601,9 @@ public class DealApiController {
             }
         }
         deal.setPaymentStatus("PAID_PENDING_CONFIRMATION");
-        // Clear old BLOB fields to avoid save errors
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         notifier.notifyUser(deal.getUser(),
                 "Payment proof received. We are verifying your payment.",
                 "Payment Proof Received",
@@ -646,16 +657,9 @@ public class DealApiController {
             deal.setBalancePaymentAmount(deal.getRemainingBalanceAmount());
         }
         deal.setBalancePaymentStatus("PAID_PENDING_CONFIRMATION");
-        // Clear old BLOB fields to avoid save errors
-        deal.setPaymentProof(null);
-        deal.setItemPhoto(null);
-        deal.setItemPhoto2(null);
-        deal.setItemPhoto3(null);
-        deal.setSecuredItemPhoto(null);
-        deal.setBalancePaymentProof(null);
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
 
         notifier.notifyUser(deal.getUser(),
                 "Balance payment proof received. We are verifying your payment.",
@@ -672,8 +676,9 @@ public class DealApiController {
     }
 
     @GetMapping("/{id}/balance-payment-proof")
-    public ResponseEntity<byte[]> balancePaymentProof(@PathVariable("id") Long id,
-                                                      Principal principal,
+    public ResponseEntity<Resource> balancePaymentProof(@PathVariable("id") Long id,
+                                                        @RequestParam(value = "v", required = false) String version,
+                                                        Principal principal,
                                                       Authentication authentication) {
         var userOpt = currentUserService.resolve(principal);
         if (userOpt.isEmpty()) {
@@ -690,15 +695,8 @@ public class DealApiController {
         if (!isAdmin && (deal.getUser() == null || deal.getUser().getId() != userOpt.get().getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (deal.getBalancePaymentProofContentType() != null) {
-            type = MediaType.parseMediaType(deal.getBalancePaymentProofContentType());
-        }
-        byte[] bytes = resolveBytes(deal.getBalancePaymentProof(), deal.getBalancePaymentProofKey());
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return serveAttachment(deal, DealAttachment.Slot.BALANCE_PAYMENT_PROOF,
+                deal.getBalancePaymentProofKey(), deal.getBalancePaymentProofContentType(), version, null);
     }
 
     @PostMapping("/{id}/confirm-delivery")
@@ -728,7 +726,7 @@ public class DealApiController {
         deal.setDeliveryConfirmedByUser(true);
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
 
         notifier.notifyUser(deal.getUser(),
                 "Delivery confirmed. Thank you!",
@@ -777,7 +775,7 @@ public class DealApiController {
         deal.setFeedbackSubmittedAt(Instant.now());
         dealRepository.save(deal);
         dealCacheService.evictUserDealsById(userOpt.get().getId());
-        dealCacheService.evictAdminDeals();
+        dealCacheService.evictAdminDeal(id);
         notifier.notifyAdmins(
                 "New feedback submitted: " + safe(deal.getTitle()),
                 "Deal Feedback",
@@ -788,8 +786,9 @@ public class DealApiController {
     }
 
     @GetMapping("/{id}/payment-proof")
-    public ResponseEntity<byte[]> paymentProof(@PathVariable("id") Long id,
-                                               Principal principal,
+    public ResponseEntity<Resource> paymentProof(@PathVariable("id") Long id,
+                                                 @RequestParam(value = "v", required = false) String version,
+                                                 Principal principal,
                                                Authentication authentication) {
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -809,90 +808,78 @@ public class DealApiController {
         if (!isAdmin && (deal.getUser() == null || deal.getUser().getId() != userOpt.get().getId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (deal.getPaymentProofContentType() != null) {
-            type = MediaType.parseMediaType(deal.getPaymentProofContentType());
-        }
-        byte[] bytes = resolveBytes(deal.getPaymentProof(), deal.getPaymentProofKey());
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return serveAttachment(deal, DealAttachment.Slot.PAYMENT_PROOF,
+                deal.getPaymentProofKey(), deal.getPaymentProofContentType(), version, null);
     }
 
-    private void storeDealItemPhoto(Deal deal, MultipartFile file, int slot) throws Exception {
+    /**
+     * Returns false when file storage is unavailable; the caller then keeps the bytes in
+     * deal_attachments via {@link #storeDealItemPhotoBlob} after the deal has been saved.
+     */
+    private boolean storeDealItemPhoto(Deal deal, MultipartFile file, int slot) {
+        String previousKey = slot == 2 ? deal.getItemPhoto2Key() : slot == 3 ? deal.getItemPhoto3Key() : deal.getItemPhotoKey();
         try {
             FileStorageService.StoredFile stored = fileStorageService.save("deals/items", file, MAX_UPLOAD_BYTES, IMAGE_TYPES);
             if (slot == 2) {
-                deal.setItemPhoto2(null);
                 deal.setItemPhoto2ContentType(stored.contentType());
                 deal.setItemPhoto2Key(stored.key());
             } else if (slot == 3) {
-                deal.setItemPhoto3(null);
                 deal.setItemPhoto3ContentType(stored.contentType());
                 deal.setItemPhoto3Key(stored.key());
             } else {
-                deal.setItemPhoto(null);
                 deal.setItemPhotoContentType(stored.contentType());
                 deal.setItemPhotoKey(stored.key());
             }
+            dealAttachmentService.clear(deal, DealAttachment.Slot.itemPhoto(slot));
+            fileStorageService.release(previousKey);
+            return true;
         } catch (IOException ex) {
-            // Fallback to DB blob if filesystem storage isn't available.
-            if (slot == 2) {
-                deal.setItemPhoto2(file.getBytes());
-                deal.setItemPhoto2ContentType(file.getContentType());
-                deal.setItemPhoto2Key(null);
-            } else if (slot == 3) {
-                deal.setItemPhoto3(file.getBytes());
-                deal.setItemPhoto3ContentType(file.getContentType());
-                deal.setItemPhoto3Key(null);
-            } else {
-                deal.setItemPhoto(file.getBytes());
-                deal.setItemPhotoContentType(file.getContentType());
-                deal.setItemPhotoKey(null);
-            }
+            return false;
+        }
+    }
+
+    private void storeDealItemPhotoBlob(Deal deal, MultipartFile file, int slot) throws IOException {
+        fileStorageService.release(slot == 2 ? deal.getItemPhoto2Key() : slot == 3 ? deal.getItemPhoto3Key() : deal.getItemPhotoKey());
+        String contentType = dealAttachmentService.storeBlob(
+                deal, DealAttachment.Slot.itemPhoto(slot), file.getBytes(), file.getContentType());
+        if (slot == 2) {
+            deal.setItemPhoto2ContentType(contentType);
+            deal.setItemPhoto2Key(null);
+        } else if (slot == 3) {
+            deal.setItemPhoto3ContentType(contentType);
+            deal.setItemPhoto3Key(null);
+        } else {
+            deal.setItemPhotoContentType(contentType);
+            deal.setItemPhotoKey(null);
         }
     }
 
     private void storeDealPaymentProof(Deal deal, MultipartFile file, boolean balance) throws Exception {
+        DealAttachment.Slot slot = balance ? DealAttachment.Slot.BALANCE_PAYMENT_PROOF : DealAttachment.Slot.PAYMENT_PROOF;
+        String previousKey = balance ? deal.getBalancePaymentProofKey() : deal.getPaymentProofKey();
         try {
             String folder = balance ? "deals/balance-proofs" : "deals/payment-proofs";
             FileStorageService.StoredFile stored = fileStorageService.save(folder, file, MAX_UPLOAD_BYTES, PROOF_TYPES);
             if (balance) {
-                deal.setBalancePaymentProof(null);
                 deal.setBalancePaymentProofContentType(stored.contentType());
                 deal.setBalancePaymentProofKey(stored.key());
             } else {
-                deal.setPaymentProof(null);
                 deal.setPaymentProofContentType(stored.contentType());
                 deal.setPaymentProofKey(stored.key());
             }
+            dealAttachmentService.clear(deal, slot);
         } catch (IOException ex) {
-            // Fallback to DB blob if filesystem storage isn't available.
+            // Fallback to the deal_attachments table if filesystem storage isn't available.
+            String contentType = dealAttachmentService.storeBlob(deal, slot, file.getBytes(), file.getContentType());
             if (balance) {
-                deal.setBalancePaymentProof(file.getBytes());
-                deal.setBalancePaymentProofContentType(file.getContentType());
+                deal.setBalancePaymentProofContentType(contentType);
                 deal.setBalancePaymentProofKey(null);
             } else {
-                deal.setPaymentProof(file.getBytes());
-                deal.setPaymentProofContentType(file.getContentType());
+                deal.setPaymentProofContentType(contentType);
                 deal.setPaymentProofKey(null);
             }
         }
-    }
-
-    private byte[] resolveBytes(byte[] blob, String key) {
-        if (blob != null && blob.length > 0) {
-            return blob;
-        }
-        if (key == null || key.isBlank()) {
-            return null;
-        }
-        try {
-            return fileStorageService.read(key);
-        } catch (IOException ignored) {
-            return null;
-        }
+        fileStorageService.release(previousKey);
     }
 
     private void notifyAdminsAndUserOnCreate(Deal deal) {
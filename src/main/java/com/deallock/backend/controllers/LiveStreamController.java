@@ -0,0 +1,45 @@
+package com.deallock.backend.controllers;
+
+import com.deallock.backend.services.CurrentUserService;
+import com.deallock.backend.services.LiveEventHub;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events for the dashboards: "notification", "deal" and "order" events (see
+ * LiveEventPublisher), so the pages refetch when something changes instead of on a timer.
+ */
+@RestController
+public class LiveStreamController {
+
+    private final CurrentUserService currentUserService;
+    private final LiveEventHub liveEventHub;
+
+    public LiveStreamController(CurrentUserService currentUserService, LiveEventHub liveEventHub) {
+        this.currentUserService = currentUserService;
+        this.liveEventHub = liveEventHub;
+    }
+
+    @GetMapping(value = "/api/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                             Authentication authentication) {
+        var userOpt = currentUserService.resolve(authentication);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean isAdmin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        SseEmitter emitter = liveEventHub.subscribe(userOpt.get().getId(), isAdmin, lastEventId);
+        return ResponseEntity.ok()
+                // Stop nginx & co. from buffering the stream.
+                .header("X-Accel-Buffering", "no")
+                .header("Cache-Control", "no-cache")
+                .body(emitter);
+    }
+}
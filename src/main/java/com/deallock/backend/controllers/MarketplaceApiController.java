@@ -8,7 +8,9 @@ import com.deallock.backend.repositories.MarketplaceOrderRepository;
 import com.deallock.backend.repositories.UserRepository;
 import com.deallock.backend.services.CurrentUserService;
 import com.deallock.backend.services.FileStorageService;
+import com.deallock.backend.services.LiveEventPublisher;
 import com.deallock.backend.services.MarketplaceOrderFlowService;
+import com.deallock.backend.services.MediaDelivery;
 import com.deallock.backend.services.NotificationDispatchService;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -20,7 +22,9 @@ import java.math.RoundingMode;
 import java.security.Principal;
 import java.time.Instant;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -47,6 +51,8 @@ public class MarketplaceApiController {
     private final MarketplaceOrderFlowService orderFlowService;
     private final CurrentUserService currentUserService;
     private final FileStorageService fileStorageService;
+    private final MediaDelivery mediaDelivery;
+    private final LiveEventPublisher liveEventPublisher;
 
     public MarketplaceApiController(MarketplaceItemRepository marketplaceItemRepository,
                                     MarketplaceOrderRepository marketplaceOrderRepository,
@@ -54,7 +60,9 @@ public class MarketplaceApiController {
                                     NotificationDispatchService notifier,
                                     MarketplaceOrderFlowService orderFlowService,
                                     CurrentUserService currentUserService,
-                                    FileStorageService fileStorageService) {
+                                    FileStorageService fileStorageService,
+                                    MediaDelivery mediaDelivery,
+                                    LiveEventPublisher liveEventPublisher) {
         this.marketplaceItemRepository = marketplaceItemRepository;
         this.marketplaceOrderRepository = marketplaceOrderRepository;
         this.userRepository = userRepository;
@@ -62,6 +70,8 @@ public class MarketplaceApiController {
         this.orderFlowService = orderFlowService;
         this.currentUserService = currentUserService;
         this.fileStorageService = fileStorageService;
+        this.mediaDelivery = mediaDelivery;
+        this.liveEventPublisher = liveEventPublisher;
     }
 
     @GetMapping("/items")
@@ -149,6 +159,7 @@ public class MarketplaceApiController {
         order.setTotalAmount(total);
         order.setItems(orderItems);
         marketplaceOrderRepository.save(order);
+        liveEventPublisher.orderChanged(order.getId(), userOpt.get().getId(), order.getStatus());
 
         String statusText = "New marketplace order " + order.getId() + " from " + (userOpt.get().getEmail() == null ? "user" : userOpt.get().getEmail());
         notifier.notifyAdmins(
@@ -238,6 +249,7 @@ public class MarketplaceApiController {
             return ResponseEntity.badRequest().body(Map.of("message", "Payment proof must be at most 2MB"));
         }
 
+        String previousKey = order.getPaymentProofKey();
         try {
             FileStorageService.StoredFile stored = fileStorageService.save(
                     "marketplace/order-proofs",
@@ -254,6 +266,7 @@ public class MarketplaceApiController {
             order.setPaymentProofContentType(paymentProof.getContentType());
             order.setPaymentProofKey(null);
         }
+        fileStorageService.release(previousKey);
         order.setPaymentProofNote(note == null ? null : note.trim());
         order.setPaymentSubmittedAt(Instant.now());
         // Force "payment submitted" as the source of truth when proof is uploaded.
@@ -262,6 +275,7 @@ public class MarketplaceApiController {
         order.setUpdatedAt(Instant.now());
 
         marketplaceOrderRepository.save(order);
+        liveEventPublisher.orderChanged(order.getId(), userOpt.get().getId(), order.getStatus());
 
         String code = "MO-" + order.getId();
         String userLabel = (userOpt.get().getFullName() != null && !userOpt.get().getFullName().isBlank())
@@ -294,7 +308,9 @@ public class MarketplaceApiController {
     }
 
     @GetMapping("/orders/{id}/payment-proof")
-    public ResponseEntity<byte[]> myPaymentProof(@PathVariable("id") Long id, Principal principal) {
+    public ResponseEntity<Resource> myPaymentProof(@PathVariable("id") Long id,
+                                                   @RequestParam(value = "v", required = false) String version,
+                                                   Principal principal) {
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -310,25 +326,22 @@ public class MarketplaceApiController {
         if (order.getUser() == null || order.getUser().getId() != userOpt.get().getId()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (order.getPaymentProofContentType() != null && !order.getPaymentProofContentType().isBlank()) {
-            type = MediaType.parseMediaType(order.getPaymentProofContentType());
-        }
-        byte[] bytes = resolveBytes(order.getPaymentProof(), order.getPaymentProofKey());
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return mediaDelivery.serve(order.getPaymentProofKey(), order.getPaymentProofContentType(),
+                order::getPaymentProof, version, false);
     }
 
     @GetMapping("/items/{id}/photo")
-    public ResponseEntity<byte[]> itemPhoto(@PathVariable("id") Long id) {
-        return itemPhotoSlot(id, 1);
+    public ResponseEntity<Resource> itemPhoto(@PathVariable("id") Long id,
+                                              @RequestParam(value = "v", required = false) String version,
+                                              @RequestParam(value = "size", required = false) Integer size) {
+        return itemPhotoSlot(id, 1, version, size);
     }
 
     @GetMapping("/items/{id}/photo/{slot}")
-    public ResponseEntity<byte[]> itemPhotoSlot(@PathVariable("id") Long id,
-                                                @PathVariable("slot") int slot) {
+    public ResponseEntity<Resource> itemPhotoSlot(@PathVariable("id") Long id,
+                                                  @PathVariable("slot") int slot,
+                                                  @RequestParam(value = "v", required = false) String version,
+                                                  @RequestParam(value = "size", required = false) Integer size) {
         var opt = marketplaceItemRepository.findById(id);
         if (opt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -336,33 +349,33 @@ public class MarketplaceApiController {
 
         var item = opt.get();
 
-        byte[] bytes;
         String contentType;
         String key;
+        Supplier<byte[]> blob;
         if (slot == 2) {
-            bytes = item.getPhoto2();
             contentType = item.getPhoto2ContentType();
             key = item.getPhoto2Key();
+            blob = item::getPhoto2;
         } else if (slot == 3) {
-            bytes = item.getPhoto3();
             contentType = item.getPhoto3ContentType();
             key = item.getPhoto3Key();
+            blob = item::getPhoto3;
         } else {
-            bytes = item.getPhoto();
             contentType = item.getPhotoContentType();
             key = item.getPhotoKey();
+            blob = item::getPhoto;
         }
+        // Public catalogue images: shared caches may keep them.
+        return mediaDelivery.serve(key, contentType, blob, version, true, size);
+    }
 
-        bytes = resolveBytes(bytes, key);
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (contentType != null && !contentType.isBlank()) {
-            type = MediaType.parseMediaType(contentType);
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+    /**
+     * File-backed photos get their ETag as `v`, which makes the URL content-addressed so the
+     * photo endpoint can mark it immutable.
+     */
+    private String versioned(String url, String key) {
+        if (key == null || key.isBlank()) return url;
+        return url + "?v=" + MediaDelivery.etagForKey(key);
     }
 
     private Map<String, Object> toVm(MarketplaceItem item) {
@@ -376,10 +389,11 @@ public class MarketplaceApiController {
         row.put("listed", item.isListed());
         row.put("createdAt", item.getCreatedAt());
         String base = "/api/marketplace/items/" + item.getId() + "/photo";
-        String img1 = hasMedia(item.getPhoto(), item.getPhotoKey()) ? base : null;
-        String img2 = hasMedia(item.getPhoto2(), item.getPhoto2Key()) ? (base + "/2") : null;
-        String img3 = hasMedia(item.getPhoto3(), item.getPhoto3Key()) ? (base + "/3") : null;
+        String img1 = hasMedia(item.getPhoto(), item.getPhotoKey()) ? versioned(base, item.getPhotoKey()) : null;
+        String img2 = hasMedia(item.getPhoto2(), item.getPhoto2Key()) ? versioned(base + "/2", item.getPhoto2Key()) : null;
+        String img3 = hasMedia(item.getPhoto3(), item.getPhoto3Key()) ? versioned(base + "/3", item.getPhoto3Key()) : null;
         row.put("imageUrl", img1);
+        row.put("thumbnailUrl", img1 == null ? null : img1 + (img1.contains("?") ? "&" : "?") + "size=480");
         List<String> imageUrls = new ArrayList<>();
         if (img1 != null && !img1.isBlank()) imageUrls.add(img1);
         if (img2 != null && !img2.isBlank()) imageUrls.add(img2);
@@ -392,20 +406,6 @@ public class MarketplaceApiController {
         return (blob != null && blob.length > 0) || (key != null && !key.isBlank());
     }
 
-    private byte[] resolveBytes(byte[] blob, String key) {
-        if (blob != null && blob.length > 0) {
-            return blob;
-        }
-        if (key == null || key.isBlank()) {
-            return null;
-        }
-        try {
-            return fileStorageService.read(key);
-        } catch (IOException ignored) {
-            return null;
-        }
-    }
-
     @SuppressWarnings("unchecked")
     private List<Map<String, Object>> extractItems(Map<String, Object> body) {
         if (body == null) return List.of();
@@ -1,23 +1,27 @@
 package com.deallock.backend.controllers;
 
 import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.DealAttachment;
 import com.deallock.backend.entities.DealWaitlistEntry;
 import com.deallock.backend.repositories.DealRepository;
 import com.deallock.backend.repositories.DealWaitlistRepository;
 import com.deallock.backend.repositories.UserRepository;
+import com.deallock.backend.services.DealAttachmentService;
 import com.deallock.backend.services.MarketplaceLockPolicy;
+import com.deallock.backend.services.MediaDelivery;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -28,15 +32,21 @@ public class MarketplaceLockedDealApiController {
     private final DealWaitlistRepository waitlistRepository;
     private final UserRepository userRepository;
     private final MarketplaceLockPolicy lockPolicy;
+    private final DealAttachmentService dealAttachmentService;
+    private final MediaDelivery mediaDelivery;
 
     public MarketplaceLockedDealApiController(DealRepository dealRepository,
                                               DealWaitlistRepository waitlistRepository,
                                               UserRepository userRepository,
-                                              MarketplaceLockPolicy lockPolicy) {
+                                              MarketplaceLockPolicy lockPolicy,
+                                              DealAttachmentService dealAttachmentService,
+                                              MediaDelivery mediaDelivery) {
         this.dealRepository = dealRepository;
         this.waitlistRepository = waitlistRepository;
         this.userRepository = userRepository;
         this.lockPolicy = lockPolicy;
+        this.dealAttachmentService = dealAttachmentService;
+        this.mediaDelivery = mediaDelivery;
     }
 
     @GetMapping
@@ -53,7 +63,9 @@ public class MarketplaceLockedDealApiController {
     }
 
     @GetMapping("/{id}/photo")
-    public ResponseEntity<byte[]> lockedDealPhoto(@PathVariable("id") Long id) {
+    public ResponseEntity<Resource> lockedDealPhoto(@PathVariable("id") Long id,
+                                                    @RequestParam(value = "v", required = false) String version,
+                                                    @RequestParam(value = "size", required = false) Integer size) {
         var dealOpt = dealRepository.findById(id);
         if (dealOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -64,21 +76,18 @@ public class MarketplaceLockedDealApiController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
-        byte[] bytes = deal.getSecuredItemPhoto();
-        String contentType = deal.getSecuredItemPhotoContentType();
-        if (bytes == null || bytes.length == 0) {
-            bytes = deal.getItemPhoto();
-            contentType = deal.getItemPhotoContentType();
+        boolean hasSecured = deal.getSecuredItemPhotoContentType() != null || deal.getSecuredItemPhotoKey() != null;
+        if (hasSecured) {
+            var response = mediaDelivery.serve(deal.getSecuredItemPhotoKey(), deal.getSecuredItemPhotoContentType(),
+                    () -> dealAttachmentService.readBlob(deal, DealAttachment.Slot.SECURED_ITEM_PHOTO).orElse(null),
+                    version, true, size);
+            if (response.getStatusCode().is2xxSuccessful()) {
+                return response;
+            }
         }
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (contentType != null && !contentType.isBlank()) {
-            type = MediaType.parseMediaType(contentType);
-        }
-        return ResponseEntity.ok().contentType(type).body(bytes);
+        return mediaDelivery.serve(deal.getItemPhotoKey(), deal.getItemPhotoContentType(),
+                () -> dealAttachmentService.readBlob(deal, DealAttachment.Slot.ITEM_PHOTO).orElse(null),
+                version, true, size);
     }
 
     @PostMapping("/{id}/waitlist")
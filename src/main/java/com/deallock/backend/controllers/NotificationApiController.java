@@ -1,12 +1,16 @@
 package com.deallock.backend.controllers;
 
+import com.deallock.backend.entities.Notification;
 import com.deallock.backend.repositories.NotificationRepository;
 import com.deallock.backend.repositories.UserRepository;
 import com.deallock.backend.services.CurrentUserService;
+import com.deallock.backend.services.KeysetCursor;
+import com.deallock.backend.services.NotificationService;
 import java.security.Principal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,20 +22,32 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/api/notifications")
 public class NotificationApiController {
 
+    /** Opaque keyset cursor for the next page; absent on the last page. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final CurrentUserService currentUserService;
+    private final NotificationService notificationService;
 
     public NotificationApiController(NotificationRepository notificationRepository,
                                      UserRepository userRepository,
-                                     CurrentUserService currentUserService) {
+                                     CurrentUserService currentUserService,
+                                     NotificationService notificationService) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.currentUserService = currentUserService;
+        this.notificationService = notificationService;
     }
 
+    /**
+     * Newest first, at most {@code limit} rows read from the DB. The body stays a plain array;
+     * the cursor for the following page is returned in {@value #NEXT_CURSOR_HEADER} and passed
+     * back as {@code after}.
+     */
     @GetMapping
     public ResponseEntity<?> list(@RequestParam(value = "limit", required = false) Integer limit,
+                                  @RequestParam(value = "after", required = false) String after,
                                   Principal principal) {
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -41,14 +57,51 @@ public class NotificationApiController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         int size = limit == null ? 6 : Math.max(1, Math.min(20, limit));
-        var notes = notificationRepository.findByUserOrderByCreatedAtDesc(userOpt.get());
-        List<Map<String, Object>> payload = notes.stream().limit(size).map(n -> {
+        Long userId = userOpt.get().getId();
+
+        // One extra row tells us whether there is a next page.
+        Limit fetch = Limit.of(size + 1);
+        List<Notification> notes;
+        if (after == null || after.isBlank()) {
+            notes = notificationRepository.findPageByUserId(userId, fetch);
+        } else {
+            KeysetCursor cursor;
+            try {
+                cursor = KeysetCursor.decode(after);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of("message", "Invalid cursor"));
+            }
+            notes = notificationRepository.findPageByUserIdAfter(userId, cursor.createdAt(), cursor.id(), fetch);
+        }
+
+        List<Notification> page = notes.size() > size ? notes.subList(0, size) : notes;
+        List<Map<String, Object>> payload = page.stream().map(n -> {
             Map<String, Object> row = new HashMap<>();
+            row.put("id", n.getId());
             row.put("message", n.getMessage() == null ? "" : n.getMessage());
             row.put("createdAt", n.getCreatedAt());
             row.put("read", n.isRead());
             return row;
         }).toList();
-        return ResponseEntity.ok(payload);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (notes.size() > size) {
+            Notification last = page.get(page.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getCreatedAt(), last.getId()).encode());
+        }
+        return response.body(payload);
+    }
+
+    /** Unread count for the bell badge, refetched when a live "notification" event arrives. */
+    @GetMapping("/unread-count")
+    public ResponseEntity<?> unreadCount(Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        var userOpt = currentUserService.resolve(principal);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok(Map.of("count", notificationService.countUnread(userOpt.get())));
     }
 }
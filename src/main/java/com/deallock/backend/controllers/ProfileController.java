@@ -3,11 +3,13 @@ package com.deallock.backend.controllers;
 import com.deallock.backend.repositories.UserRepository;
 import com.deallock.backend.services.CurrentUserService;
 import com.deallock.backend.services.FileStorageService;
+import com.deallock.backend.services.MediaDelivery;
+import com.deallock.backend.services.ProfileImageService;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.Set;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,13 +26,19 @@ public class ProfileController {
     private final UserRepository userRepository;
     private final CurrentUserService currentUserService;
     private final FileStorageService fileStorageService;
+    private final ProfileImageService profileImageService;
+    private final MediaDelivery mediaDelivery;
 
     public ProfileController(UserRepository userRepository,
                              CurrentUserService currentUserService,
-                             FileStorageService fileStorageService) {
+                             FileStorageService fileStorageService,
+                             ProfileImageService profileImageService,
+                             MediaDelivery mediaDelivery) {
         this.userRepository = userRepository;
         this.currentUserService = currentUserService;
         this.fileStorageService = fileStorageService;
+        this.profileImageService = profileImageService;
+        this.mediaDelivery = mediaDelivery;
     }
 
     @GetMapping("/profile")
@@ -54,51 +62,42 @@ public class ProfileController {
         }
 
         var user = userOpt.get();
+        String previousKey = user.getProfileImageKey();
         try {
             FileStorageService.StoredFile stored = fileStorageService.save("users/profile-images", file, MAX_UPLOAD_BYTES, IMAGE_TYPES);
-            user.setProfileImage(null);
             user.setProfileImageContentType(stored.contentType());
             user.setProfileImageKey(stored.key());
+            profileImageService.clear(user);
         } catch (IOException ex) {
             // Fallback to DB blob if filesystem storage isn't available.
-            user.setProfileImage(file.getBytes());
-            user.setProfileImageContentType(file.getContentType());
+            user.setProfileImageContentType(profileImageService.storeBlob(user, file.getBytes(), file.getContentType()));
             user.setProfileImageKey(null);
         }
+        fileStorageService.release(previousKey);
         userRepository.save(user);
 
         return "redirect:/dashboard?upload=success";
     }
 
+    /**
+     * Revalidated with the ETag MediaDelivery sets (304 when unchanged); the row carries no image
+     * bytes, so a hit costs one narrow user lookup.
+     */
     @GetMapping("/profile/image")
-    public ResponseEntity<byte[]> profileImage(Principal principal) {
+    public ResponseEntity<Resource> profileImage(@RequestParam(value = "v", required = false) String version,
+                                                 Principal principal) {
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
         var userOpt = currentUserService.resolve(principal);
-        if (userOpt.isEmpty()) {
+        if (userOpt.isEmpty() || !userOpt.get().hasProfileImage()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
 
         var user = userOpt.get();
-        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
-        if (user.getProfileImageContentType() != null) {
-            type = MediaType.parseMediaType(user.getProfileImageContentType());
-        }
-        byte[] bytes = user.getProfileImage();
-        if ((bytes == null || bytes.length == 0) && user.getProfileImageKey() != null && !user.getProfileImageKey().isBlank()) {
-            try {
-                bytes = fileStorageService.read(user.getProfileImageKey());
-            } catch (IOException ignored) {
-                bytes = null;
-            }
-        }
-        if (bytes == null || bytes.length == 0) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
-        }
-        return ResponseEntity.ok()
-                .contentType(type)
-                .body(bytes);
+        return mediaDelivery.serve(user.getProfileImageKey(), user.getProfileImageContentType(),
+                () -> profileImageService.readBlob(user).orElse(null),
+                version, false);
     }
 }
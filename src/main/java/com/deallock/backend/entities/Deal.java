@@ -6,8 +6,8 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
@@ -18,7 +18,14 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
-@Table(name = "deals")
+@Table(
+        name = "deals",
+        indexes = {
+                @Index(name = "idx_deals_created_id", columnList = "created_at, id"),
+                @Index(name = "idx_deals_user_created_id", columnList = "user_id, created_at, id"),
+                @Index(name = "idx_deals_payment_reminder", columnList = "status, payment_status, id, last_payment_reminder_at")
+        }
+)
 public class Deal {
 
     @Id
@@ -81,44 +88,32 @@ public class Deal {
     private String feedback;
     private Instant feedbackSubmittedAt;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] itemPhoto;
+    /*
+     * Photo/proof bytes live in FileStorageService (referenced by the *Key columns) or, as a
+     * fallback, in the deal_attachments table. Only content type + key stay on the deal row so
+     * list queries never read binary data. Older rows may still hold bytes in the unmapped
+     * item_photo/payment_proof/... columns until LegacyBlobMigration moves them.
+     */
     private String itemPhotoContentType;
     @Column(length = 500)
     private String itemPhotoKey;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] itemPhoto2;
     private String itemPhoto2ContentType;
     @Column(length = 500)
     private String itemPhoto2Key;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] itemPhoto3;
     private String itemPhoto3ContentType;
     @Column(length = 500)
     private String itemPhoto3Key;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] paymentProof;
     private String paymentProofContentType;
     @Column(length = 500)
     private String paymentProofKey;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] securedItemPhoto;
     private String securedItemPhotoContentType;
     @Column(length = 500)
     private String securedItemPhotoKey;
 
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] balancePaymentProof;
     private String balancePaymentProofContentType;
     @Column(length = 500)
     private String balancePaymentProofKey;
@@ -0,0 +1,89 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Lob;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Binary photo/proof bytes for a deal, stored outside the `deals` row.
+ *
+ * Only used when filesystem storage is unavailable (uploads normally go to FileStorageService
+ * and the deal just keeps the storage key). Keeping the bytes here means list queries over
+ * `deals` never read LONGBLOB data; the photo/proof endpoints load one row on demand.
+ */
+@Getter
+@Setter
+@Entity
+@Table(
+        name = "deal_attachments",
+        uniqueConstraints = @UniqueConstraint(name = "uq_deal_attachments_deal_slot", columnNames = {"deal_id", "slot"})
+)
+public class DealAttachment {
+
+    public enum Slot {
+        ITEM_PHOTO("item_photo"),
+        ITEM_PHOTO_2("item_photo2"),
+        ITEM_PHOTO_3("item_photo3"),
+        PAYMENT_PROOF("payment_proof"),
+        SECURED_ITEM_PHOTO("secured_item_photo"),
+        BALANCE_PAYMENT_PROOF("balance_payment_proof");
+
+        private final String legacyColumn;
+
+        Slot(String legacyColumn) {
+            this.legacyColumn = legacyColumn;
+        }
+
+        /**
+         * The `deals` LONGBLOB column this slot used to live in (its content type sits in
+         * {@code <column>_content_type}). Still read until LegacyBlobMigration has emptied it.
+         */
+        public String legacyColumn() {
+            return legacyColumn;
+        }
+
+        public static Slot itemPhoto(int index) {
+            return switch (index) {
+                case 2 -> ITEM_PHOTO_2;
+                case 3 -> ITEM_PHOTO_3;
+                default -> ITEM_PHOTO;
+            };
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "deal_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Deal deal;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Slot slot;
+
+    private String contentType;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] data;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,47 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Progress of one daily digest run. {@code lastSubscriptionId} is advanced after every chunk,
+ * so a run interrupted by a restart continues from there with the same cutoff.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "newsletter_digest_runs")
+public class NewsletterDigestRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Subscriptions last sent before this instant (or never) are due in this run. */
+    @Column(nullable = false)
+    private Instant cutoff;
+
+    @Column(nullable = false)
+    private long lastSubscriptionId;
+
+    @Column(nullable = false)
+    private int sent;
+
+    @Column(nullable = false)
+    private int failed;
+
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+}
@@ -0,0 +1,82 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One pending email/SMS/WhatsApp message. Rows are written in the caller's transaction and
+ * delivered later by NotificationOutboxWorker, so requests never wait on SMTP or Termii.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "notification_outbox", indexes = {
+        @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notification_outbox_channel_due", columnList = "channel, status, next_attempt_at")
+})
+public class NotificationOutbox {
+
+    public enum Channel {
+        EMAIL,
+        SMS,
+        WHATSAPP
+    }
+
+    public enum Status {
+        PENDING,
+        SENDING,
+        SENT,
+        /** Channel not configured on this deployment; nothing to retry. */
+        SKIPPED,
+        /** Gave up after the maximum number of attempts. */
+        DEAD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Channel channel;
+
+    @Column(nullable = false, length = 2000)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    /** While SENDING: when the claim expires and another worker may pick the row up again. */
+    private Instant lockedUntil;
+
+    /** Identifies the current claim; status updates from an older claim are ignored. */
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant createdAt;
+    private Instant sentAt;
+}
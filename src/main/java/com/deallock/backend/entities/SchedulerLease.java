@@ -0,0 +1,39 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Cluster-wide lock for one scheduled job (see SchedulerLeaseService). {@code fencingToken}
+ * grows by one on every acquisition, so a node whose lease expired mid-run can tell it has been
+ * superseded.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(length = 128, nullable = false)
+    private String owner;
+
+    @Column(nullable = false)
+    private Instant leaseUntil;
+
+    @Column(nullable = false)
+    private long fencingToken;
+
+    private Instant acquiredAt;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
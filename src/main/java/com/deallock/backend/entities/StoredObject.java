@@ -0,0 +1,42 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Reference count for a content-addressed upload (`sha256/ab/cd/<hash>.<ext>`).
+ *
+ * Every entity column that points at the key holds one reference. When the count drops to
+ * zero the file becomes eligible for UploadPurgeScheduler after a grace period.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "stored_objects", indexes = @Index(name = "idx_stored_objects_refs", columnList = "ref_count, updated_at"))
+public class StoredObject {
+
+    @Id
+    @Column(name = "storage_key", length = 191)
+    private String storageKey;
+
+    @Column(length = 64, nullable = false)
+    private String sha256;
+
+    private String contentType;
+
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    private Instant createdAt;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
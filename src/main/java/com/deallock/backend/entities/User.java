@@ -38,9 +38,9 @@ public class User {
     private int failedLoginAttempts;
     private Instant lockoutUntil;
     private String profileImageUrl;
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] profileImage;
+    // Uploaded image: a FileStorageService key, or bytes in user_profile_images when only the
+    // content type is set. Older rows may still hold the bytes in the unmapped profile_image
+    // column until LegacyBlobMigration moves them (and fills in the content type).
     private String profileImageContentType;
     private String profileImageKey;
 
@@ -60,7 +60,6 @@ public class User {
                 int failedLoginAttempts,
                 Instant lockoutUntil,
                 String profileImageUrl,
-                byte[] profileImage,
                 String profileImageContentType,
                 String profileImageKey,
                 Instant creation) {
@@ -77,12 +76,17 @@ public class User {
         this.failedLoginAttempts = failedLoginAttempts;
         this.lockoutUntil = lockoutUntil;
         this.profileImageUrl = profileImageUrl;
-        this.profileImage = profileImage;
         this.profileImageContentType = profileImageContentType;
         this.profileImageKey = profileImageKey;
         this.creation = creation;
     }
 
+    /** True when an uploaded image exists (file or DB blob); what /profile/image serves. */
+    public boolean hasProfileImage() {
+        return (profileImageKey != null && !profileImageKey.isBlank())
+                || (profileImageContentType != null && !profileImageContentType.isBlank());
+    }
+
 
 }
 
@@ -0,0 +1,37 @@
+package com.deallock.backend.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Profile image bytes, stored outside the `users` row.
+ *
+ * Only used when filesystem storage is unavailable (uploads normally go to FileStorageService and
+ * the user keeps the storage key). With the bytes here, every user lookup (login, current-user
+ * resolution, admin fan-out, lazy deal owners) reads a narrow row; /profile/image loads this one
+ * on demand.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "user_profile_images")
+public class UserProfileImage {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String contentType;
+
+    @Lob
+    @Column(columnDefinition = "LONGBLOB", nullable = false)
+    private byte[] data;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,6 @@
+package com.deallock.backend.repositories;
+
+/**
+ * The two admin columns notification fan-out needs, instead of whole User rows.
+ */
+public record AdminRecipient(Long id, String email) {}
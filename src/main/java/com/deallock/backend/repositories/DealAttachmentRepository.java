@@ -0,0 +1,17 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.DealAttachment;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface DealAttachmentRepository extends JpaRepository<DealAttachment, Long> {
+
+    Optional<DealAttachment> findByDealIdAndSlot(Long dealId, DealAttachment.Slot slot);
+
+    @Modifying
+    @Query("delete from DealAttachment a where a.deal.id = :dealId and a.slot = :slot")
+    int deleteByDealIdAndSlot(@Param("dealId") Long dealId, @Param("slot") DealAttachment.Slot slot);
+}
@@ -0,0 +1,30 @@
+package com.deallock.backend.repositories;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Narrow read model for the deal list endpoints. Selected with a JPQL constructor expression so
+ * list queries only touch the columns they render and never hydrate managed {@code Deal} entities.
+ */
+public record DealListRow(
+        Long id,
+        String title,
+        String status,
+        BigDecimal value,
+        String paymentStatus,
+        String rejectionReason,
+        boolean secured,
+        Instant securedAt,
+        String balancePaymentStatus,
+        Instant deliveryInitiatedAt,
+        boolean deliveryConfirmedByUser,
+        Instant deliveryConfirmedAt,
+        String feedback,
+        Instant createdAt,
+        Instant paymentDueAt,
+        Integer extensionWeeksUsed,
+        Boolean allowMarketplaceListing,
+        String userEmail
+) {
+}
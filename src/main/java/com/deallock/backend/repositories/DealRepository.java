@@ -3,8 +3,10 @@ package com.deallock.backend.repositories;
 import com.deallock.backend.entities.Deal;
 import com.deallock.backend.entities.User;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,9 +25,96 @@ int updateStatusAndReason(@Param("id") Long id,
 @Query("SELECT d.id, d.title, d.user.id FROM Deal d WHERE d.id = :id")
 Optional<Object[]> findLightweightById(@Param("id") Long id);
     List<Deal> findByUserOrderByCreatedAtDesc(User user);
+
+    String LIST_ROW_SELECT = "SELECT new com.deallock.backend.repositories.DealListRow("
+            + "d.id, d.title, d.status, d.value, d.paymentStatus, d.rejectionReason, d.secured, d.securedAt, "
+            + "d.balancePaymentStatus, d.deliveryInitiatedAt, d.deliveryConfirmedByUser, d.deliveryConfirmedAt, "
+            + "d.feedback, d.createdAt, d.paymentDueAt, d.extensionWeeksUsed, d.allowMarketplaceListing, u.email) "
+            + "FROM Deal d LEFT JOIN d.user u ";
+
+    @Query(LIST_ROW_SELECT + "WHERE u.id = :userId ORDER BY d.createdAt DESC, d.id DESC")
+    List<DealListRow> findListRowsByUserId(@Param("userId") Long userId);
+
+    @Query(LIST_ROW_SELECT + "WHERE d.id IN :ids")
+    List<DealListRow> findListRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT d.id FROM Deal d ORDER BY d.createdAt DESC, d.id DESC")
+    List<Long> findAllIdsNewestFirst();
+
+    // Keyset pages over (createdAt DESC, id DESC); backed by idx_deals_user_created_id / idx_deals_created_id.
+    @Query(LIST_ROW_SELECT + "WHERE u.id = :userId ORDER BY d.createdAt DESC, d.id DESC")
+    List<DealListRow> findListRowsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query(LIST_ROW_SELECT + "WHERE u.id = :userId "
+            + "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) "
+            + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DealListRow> findListRowsByUserIdAfter(@Param("userId") Long userId,
+                                                @Param("createdAt") Instant createdAt,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    @Query(LIST_ROW_SELECT + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DealListRow> findAllListRows(Limit limit);
+
+    @Query(LIST_ROW_SELECT + "WHERE d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id) "
+            + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DealListRow> findAllListRowsAfter(@Param("createdAt") Instant createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+
     List<Deal> findAllByOrderByCreatedAtDesc();
     List<Deal> findByCreatedAtBetweenOrderByCreatedAtDesc(Instant start, Instant end);
-    List<Deal> findByPaymentProofIsNotNullOrderByPaymentProofUploadedAtDesc();
+
+    // Admin dashboard: per-stage counts come from grouping on the fields the stages depend on
+    // (a few dozen groups at most).
+    @Query("SELECT new com.deallock.backend.repositories.DealStageSignalCount("
+            + "d.status, d.paymentStatus, d.secured, d.balancePaymentStatus, "
+            + "CASE WHEN d.deliveryInitiatedAt IS NULL THEN false ELSE true END, "
+            + "d.deliveryConfirmedByUser, "
+            + "CASE WHEN d.deliveryConfirmedAt IS NULL THEN false ELSE true END, "
+            + "CASE WHEN d.feedback IS NULL OR TRIM(d.feedback) = '' THEN false ELSE true END, "
+            + "COUNT(d)) "
+            + "FROM Deal d WHERE d.createdAt >= :start AND d.createdAt < :end "
+            + "GROUP BY d.status, d.paymentStatus, d.secured, d.balancePaymentStatus, "
+            + "CASE WHEN d.deliveryInitiatedAt IS NULL THEN false ELSE true END, "
+            + "d.deliveryConfirmedByUser, "
+            + "CASE WHEN d.deliveryConfirmedAt IS NULL THEN false ELSE true END, "
+            + "CASE WHEN d.feedback IS NULL OR TRIM(d.feedback) = '' THEN false ELSE true END")
+    List<DealStageSignalCount> countByStageSignals(@Param("start") Instant start, @Param("end") Instant end);
+
+    List<Deal> findByPaymentProofUploadedAtIsNotNullOrderByPaymentProofUploadedAtDesc();
     List<Deal> findBySecuredTrueAndDeliveryInitiatedAtIsNullAndDeliveryConfirmedAtIsNullOrderBySecuredAtDesc();
-    List<Deal> findByStatusIgnoreCaseAndPaymentStatusIgnoreCase(String status, String paymentStatus);
+
+    /**
+     * Ids of deals due a payment reminder, in id order after {@code afterId}. Plain equality so
+     * idx_deals_payment_reminder is usable; the values are written in canonical case and the
+     * MySQL collation is case-insensitive anyway.
+     */
+    @Query("SELECT d.id FROM Deal d WHERE d.status = :status AND d.paymentStatus = :paymentStatus "
+            + "AND d.id > :afterId "
+            + "AND (d.lastPaymentReminderAt IS NULL OR d.lastPaymentReminderAt < :cutoff) ORDER BY d.id")
+    List<Long> findPaymentReminderDueIds(@Param("status") String status,
+                                         @Param("paymentStatus") String paymentStatus,
+                                         @Param("cutoff") Instant cutoff,
+                                         @Param("afterId") long afterId,
+                                         Limit limit);
+
+    /**
+     * Stamps the reminder time for the given deals, skipping any another run already stamped.
+     * Done before sending, so a rerun after a crash doesn't remind twice.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Deal d SET d.lastPaymentReminderAt = :now WHERE d.id IN :ids "
+            + "AND (d.lastPaymentReminderAt IS NULL OR d.lastPaymentReminderAt < :cutoff)")
+    int markPaymentReminded(@Param("ids") Collection<Long> ids,
+                            @Param("cutoff") Instant cutoff,
+                            @Param("now") Instant now);
+
+    /** The deals among {@code ids} that {@link #markPaymentReminded} stamped with {@code stampedAt}. */
+    @Query("SELECT new com.deallock.backend.repositories.PaymentReminderRow("
+            + "d.id, d.title, d.paymentDueAt, u.id, u.email, u.phone) "
+            + "FROM Deal d JOIN d.user u WHERE d.id IN :ids AND d.lastPaymentReminderAt = :stampedAt ORDER BY d.id")
+    List<PaymentReminderRow> findPaymentReminderRows(@Param("ids") Collection<Long> ids,
+                                                     @Param("stampedAt") Instant stampedAt);
 }
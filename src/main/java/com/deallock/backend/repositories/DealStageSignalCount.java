@@ -0,0 +1,18 @@
+package com.deallock.backend.repositories;
+
+/**
+ * One row of the admin dashboard's grouped count query: how many deals share a given
+ * combination of lifecycle signals.
+ */
+public record DealStageSignalCount(
+        String status,
+        String paymentStatus,
+        boolean secured,
+        String balancePaymentStatus,
+        boolean deliveryInitiated,
+        boolean deliveryConfirmedByUser,
+        boolean deliveryConfirmed,
+        boolean hasFeedback,
+        long total
+) {
+}
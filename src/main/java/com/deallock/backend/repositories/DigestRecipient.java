@@ -0,0 +1,6 @@
+package com.deallock.backend.repositories;
+
+/**
+ * Id and address of a subscription due for the daily digest.
+ */
+public record DigestRecipient(Long id, String email) {}
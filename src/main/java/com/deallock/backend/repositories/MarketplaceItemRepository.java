@@ -18,6 +18,9 @@ public interface MarketplaceItemRepository extends JpaRepository<MarketplaceItem
 
     boolean existsBySourceDealId(Long sourceDealId);
 
+    @Query("select distinct m.sourceDealId from MarketplaceItem m where m.sourceDealId is not null")
+    List<Long> findAllSourceDealIds();
+
     @Modifying
     @Query("update MarketplaceItem m set m.listed = :listed where m.id = :id")
     int updateListed(@Param("id") Long id, @Param("listed") boolean listed);
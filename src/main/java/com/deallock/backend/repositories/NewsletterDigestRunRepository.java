@@ -0,0 +1,11 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.NewsletterDigestRun;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface NewsletterDigestRunRepository extends JpaRepository<NewsletterDigestRun, Long> {
+
+    Optional<NewsletterDigestRun> findFirstByFinishedAtIsNullAndStartedAtAfterOrderByIdDesc(Instant startedAfter);
+}
@@ -2,15 +2,28 @@ package com.deallock.backend.repositories;
 
 import com.deallock.backend.entities.NewsletterSubscription;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface NewsletterSubscriptionRepository extends JpaRepository<NewsletterSubscription, Long> {
 
     Optional<NewsletterSubscription> findByEmail(String email);
 
-    List<NewsletterSubscription> findByActiveTrueAndLastDigestSentAtBefore(Instant cutoff);
+    /** Next digest chunk after {@code afterId}, in id order (keyset, uses idx_newsletter_active_id). */
+    @Query("select new com.deallock.backend.repositories.DigestRecipient(s.id, s.email) from NewsletterSubscription s "
+            + "where s.active = true and s.id > :afterId "
+            + "and (s.lastDigestSentAt is null or s.lastDigestSentAt < :cutoff) order by s.id")
+    List<DigestRecipient> findDigestChunk(@Param("afterId") long afterId, @Param("cutoff") Instant cutoff, Limit limit);
 
-    List<NewsletterSubscription> findByActiveTrueAndLastDigestSentAtIsNull();
+    @Transactional
+    @Modifying
+    @Query("update NewsletterSubscription s set s.lastDigestSentAt = :sentAt, s.updatedAt = :sentAt where s.id in :ids")
+    int markDigestSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
 }
@@ -0,0 +1,67 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.NotificationOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    /**
+     * Due rows of one channel plus its SENDING rows whose claim expired (worker died mid-send).
+     * Lock timeout -2 is SKIP LOCKED, so several nodes can claim concurrently without handing
+     * out the same row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select o from NotificationOutbox o where o.channel = :channel and ("
+            + "   (o.status = com.deallock.backend.entities.NotificationOutbox.Status.PENDING and o.nextAttemptAt <= :now) "
+            + "or (o.status = com.deallock.backend.entities.NotificationOutbox.Status.SENDING and o.lockedUntil < :now)) "
+            + "order by o.nextAttemptAt, o.id")
+    List<NotificationOutbox> findClaimable(@Param("channel") NotificationOutbox.Channel channel,
+                                           @Param("now") Instant now,
+                                           Limit limit);
+
+    // Both updates only apply to the claim that is still current: if the lease expired and
+    // another worker re-claimed the row, the late result is dropped (returns 0).
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationOutbox o set o.status = :status, o.sentAt = :now, o.lockedUntil = null, "
+            + "o.claimToken = null, o.attempts = o.attempts + 1, o.lastError = :error "
+            + "where o.id = :id and o.claimToken = :claimToken "
+            + "and o.status = com.deallock.backend.entities.NotificationOutbox.Status.SENDING")
+    int markFinished(@Param("id") Long id,
+                     @Param("claimToken") String claimToken,
+                     @Param("status") NotificationOutbox.Status status,
+                     @Param("error") String error,
+                     @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update NotificationOutbox o set o.status = com.deallock.backend.entities.NotificationOutbox.Status.PENDING, "
+            + "o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, o.lockedUntil = null, "
+            + "o.claimToken = null, o.lastError = :error "
+            + "where o.id = :id and o.claimToken = :claimToken "
+            + "and o.status = com.deallock.backend.entities.NotificationOutbox.Status.SENDING")
+    int markRetry(@Param("id") Long id,
+                  @Param("claimToken") String claimToken,
+                  @Param("nextAttemptAt") Instant nextAttemptAt,
+                  @Param("error") String error);
+
+    @Transactional
+    @Modifying
+    @Query("delete from NotificationOutbox o where o.status in :statuses and o.sentAt < :cutoff")
+    int deleteFinishedBefore(@Param("statuses") Collection<NotificationOutbox.Status> statuses,
+                             @Param("cutoff") Instant cutoff);
+}
@@ -2,7 +2,10 @@ package com.deallock.backend.repositories;
 
 import com.deallock.backend.entities.Notification;
 import com.deallock.backend.entities.User;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +15,24 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     List<Notification> findByUserOrderByCreatedAtDesc(User user);
     long countByUserAndReadIsFalse(User user);
 
+    long countByUserIdAndReadIsFalse(Long userId);
+
+    // Keyset pages over (createdAt DESC, id DESC); backed by idx_notifications_user_created_id.
+    @Query("select n from Notification n where n.user.id = :userId order by n.createdAt desc, n.id desc")
+    List<Notification> findPageByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("select n from Notification n where n.user.id = :userId "
+            + "and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id)) "
+            + "order by n.createdAt desc, n.id desc")
+    List<Notification> findPageByUserIdAfter(@Param("userId") Long userId,
+                                             @Param("createdAt") Instant createdAt,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    @Query("select new com.deallock.backend.repositories.UnreadCount(n.user.id, count(n)) from Notification n "
+            + "where n.read = false and n.user.id in :userIds group by n.user.id")
+    List<UnreadCount> countUnreadByUserIds(@Param("userIds") Collection<Long> userIds);
+
     @Modifying
     @Query("update Notification n set n.read = true where n.user = :user and n.read = false")
     int markAllReadByUser(@Param("user") User user);
@@ -0,0 +1,9 @@
+package com.deallock.backend.repositories;
+
+import java.time.Instant;
+
+/**
+ * What a payment reminder needs about a deal and its owner, without loading either entity.
+ */
+public record PaymentReminderRow(Long dealId, String title, Instant paymentDueAt,
+                                 Long userId, String email, String phone) {}
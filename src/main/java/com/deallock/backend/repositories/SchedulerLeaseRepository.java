@@ -0,0 +1,59 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.SchedulerLease;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Every write commits on its own (REQUIRES_NEW): a lease must be visible to other nodes as soon
+ * as it is taken or released, whatever transaction the job itself is in.
+ *
+ * Expiry is computed and compared on the database clock (CURRENT_TIMESTAMP(6)); durations are
+ * passed in microseconds. Node clocks may disagree, and a node running fast would otherwise take
+ * over a lease that is still live.
+ */
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_leases (name, owner, lease_until, fencing_token, updated_at) "
+            + "VALUES (:name, '', CURRENT_TIMESTAMP(6), 0, CURRENT_TIMESTAMP(6))", nativeQuery = true)
+    int insertFree(@Param("name") String name);
+
+    /** Takes the lease if it has expired; 1 when this caller now holds it. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE scheduler_leases SET owner = :owner, "
+            + "lease_until = TIMESTAMPADD(MICROSECOND, :lockMicros, CURRENT_TIMESTAMP(6)), "
+            + "fencing_token = fencing_token + 1, acquired_at = CURRENT_TIMESTAMP(6), updated_at = CURRENT_TIMESTAMP(6) "
+            + "WHERE name = :name AND lease_until <= CURRENT_TIMESTAMP(6)", nativeQuery = true)
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("lockMicros") long lockMicros);
+
+    @Query("select l.fencingToken from SchedulerLease l where l.name = :name and l.owner = :owner")
+    Optional<Long> findFencingToken(@Param("name") String name, @Param("owner") String owner);
+
+    /** Moves the expiry of a lease this caller still holds; 0 means it was lost. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE scheduler_leases SET "
+            + "lease_until = TIMESTAMPADD(MICROSECOND, :lockMicros, CURRENT_TIMESTAMP(6)), updated_at = CURRENT_TIMESTAMP(6) "
+            + "WHERE name = :name AND owner = :owner AND fencing_token = :token "
+            + "AND lease_until > CURRENT_TIMESTAMP(6)", nativeQuery = true)
+    int extend(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+               @Param("lockMicros") long lockMicros);
+
+    /** Keeps the lease until {@code keepMicros} after it was acquired, or frees it now if that has passed. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "UPDATE scheduler_leases SET "
+            + "lease_until = GREATEST(TIMESTAMPADD(MICROSECOND, :keepMicros, acquired_at), CURRENT_TIMESTAMP(6)), "
+            + "updated_at = CURRENT_TIMESTAMP(6) "
+            + "WHERE name = :name AND owner = :owner AND fencing_token = :token", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("token") long token,
+                @Param("keepMicros") long keepMicros);
+}
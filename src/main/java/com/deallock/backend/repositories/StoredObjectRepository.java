@@ -0,0 +1,64 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.StoredObject;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StoredObjectRepository extends JpaRepository<StoredObject, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount + 1, o.updatedAt = :now where o.storageKey = :key")
+    int increment(@Param("key") String key, @Param("now") Instant now);
+
+    /**
+     * Plain INSERT (not merge) so a concurrent first upload of the same bytes fails on the
+     * primary key instead of silently resetting the count.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stored_objects (storage_key, sha256, content_type, size_bytes, ref_count, created_at, updated_at) "
+            + "VALUES (:key, :sha256, :contentType, :sizeBytes, 1, :now, :now)",
+            nativeQuery = true)
+    int insertFirstReference(@Param("key") String key,
+                             @Param("sha256") String sha256,
+                             @Param("contentType") String contentType,
+                             @Param("sizeBytes") long sizeBytes,
+                             @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredObject o set o.refCount = o.refCount - 1, o.updatedAt = :now "
+            + "where o.storageKey = :key and o.refCount > 0")
+    int decrement(@Param("key") String key, @Param("now") Instant now);
+
+    @Query("select o.storageKey from StoredObject o where o.refCount <= 0 and o.updatedAt < :cutoff order by o.updatedAt")
+    List<String> findUnreferencedKeys(@Param("cutoff") Instant cutoff, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StoredObject o where o.storageKey = :key")
+    Optional<StoredObject> findForUpdate(@Param("key") String key);
+
+    /**
+     * Safety net for the purge: rows that still point at the key even though the count says
+     * otherwise (e.g. a release that ran before its entity save failed).
+     */
+    @Query(value = "SELECT "
+            + "(SELECT COUNT(*) FROM deals WHERE item_photo_key = :key OR item_photo2_key = :key "
+            + "   OR item_photo3_key = :key OR payment_proof_key = :key "
+            + "   OR secured_item_photo_key = :key OR balance_payment_proof_key = :key) "
+            + "+ (SELECT COUNT(*) FROM marketplace_items WHERE photo_key = :key OR photo2_key = :key OR photo3_key = :key) "
+            + "+ (SELECT COUNT(*) FROM marketplace_orders WHERE payment_proof_key = :key) "
+            + "+ (SELECT COUNT(*) FROM users WHERE profile_image_key = :key)",
+            nativeQuery = true)
+    long countLiveReferences(@Param("key") String key);
+}
@@ -0,0 +1,3 @@
+package com.deallock.backend.repositories;
+
+public record UnreadCount(Long userId, long count) {}
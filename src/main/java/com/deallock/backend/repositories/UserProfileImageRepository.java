@@ -0,0 +1,14 @@
+package com.deallock.backend.repositories;
+
+import com.deallock.backend.entities.UserProfileImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface UserProfileImageRepository extends JpaRepository<UserProfileImage, Long> {
+
+    @Modifying
+    @Query("delete from UserProfileImage i where i.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
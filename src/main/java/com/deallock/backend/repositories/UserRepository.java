@@ -4,6 +4,8 @@ import java.util.Optional;
 import java.util.List;
 import com.deallock.backend.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
@@ -11,4 +13,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     List<User> findByRole(String role);
 
+    @Query("select new com.deallock.backend.repositories.AdminRecipient(u.id, u.email) from User u where u.role = :role")
+    List<AdminRecipient> findRecipientsByRole(@Param("role") String role);
+
 }
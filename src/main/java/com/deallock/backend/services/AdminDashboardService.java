@@ -0,0 +1,45 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.DealRepository;
+import com.deallock.backend.repositories.DealStageSignalCount;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AdminDashboardService {
+
+    private final DealRepository dealRepository;
+
+    public AdminDashboardService(DealRepository dealRepository) {
+        this.dealRepository = dealRepository;
+    }
+
+    /**
+     * Per-stage totals for deals created in [start, end), from one grouped query whose groups
+     * are classified with the same code as everything else. The dashboard table itself is
+     * filled client-side from /api/admin/deals, so no deal rows are loaded here.
+     */
+    public Map<DealLifecycleStage, Long> countByStage(Instant start, Instant end) {
+        Map<DealLifecycleStage, Long> counts = new EnumMap<>(DealLifecycleStage.class);
+        for (DealLifecycleStage stage : DealLifecycleStage.values()) {
+            counts.put(stage, 0L);
+        }
+        for (DealStageSignalCount group : dealRepository.countByStageSignals(start, end)) {
+            var signals = new DealLifecycleStage.Signals(
+                    group.status(),
+                    group.paymentStatus(),
+                    group.secured(),
+                    group.balancePaymentStatus(),
+                    group.deliveryInitiated(),
+                    group.deliveryConfirmedByUser(),
+                    group.deliveryConfirmed(),
+                    group.hasFeedback());
+            for (DealLifecycleStage stage : DealLifecycleStage.classify(signals)) {
+                counts.merge(stage, group.total(), Long::sum);
+            }
+        }
+        return counts;
+    }
+}
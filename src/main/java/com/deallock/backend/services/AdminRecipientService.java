@@ -0,0 +1,116 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.AdminRecipient;
+import com.deallock.backend.repositories.UserRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cached list of admin accounts for notification fan-out, so every admin notification doesn't
+ * re-run the role query. Call {@link #evict} wherever a user's role is changed.
+ */
+@Service
+public class AdminRecipientService {
+
+    static final String CACHE = "adminRecipients";
+    static final String KEY = "all";
+
+    private static final Logger log = LoggerFactory.getLogger(AdminRecipientService.class);
+
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+
+    public AdminRecipientService(UserRepository userRepository, CacheManager cacheManager) {
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    public List<AdminRecipient> recipients() {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            try {
+                Cache.ValueWrapper wrapper = cache.get(KEY);
+                if (wrapper != null && wrapper.get() instanceof List<?> cached) {
+                    return fromCache(cached);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Cache GET failed (cache={}). Reloading admins.", CACHE, ex);
+            }
+        }
+        List<AdminRecipient> recipients = userRepository.findRecipientsByRole("ROLE_ADMIN");
+        if (cache != null) {
+            try {
+                cache.put(KEY, toCache(recipients));
+            } catch (RuntimeException ex) {
+                log.warn("Cache PUT failed (cache={}). Continuing.", CACHE, ex);
+            }
+        }
+        return recipients;
+    }
+
+    public List<String> emails() {
+        return recipients().stream()
+                .map(AdminRecipient::email)
+                .filter(e -> e != null && !e.isBlank())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Drops the cached list now and again after the surrounding transaction commits, so a
+     * concurrent read can't re-cache the pre-commit role.
+     */
+    public void evict() {
+        evictQuietly();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictQuietly();
+                }
+            });
+        }
+    }
+
+    private void evictQuietly() {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) return;
+        try {
+            cache.evict(KEY);
+        } catch (RuntimeException ex) {
+            log.warn("Cache evict failed (cache={}). Continuing.", CACHE, ex);
+        }
+    }
+
+    // Stored as plain maps: the Redis tier serializes to JSON without type information.
+    private static List<Map<String, Object>> toCache(List<AdminRecipient> recipients) {
+        List<Map<String, Object>> rows = new ArrayList<>(recipients.size());
+        for (AdminRecipient r : recipients) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", r.id());
+            row.put("email", r.email());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<AdminRecipient> fromCache(List<?> cached) {
+        List<AdminRecipient> recipients = new ArrayList<>(cached.size());
+        for (Object o : cached) {
+            if (o instanceof Map<?, ?> row && row.get("id") instanceof Number id) {
+                Object email = row.get("email");
+                recipients.add(new AdminRecipient(id.longValue(), email == null ? null : email.toString()));
+            }
+        }
+        return recipients;
+    }
+}
@@ -1,18 +1,138 @@
 package com.deallock.backend.services;
 
-import com.deallock.backend.entities.AuditLog;
-import com.deallock.backend.repositories.AuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Audit trail for logins, OTPs and admin actions, written off the request path.
+ *
+ * {@link #log} captures the request details and offers the event to a bounded in-memory buffer;
+ * it never blocks or touches the disk. If the buffer is full the event is dropped and counted
+ * ({@code deallock.audit.dropped}). One writer thread inserts buffered events in JDBC batches,
+ * every {@code batch-size} events or {@code flush-interval}, whichever comes first.
+ *
+ * A batch the database can't take right now (connection down, timeout) is appended to the spill
+ * file and replayed later. A batch that fails on its data is retried row by row, and rows that
+ * still fail are set aside in {@code <spill-file>.rejected} rather than retried forever, so one
+ * bad row can't hold up everything behind it. On shutdown the buffer is drained.
+ */
 @Service
 public class AuditLogService {
 
-    private final AuditLogRepository auditRepo;
+    private static final Logger log = LoggerFactory.getLogger(AuditLogService.class);
 
-    public AuditLogService(AuditLogRepository auditRepo) {
-        this.auditRepo = auditRepo;
+    private static final String INSERT_AUDIT_LOG =
+            "INSERT INTO audit_logs (event_type, email, ip_address, user_agent, details, success, created_at)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    // Column sizes (V3/V13); values are cut to fit so ordinary input can't fail a batch.
+    private static final int MAX_EVENT_TYPE = 64;
+    private static final int MAX_EMAIL = 255;
+    private static final int MAX_IP = 64;
+    private static final int MAX_USER_AGENT = 255;
+    private static final int MAX_DETAILS = 2000;
+    private static final Duration REPLAY_INTERVAL = Duration.ofSeconds(30);
+    private static final long DROP_WARN_INTERVAL_NANOS = Duration.ofMinutes(1).toNanos();
+
+    /** One audit row; also the spill file line format (JSON, one per line). */
+    record Event(String eventType, String email, String ipAddress, String userAgent,
+                 String details, boolean success, long createdAtMillis) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BlockingQueue<Event> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Path spillFile;
+    private final Path rejectedFile;
+    private final Object spillLock = new Object();
+    private final Counter spilled;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final AtomicLong lastDropWarnNanos = new AtomicLong(System.nanoTime() - DROP_WARN_INTERVAL_NANOS);
+
+    private volatile boolean running;
+    private Thread writer;
+    private long nextReplayNanos = System.nanoTime();
+
+    public AuditLogService(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.audit.buffer-size:10000}") int bufferSize,
+                           @Value("${app.audit.batch-size:200}") int batchSize,
+                           @Value("${app.audit.flush-interval:500ms}") Duration flushInterval,
+                           @Value("${app.audit.spill-file:audit/spill.jsonl}") String spillFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.buffer = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = flushInterval;
+        this.spillFile = Path.of(spillFile).toAbsolutePath();
+        this.rejectedFile = this.spillFile.resolveSibling(this.spillFile.getFileName() + ".rejected");
+        this.spilled = Counter.builder("deallock.audit.spilled")
+                .description("Audit events written to the spill file instead of the database")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("deallock.audit.rejected")
+                .description("Audit events the database refused, set aside in the rejected file")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("deallock.audit.dropped")
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("deallock.audit.buffered", buffer, BlockingQueue::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::writeLoop);
+    }
+
+    /** Stops the writer and writes whatever is still buffered (to the spill file if the DB is gone). */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        List<Event> rest = new ArrayList<>();
+        buffer.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            write(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
     }
 
     public void log(String eventType,
@@ -20,19 +140,228 @@ public class AuditLogService {
                     HttpServletRequest request,
                     boolean success,
                     String details) {
-        AuditLog log = new AuditLog();
-        log.setEventType(eventType);
-        log.setEmail(email);
-        log.setIpAddress(getClientIp(request));
-        log.setUserAgent(request != null ? request.getHeader("User-Agent") : null);
-        if (details != null && details.length() > 2000) {
-            log.setDetails(details.substring(0, 2000));
-        } else {
-            log.setDetails(details);
-        }
-        log.setSuccess(success);
-        log.setCreatedAt(Instant.now());
-        auditRepo.save(log);
+        Event event = new Event(
+                truncate(eventType, MAX_EVENT_TYPE),
+                truncate(email, MAX_EMAIL),
+                truncate(getClientIp(request), MAX_IP),
+                truncate(request != null ? request.getHeader("User-Agent") : null, MAX_USER_AGENT),
+                truncate(details, MAX_DETAILS),
+                success,
+                Instant.now().toEpochMilli());
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            long last = lastDropWarnNanos.get();
+            long now = System.nanoTime();
+            if (now - last >= DROP_WARN_INTERVAL_NANOS && lastDropWarnNanos.compareAndSet(last, now)) {
+                log.warn("Audit buffer full; dropping events (type={}, email={})", event.eventType(), event.email());
+            }
+        }
+    }
+
+    private void writeLoop() {
+        List<Event> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Event first = buffer.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.nanoTime() + flushInterval.toNanos();
+                    while (batch.size() < batchSize) {
+                        long waitNanos = deadline - System.nanoTime();
+                        Event next = waitNanos > 0 ? buffer.poll(waitNanos, TimeUnit.NANOSECONDS) : buffer.poll();
+                        if (next == null) break;
+                        batch.add(next);
+                        buffer.drainTo(batch, batchSize - batch.size());
+                    }
+                    write(batch);
+                    batch.clear();
+                }
+                if (System.nanoTime() - nextReplayNanos >= 0) {
+                    nextReplayNanos = System.nanoTime() + REPLAY_INTERVAL.toNanos();
+                    replaySpill();
+                }
+            } catch (InterruptedException ex) {
+                // stop() drains the buffer; hand back what this loop was holding.
+                write(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Audit writer error: {}", ex.getMessage());
+                batch.clear();
+            }
+        }
+    }
+
+    /** Stores the batch; whatever the database can't take right now goes to the spill file. */
+    private void write(List<Event> batch) {
+        if (batch.isEmpty()) return;
+        int stored = store(batch);
+        if (stored < batch.size()) {
+            spill(batch.subList(stored, batch.size()));
+        }
+    }
+
+    /**
+     * Inserts the events in one batch. If the batch fails on its data, inserts them one by one and
+     * sets aside the rows that still fail. Returns how many events were dealt with (inserted or set
+     * aside) before the database became unavailable; {@code events.size()} when all of them were.
+     */
+    private int store(List<Event> events) {
+        try {
+            insert(events);
+            return events.size();
+        } catch (RuntimeException ex) {
+            if (!isDataError(ex)) {
+                log.warn("Audit insert of {} events failed: {}", events.size(), ex.getMessage());
+                return 0;
+            }
+        }
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            try {
+                insert(List.of(event));
+            } catch (RuntimeException ex) {
+                if (!isDataError(ex)) {
+                    log.warn("Audit insert failed: {}", ex.getMessage());
+                    return i;
+                }
+                setAside(event, ex);
+            }
+        }
+        return events.size();
+    }
+
+    /** All-or-nothing, so a failed batch can be retried row by row without duplicates. */
+    private void insert(List<Event> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG, batch, batch.size(), (ps, event) -> {
+                    ps.setString(1, event.eventType());
+                    ps.setString(2, event.email());
+                    ps.setString(3, event.ipAddress());
+                    ps.setString(4, event.userAgent());
+                    ps.setString(5, event.details());
+                    ps.setBoolean(6, event.success());
+                    ps.setTimestamp(7, new Timestamp(event.createdAtMillis()));
+                }));
+    }
+
+    /** Constraint / value errors: retrying the same row will never work. Everything else might. */
+    private static boolean isDataError(RuntimeException ex) {
+        return ex instanceof DataIntegrityViolationException;
+    }
+
+    private void setAside(Event event, RuntimeException cause) {
+        rejected.increment();
+        log.warn("Audit event rejected by the database, set aside in {}: {}", rejectedFile, cause.getMessage());
+        try {
+            appendTo(rejectedFile, objectMapper.writeValueAsString(
+                    Map.of("event", event, "error", String.valueOf(cause.getMessage()))) + "\n");
+        } catch (IOException ex) {
+            log.error("Could not write rejected audit event {}", event, ex);
+        }
+    }
+
+    /** Appends and fsyncs; if even that fails the events only survive in the application log. */
+    private void spill(List<Event> events) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (Event event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            }
+            appendTo(spillFile, lines.toString());
+            spilled.increment(events.size());
+        } catch (IOException ex) {
+            log.error("Audit spill to {} failed; lost {} events: {}", spillFile, events.size(), events, ex);
+        }
+    }
+
+    private void appendTo(Path file, String lines) throws IOException {
+        if (lines.isEmpty()) return;
+        synchronized (spillLock) {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                ByteBuffer bytes = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * Moves the spill file aside and stores it batch by batch. Unreadable lines and rows the
+     * database rejects are set aside; if the database becomes unavailable again, the lines not yet
+     * stored go back into the spill file for the next attempt. Package-private for tests.
+     */
+    void replaySpill() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        try {
+            synchronized (spillLock) {
+                // A leftover .replaying file means a crash mid-replay: finish that one first.
+                if (!Files.exists(replaying)) {
+                    if (!Files.exists(spillFile)) return;
+                    Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+            int replayed = 0;
+            try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+                List<Event> batch = new ArrayList<>(batchSize);
+                List<String> batchLines = new ArrayList<>(batchSize);
+                String line;
+                boolean more = true;
+                while (more) {
+                    line = reader.readLine();
+                    more = line != null;
+                    if (more && !line.isBlank()) {
+                        try {
+                            batch.add(objectMapper.readValue(line, Event.class));
+                            batchLines.add(line);
+                        } catch (IOException ex) {
+                            rejected.increment();
+                            appendTo(rejectedFile, line + "\n");
+                        }
+                    }
+                    if (batch.size() == batchSize || (!more && !batch.isEmpty())) {
+                        int stored = store(batch);
+                        replayed += stored;
+                        if (stored < batch.size()) {
+                            requeueRemainder(batchLines.subList(stored, batchLines.size()), reader);
+                            log.warn("Audit spill replay paused after {} events; database unavailable", replayed);
+                            break;
+                        }
+                        batch.clear();
+                        batchLines.clear();
+                    }
+                }
+            }
+            Files.delete(replaying);
+            if (replayed > 0) {
+                log.info("Replayed {} spilled audit events", replayed);
+            }
+        } catch (IOException ex) {
+            log.warn("Audit spill replay failed: {}", ex.getMessage());
+        }
+    }
+
+    /** Puts the unstored lines of the current batch, then the rest of the file, back into the spill file. */
+    private void requeueRemainder(List<String> pending, BufferedReader rest) throws IOException {
+        StringBuilder remainder = new StringBuilder();
+        for (String line : pending) {
+            remainder.append(line).append('\n');
+        }
+        String line;
+        while ((line = rest.readLine()) != null) {
+            if (!line.isBlank()) {
+                remainder.append(line).append('\n');
+            }
+        }
+        appendTo(spillFile, remainder.toString());
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
     }
 
     private String getClientIp(HttpServletRequest request) {
@@ -0,0 +1,54 @@
+package com.deallock.backend.services;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consecutive-failure circuit breaker for an outbound HTTP dependency.
+ *
+ * After {@code failureThreshold} failures in a row the circuit opens and {@link #tryAcquire}
+ * refuses calls for {@code openDuration}. Then a single trial call is let through (half-open):
+ * success closes the circuit, failure opens it for another {@code openDuration}.
+ */
+class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntilNanos = new AtomicLong();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile boolean open;
+
+    CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /** False while the circuit is open; callers should fail fast without calling out. */
+    boolean tryAcquire() {
+        if (!open) return true;
+        if (System.nanoTime() - openUntilNanos.get() < 0) return false;
+        // Half-open: exactly one caller gets to probe.
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    void onSuccess() {
+        consecutiveFailures.set(0);
+        open = false;
+        trialInFlight.set(false);
+    }
+
+    void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold || open) {
+            openUntilNanos.set(System.nanoTime() + openNanos);
+            open = true;
+        }
+        trialInFlight.set(false);
+    }
+
+    boolean isOpen() {
+        return open;
+    }
+}
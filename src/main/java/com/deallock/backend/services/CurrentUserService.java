@@ -3,17 +3,42 @@ package com.deallock.backend.services;
 import com.deallock.backend.entities.User;
 import com.deallock.backend.repositories.UserRepository;
 import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+/**
+ * Maps the login identifier (email, username or phone) to the User row.
+ *
+ * The model advice and most controllers resolve the same principal within one request, and a
+ * cold lookup can take three queries. So: each request remembers what it resolved, and the
+ * identifier → user id mapping is cached briefly (cache "currentUserIds"), turning later requests
+ * into a single primary-key load. A cached id is only trusted if the loaded row still carries that
+ * identifier, so a renamed account can't be served for someone else's login; {@link #evict} is
+ * for the places that change identifiers or roles.
+ */
 @Service
 public class CurrentUserService {
 
+    static final String CACHE = "currentUserIds";
+
+    private static final String MEMO_ATTRIBUTE = CurrentUserService.class.getName() + ".memo";
+    private static final Logger log = LoggerFactory.getLogger(CurrentUserService.class);
+
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
 
-    public CurrentUserService(UserRepository userRepository) {
+    public CurrentUserService(UserRepository userRepository, CacheManager cacheManager) {
         this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
     }
 
     public Optional<User> resolve(Principal principal) {
@@ -38,9 +63,98 @@ public class CurrentUserService {
         if (identifier == null) return Optional.empty();
         String key = identifier.trim();
         if (key.isBlank()) return Optional.empty();
-        return userRepository.findByEmail(key)
+
+        Map<String, Optional<User>> memo = requestMemo();
+        if (memo != null) {
+            Optional<User> seen = memo.get(key);
+            if (seen != null) return seen;
+        }
+        Optional<User> user = lookup(key);
+        if (memo != null) {
+            memo.put(key, user);
+        }
+        return user;
+    }
+
+    /**
+     * Forgets every identifier of this user, in the cache and in the current request. Call after
+     * changing a user's email, username, phone or role.
+     */
+    public void evict(User user) {
+        if (user == null) return;
+        Map<String, Optional<User>> memo = requestMemo();
+        for (String identifier : new String[] {user.getEmail(), user.getUsername(), user.getPhone()}) {
+            if (identifier == null || identifier.isBlank()) continue;
+            String key = identifier.trim();
+            if (memo != null) {
+                memo.remove(key);
+            }
+            evictQuietly(key);
+        }
+    }
+
+    private Optional<User> lookup(String key) {
+        Long cachedId = cachedId(key);
+        if (cachedId != null) {
+            Optional<User> user = userRepository.findById(cachedId).filter(u -> carries(u, key));
+            if (user.isPresent()) return user;
+            evictQuietly(key);
+        }
+        Optional<User> user = userRepository.findByEmail(key)
                 .or(() -> userRepository.findByUsername(key))
                 .or(() -> userRepository.findByPhone(key));
+        user.ifPresent(u -> putQuietly(key, u.getId()));
+        return user;
+    }
+
+    private static boolean carries(User user, String key) {
+        return key.equalsIgnoreCase(user.getEmail())
+                || key.equalsIgnoreCase(user.getUsername())
+                || key.equalsIgnoreCase(user.getPhone());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Optional<User>> requestMemo() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) return null;
+        Object memo = attributes.getAttribute(MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (memo == null) {
+            memo = new HashMap<String, Optional<User>>();
+            attributes.setAttribute(MEMO_ATTRIBUTE, memo, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, Optional<User>>) memo;
+    }
+
+    private Long cachedId(String key) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) return null;
+        try {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            // The Redis tier stores JSON numbers, which may come back as Integer.
+            return wrapper != null && wrapper.get() instanceof Number id ? id.longValue() : null;
+        } catch (RuntimeException ex) {
+            log.warn("Cache GET failed (cache={}). Looking user up.", CACHE, ex);
+            return null;
+        }
     }
-}
 
+    private void putQuietly(String key, Long id) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null || id == null) return;
+        try {
+            cache.put(key, id);
+        } catch (RuntimeException ex) {
+            log.warn("Cache PUT failed (cache={}). Continuing.", CACHE, ex);
+        }
+    }
+
+    private void evictQuietly(String key) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache == null) return;
+        try {
+            cache.evict(key);
+        } catch (RuntimeException ex) {
+            log.warn("Cache evict failed (cache={}). Continuing.", CACHE, ex);
+        }
+    }
+}
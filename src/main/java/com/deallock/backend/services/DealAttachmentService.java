@@ -0,0 +1,83 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.DealAttachment;
+import com.deallock.backend.repositories.DealAttachmentRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class DealAttachmentService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final DealAttachmentRepository attachmentRepository;
+    private final JdbcTemplate jdbcTemplate;
+    /** Slots whose legacy `deals` column doesn't exist in this schema; not queried again. */
+    private final Set<DealAttachment.Slot> legacyColumnMissing = ConcurrentHashMap.newKeySet();
+
+    public DealAttachmentService(DealAttachmentRepository attachmentRepository, JdbcTemplate jdbcTemplate) {
+        this.attachmentRepository = attachmentRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * DB fallback for when filesystem storage isn't available. The deal must already be saved.
+     * Returns the content type recorded for the slot so callers can mirror it on the deal row.
+     */
+    @Transactional
+    public String storeBlob(Deal deal, DealAttachment.Slot slot, byte[] bytes, String contentType) {
+        String type = contentType == null || contentType.isBlank() ? DEFAULT_CONTENT_TYPE : contentType;
+        DealAttachment attachment = attachmentRepository.findByDealIdAndSlot(deal.getId(), slot)
+                .orElseGet(DealAttachment::new);
+        attachment.setDeal(deal);
+        attachment.setSlot(slot);
+        attachment.setContentType(type);
+        attachment.setData(bytes);
+        attachment.setCreatedAt(Instant.now());
+        attachmentRepository.save(attachment);
+        return type;
+    }
+
+    /**
+     * Drops a previously stored DB blob once the slot has been re-uploaded to file storage.
+     */
+    @Transactional
+    public void clear(Deal deal, DealAttachment.Slot slot) {
+        if (deal == null || deal.getId() == null) return;
+        attachmentRepository.deleteByDealIdAndSlot(deal.getId(), slot);
+    }
+
+    /**
+     * The slot's DB blob: the deal_attachments row, or else bytes still sitting in the old
+     * `deals` column that LegacyBlobMigration hasn't moved yet.
+     */
+    public Optional<byte[]> readBlob(Deal deal, DealAttachment.Slot slot) {
+        if (deal == null || deal.getId() == null) return Optional.empty();
+        Optional<byte[]> stored = attachmentRepository.findByDealIdAndSlot(deal.getId(), slot)
+                .map(DealAttachment::getData)
+                .filter(bytes -> bytes.length > 0);
+        return stored.isPresent() ? stored : readLegacyBlob(deal.getId(), slot);
+    }
+
+    private Optional<byte[]> readLegacyBlob(Long dealId, DealAttachment.Slot slot) {
+        if (legacyColumnMissing.contains(slot)) return Optional.empty();
+        try {
+            List<byte[]> rows = jdbcTemplate.query(
+                    "SELECT " + slot.legacyColumn() + " FROM deals WHERE id = ?",
+                    (rs, rowNum) -> rs.getBytes(1), dealId);
+            return rows.stream().filter(bytes -> bytes != null && bytes.length > 0).findFirst();
+        } catch (BadSqlGrammarException ex) {
+            // Schema created after the columns were unmapped (or they were dropped by hand).
+            legacyColumnMissing.add(slot);
+            return Optional.empty();
+        }
+    }
+}
@@ -5,15 +5,25 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class DealCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(DealCacheService.class);
     private final CacheManager cacheManager;
+    private final DealPageGenerations pageGenerations;
+    private final LiveEventPublisher liveEventPublisher;
 
-    public DealCacheService(CacheManager cacheManager) {
+    // Every deal write already funnels through these evictions, so they double as the change feed
+    // for /api/stream (events go out after commit, see LiveEventPublisher).
+    public DealCacheService(CacheManager cacheManager,
+                            DealPageGenerations pageGenerations,
+                            LiveEventPublisher liveEventPublisher) {
         this.cacheManager = cacheManager;
+        this.pageGenerations = pageGenerations;
+        this.liveEventPublisher = liveEventPublisher;
     }
 
     public void evictUserDeals(String key) {
@@ -37,15 +47,65 @@ public class DealCacheService {
                 log.warn("Cache evict failed (cache=userDeals, key={}). Continuing.", userId, ex);
             }
         }
+        // Page keys embed the cursor; a new generation orphans just this user's pages. Bumped
+        // again after commit so a page read mid-transaction isn't cached under the new one.
+        pageGenerations.bumpUser(userId);
+        afterCommit(() -> pageGenerations.bumpUser(userId));
+        liveEventPublisher.userDealsChanged(userId);
     }
 
-    public void evictAdminDeals() {
-        Cache cache = cacheManager.getCache("adminDeals");
+    /**
+     * One deal changed: only its admin row is rebuilt on the next read.
+     */
+    public void evictAdminDeal(Long dealId) {
+        if (dealId == null) return;
+        Runnable eviction = () -> {
+            evict(DealReadService.ADMIN_ROW_CACHE, dealId);
+            pageGenerations.bumpAdmin();
+        };
+        eviction.run();
+        afterCommit(eviction);
+        liveEventPublisher.dealChanged(dealId, null);
+    }
+
+    /**
+     * A deal was created or deleted: its row and the ordered id index are dropped. The index is
+     * rebuilt from an id-only query; other rows stay cached.
+     */
+    public void evictAdminDealIndex(Long dealId) {
+        Runnable eviction = () -> {
+            if (dealId != null) {
+                evict(DealReadService.ADMIN_ROW_CACHE, dealId);
+            }
+            evict(DealReadService.ADMIN_INDEX_CACHE, DealReadService.ADMIN_INDEX_KEY);
+            pageGenerations.bumpAdmin();
+        };
+        eviction.run();
+        afterCommit(eviction);
+        liveEventPublisher.dealChanged(dealId, null);
+    }
+
+    /**
+     * Rows live much longer than the old whole-list entry, so evict again once the surrounding
+     * transaction commits; otherwise a concurrent read could re-cache the pre-commit row.
+     */
+    private void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
         if (cache != null) {
             try {
-                cache.evict("all");
+                cache.evict(key);
             } catch (RuntimeException ex) {
-                log.warn("Cache evict failed (cache=adminDeals, key=all). Continuing.", ex);
+                log.warn("Cache evict failed (cache={}, key={}). Continuing.", cacheName, key, ex);
             }
         }
     }
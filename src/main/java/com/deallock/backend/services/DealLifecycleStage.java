@@ -0,0 +1,90 @@
+package com.deallock.backend.services;
+
+import java.util.EnumSet;
+
+/**
+ * Admin dashboard buckets. A deal can sit in several at once (e.g. approved + secured +
+ * awaiting balance), so {@link #classify} returns every stage that applies in one pass.
+ */
+public enum DealLifecycleStage {
+    PENDING("pendingDeals"),
+    APPROVED("approvedDeals"),
+    REJECTED("rejectedDeals"),
+    PAYMENT_CONFIRMED("paymentConfirmedDeals"),
+    PAYMENT_NOT_RECEIVED("paymentNotReceivedDeals"),
+    SECURED("securedDeals"),
+    BALANCE_PAYMENT("balancePaymentDeals"),
+    DELIVERY_INITIATION("deliveryInitiationDeals"),
+    IN_TRANSIT("inTransitDeals"),
+    DELIVERY_CONFIRMATION("deliveryConfirmationDeals"),
+    FEEDBACK("feedbackDeals"),
+    CONCLUDED("concludedDeals");
+
+    private final String modelAttribute;
+
+    DealLifecycleStage(String modelAttribute) {
+        this.modelAttribute = modelAttribute;
+    }
+
+    public String modelAttribute() {
+        return modelAttribute;
+    }
+
+    /**
+     * The handful of deal fields the buckets depend on, as projected by the grouped count query
+     * (DealRepository#countByStageSignals). The sidebar badge numbers come from classifying these
+     * groups, so {@link #classify} must keep matching the old per-stage list filters.
+     */
+    public record Signals(String status,
+                          String paymentStatus,
+                          boolean secured,
+                          String balancePaymentStatus,
+                          boolean deliveryInitiated,
+                          boolean deliveryConfirmedByUser,
+                          boolean deliveryConfirmed,
+                          boolean hasFeedback) {
+    }
+
+    public static EnumSet<DealLifecycleStage> classify(Signals s) {
+        EnumSet<DealLifecycleStage> stages = EnumSet.noneOf(DealLifecycleStage.class);
+        if (s.status() == null || "Pending Approval".equalsIgnoreCase(s.status())) {
+            stages.add(PENDING);
+        }
+        if ("Rejected".equalsIgnoreCase(s.status())) {
+            stages.add(REJECTED);
+        }
+        if (!"Approved".equalsIgnoreCase(s.status())) {
+            return stages;
+        }
+
+        stages.add(APPROVED);
+        if ("PAID_CONFIRMED".equalsIgnoreCase(s.paymentStatus())) {
+            stages.add(PAYMENT_CONFIRMED);
+        }
+        if ("NOT_PAID".equalsIgnoreCase(s.paymentStatus())) {
+            stages.add(PAYMENT_NOT_RECEIVED);
+        }
+        if (s.secured()) {
+            stages.add(SECURED);
+            boolean balanceConfirmed = "PAID_CONFIRMED".equalsIgnoreCase(s.balancePaymentStatus());
+            if (!balanceConfirmed) {
+                stages.add(BALANCE_PAYMENT);
+            } else if (!s.deliveryInitiated()) {
+                stages.add(DELIVERY_INITIATION);
+            }
+        }
+        if (s.deliveryInitiated() && !s.deliveryConfirmed()) {
+            stages.add(IN_TRANSIT);
+            if (s.deliveryConfirmedByUser()) {
+                stages.add(DELIVERY_CONFIRMATION);
+            }
+        }
+        if (s.hasFeedback()) {
+            stages.add(FEEDBACK);
+        }
+        if (s.deliveryConfirmed()) {
+            stages.add(CONCLUDED);
+        }
+        return stages;
+    }
+}
@@ -0,0 +1,85 @@
+package com.deallock.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Generation numbers baked into the deal page cache keys ("userDealPages", "adminDealPages").
+ *
+ * A page key embeds its cursor, so a user's pages can't be listed for eviction; clearing the
+ * whole cache instead dropped every other user's pages and, on Redis, ran a KEYS over the
+ * instance. Bumping the owner's generation makes their old pages unreachable and they expire on
+ * their own TTL. With Redis (profile "redis") generations are shared by all nodes under
+ * {@code deallock:dealpages:gen:<scope>}; otherwise, or while Redis is unreachable, an in-process
+ * map is used.
+ */
+public class DealPageGenerations {
+
+    static final String KEY_PREFIX = "deallock:dealpages:gen:";
+    private static final String ADMIN_SCOPE = "admin";
+
+    private static final Logger log = LoggerFactory.getLogger(DealPageGenerations.class);
+    // Far longer than any page TTL, so a generation that expires back to 0 can't revive a page.
+    private static final Duration TTL = Duration.ofHours(1);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, AtomicLong> local = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(TTL)
+            .build();
+
+    /**
+     * @param redisTemplate null when running without Redis
+     */
+    public DealPageGenerations(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public long user(Long userId) {
+        return get(String.valueOf(userId));
+    }
+
+    public long admin() {
+        return get(ADMIN_SCOPE);
+    }
+
+    public void bumpUser(Long userId) {
+        if (userId == null) return;
+        bump(String.valueOf(userId));
+    }
+
+    public void bumpAdmin() {
+        bump(ADMIN_SCOPE);
+    }
+
+    private long get(String scope) {
+        if (redisTemplate != null) {
+            try {
+                String value = redisTemplate.opsForValue().get(KEY_PREFIX + scope);
+                return value == null ? 0 : Long.parseLong(value);
+            } catch (RuntimeException ex) {
+                log.warn("Deal page generation GET failed (scope={}). Using local generation.", scope, ex);
+            }
+        }
+        AtomicLong generation = local.getIfPresent(scope);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private void bump(String scope) {
+        if (redisTemplate != null) {
+            try {
+                String key = KEY_PREFIX + scope;
+                redisTemplate.opsForValue().increment(key);
+                redisTemplate.expire(key, TTL);
+            } catch (RuntimeException ex) {
+                log.warn("Deal page generation INCR failed (scope={}). Continuing.", scope, ex);
+            }
+        }
+        local.get(scope, s -> new AtomicLong()).incrementAndGet();
+    }
+}
@@ -1,76 +1,115 @@
 package com.deallock.backend.services;
 
-import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.NotificationOutbox;
 import com.deallock.backend.repositories.DealRepository;
+import com.deallock.backend.repositories.PaymentReminderRow;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Reminds owners of approved, unpaid deals at most every two days.
+ *
+ * Works in id-ordered chunks: each chunk selects due ids from idx_deals_payment_reminder, then in
+ * one short transaction stamps them (the claim), reads the few columns it needs and writes the
+ * in-app notifications plus outbox rows. Either the stamp and the queued messages both commit or
+ * neither does, and SMTP/Termii are only contacted later by NotificationOutboxWorker, so no row
+ * locks are held across network I/O.
+ */
 @Service
 public class DealPaymentReminderScheduler {
 
+    private static final Logger log = LoggerFactory.getLogger(DealPaymentReminderScheduler.class);
+    private static final Duration REMINDER_INTERVAL = Duration.ofDays(2);
+    private static final DateTimeFormatter DUE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a")
+            .withZone(ZoneId.of("Africa/Lagos"));
+
     private final DealRepository dealRepository;
     private final NotificationService notificationService;
-    private final EmailService emailService;
-    private final SmsService smsService;
+    private final NotificationOutboxService outboxService;
+    private final SchedulerLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
 
     public DealPaymentReminderScheduler(DealRepository dealRepository,
                                         NotificationService notificationService,
-                                        EmailService emailService,
-                                        SmsService smsService) {
+                                        NotificationOutboxService outboxService,
+                                        SchedulerLeaseService leaseService,
+                                        TransactionTemplate transactionTemplate,
+                                        @Value("${app.deals.reminder-chunk-size:200}") int chunkSize) {
         this.dealRepository = dealRepository;
         this.notificationService = notificationService;
-        this.emailService = emailService;
-        this.smsService = smsService;
+        this.outboxService = outboxService;
+        this.leaseService = leaseService;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
     }
 
-    @Transactional
     @Scheduled(fixedDelay = 6 * 60 * 60 * 1000L)
     public void sendPaymentRemindersEveryTwoDays() {
-        List<Deal> deals = dealRepository.findByStatusIgnoreCaseAndPaymentStatusIgnoreCase("Approved", "NOT_PAID");
-        if (deals.isEmpty()) return;
-
-        Instant now = Instant.now();
-        for (Deal deal : deals) {
-            if (deal == null || deal.getUser() == null) continue;
-            if (deal.getLastPaymentReminderAt() != null
-                    && deal.getLastPaymentReminderAt().isAfter(now.minus(Duration.ofDays(2)))) {
-                continue;
-            }
-
-            String title = safe(deal.getTitle(), "your deal");
-            String due = deal.getPaymentDueAt() == null
-                    ? "as soon as possible"
-                    : DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a")
-                    .withZone(ZoneId.of("Africa/Lagos"))
-                    .format(deal.getPaymentDueAt());
-            String msg = "Reminder: complete payment for " + title + ". Due: " + due + ".";
+        leaseService.runExclusively("deal-payment-reminders", Duration.ofMinutes(15), Duration.ofHours(5), this::sendDue);
+    }
 
-            notificationService.notifyUser(deal.getUser(), msg);
+    private void sendDue(SchedulerLeaseService.Lease lease) {
+        Instant cutoff = Instant.now().minus(REMINDER_INTERVAL);
+        long afterId = 0;
+        int reminded = 0;
+        while (true) {
+            List<Long> ids = dealRepository.findPaymentReminderDueIds("Approved", "NOT_PAID", cutoff, afterId,
+                    Limit.of(chunkSize));
+            if (ids.isEmpty()) break;
+            // Fencing: if our lease expired and another node took over, stop before claiming more.
+            if (!lease.extend()) break;
+            afterId = ids.get(ids.size() - 1);
 
-            boolean emailed = false;
-            if (deal.getUser().getEmail() != null && !deal.getUser().getEmail().isBlank()) {
-                emailed = emailService.sendGenericWithStatus(
-                        deal.getUser().getEmail(),
-                        "Deal payment reminder",
-                        msg + "\n\nPlease pay on time to avoid delays."
-                );
-            }
+            Integer queued = transactionTemplate.execute(status -> claimAndQueue(ids, cutoff));
+            reminded += queued == null ? 0 : queued;
+            if (ids.size() < chunkSize) break;
+        }
+        if (reminded > 0) {
+            log.info("Queued {} deal payment reminder(s)", reminded);
+        }
+    }
 
-            // Fallback path: if email unavailable/failed, use SMS.
-            if (!emailed && deal.getUser().getPhone() != null && !deal.getUser().getPhone().isBlank()) {
-                smsService.sendToUser(deal.getUser().getPhone(), msg);
-                smsService.sendWhatsAppToUser(deal.getUser().getPhone(), msg);
+    private int claimAndQueue(List<Long> ids, Instant cutoff) {
+        // Millisecond precision so the read-back below matches what the column stored.
+        Instant stampedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (dealRepository.markPaymentReminded(ids, cutoff, stampedAt) == 0) {
+            return 0;
+        }
+        List<PaymentReminderRow> rows = dealRepository.findPaymentReminderRows(ids, stampedAt);
+        List<NotificationService.UserMessage> inApp = new ArrayList<>(rows.size());
+        for (PaymentReminderRow row : rows) {
+            String msg = message(row);
+            inApp.add(new NotificationService.UserMessage(row.userId(), msg));
+            // Email when we have an address (the outbox retries failures); SMS/WhatsApp otherwise.
+            if (row.email() != null && !row.email().isBlank()) {
+                outboxService.enqueue(NotificationOutbox.Channel.EMAIL, row.email(), "Deal payment reminder",
+                        msg + "\n\nPlease pay on time to avoid delays.");
+            } else if (row.phone() != null && !row.phone().isBlank()) {
+                outboxService.enqueue(NotificationOutbox.Channel.SMS, row.phone(), null, msg);
+                outboxService.enqueue(NotificationOutbox.Channel.WHATSAPP, row.phone(), null, msg);
             }
-
-            deal.setLastPaymentReminderAt(now);
-            dealRepository.save(deal);
         }
+        notificationService.notifyUsers(inApp);
+        return rows.size();
+    }
+
+    private String message(PaymentReminderRow row) {
+        String title = safe(row.title(), "your deal");
+        String due = row.paymentDueAt() == null ? "as soon as possible" : DUE_FORMAT.format(row.paymentDueAt());
+        return "Reminder: complete payment for " + title + ". Due: " + due + ".";
     }
 
     private String safe(String value, String fallback) {
@@ -1,39 +1,58 @@
 package com.deallock.backend.services;
 
-import com.deallock.backend.repositories.MarketplaceItemRepository;
+import com.deallock.backend.config.TwoLevelCache;
+import com.deallock.backend.repositories.DealListRow;
 import com.deallock.backend.repositories.DealRepository;
 import com.deallock.backend.repositories.UserRepository;
 import com.deallock.backend.entities.User;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DealReadService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    static final String ADMIN_ROW_CACHE = "adminDealRows";
+    static final String ADMIN_INDEX_CACHE = "adminDealIndex";
+    static final String ADMIN_INDEX_KEY = "ids";
+    private static final int ROW_LOAD_CHUNK = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(DealReadService.class);
+
     private final DealRepository dealRepository;
     private final UserRepository userRepository;
-    private final MarketplaceItemRepository marketplaceItemRepository;
+    private final ListedDealIds listedDealIds;
     private final MarketplaceLockPolicy lockPolicy;
+    private final CacheManager cacheManager;
 
     @Value("${app.deals.payment-timeout:24h}")
     private Duration paymentTimeout;
 
     public DealReadService(DealRepository dealRepository,
                            UserRepository userRepository,
-                           MarketplaceItemRepository marketplaceItemRepository,
-                           MarketplaceLockPolicy lockPolicy) {
+                           ListedDealIds listedDealIds,
+                           MarketplaceLockPolicy lockPolicy,
+                           CacheManager cacheManager) {
         this.dealRepository = dealRepository;
         this.userRepository = userRepository;
-        this.marketplaceItemRepository = marketplaceItemRepository;
+        this.listedDealIds = listedDealIds;
         this.lockPolicy = lockPolicy;
+        this.cacheManager = cacheManager;
     }
 
     public List<Map<String, Object>> listDealsForUserEmail(String email) {
@@ -49,89 +68,279 @@ public class DealReadService {
         if (user == null) return List.of();
         Instant now = Instant.now();
 
-        return dealRepository.findByUserOrderByCreatedAtDesc(user).stream()
-                .map(d -> {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("id", d.getId());
-                    row.put("title", d.getTitle() == null ? "Untitled Deal" : d.getTitle());
-                    row.put("status", d.getStatus() == null ? "Pending Approval" : d.getStatus());
-                    row.put("value", d.getValue() == null ? 0 : d.getValue());
-                    row.put("paymentStatus", d.getPaymentStatus() == null ? "NOT_PAID" : d.getPaymentStatus());
-                    row.put("rejectionReason", d.getRejectionReason());
-                    row.put("secured", d.isSecured());
-                    row.put("securedAt", d.getSecuredAt());
-                    row.put("lockedUntil", lockPolicy.lockedUntil(d.getSecuredAt()));
-                    row.put("isLocked", lockPolicy.isStillLocked(d.getSecuredAt(), now));
-                    row.put("balancePaymentStatus", d.getBalancePaymentStatus() == null ? "NOT_PAID" : d.getBalancePaymentStatus());
-                    row.put("deliveryInitiatedAt", d.getDeliveryInitiatedAt());
-                    row.put("deliveryConfirmedByUser", d.isDeliveryConfirmedByUser());
-                    row.put("deliveryConfirmedAt", d.getDeliveryConfirmedAt());
-                    row.put("feedback", d.getFeedback());
-                    row.put("createdAt", d.getCreatedAt());
-                    row.put("paymentDueAt", d.getPaymentDueAt());
-                    row.put("extensionWeeksUsed", d.getExtensionWeeksUsed() == null ? 0 : d.getExtensionWeeksUsed());
-                    boolean approved = d.getStatus() != null && "Approved".equalsIgnoreCase(d.getStatus());
-                    boolean notPaid = d.getPaymentStatus() == null || "NOT_PAID".equalsIgnoreCase(d.getPaymentStatus());
-                    boolean overdue = approved && notPaid && d.getPaymentDueAt() != null && d.getPaymentDueAt().isBefore(now);
-                    int used = d.getExtensionWeeksUsed() == null ? 0 : d.getExtensionWeeksUsed();
-                    row.put("overdueForPayment", overdue);
-                    row.put("canRequestExtension", overdue && used < 2);
-                    return row;
-                })
+        return dealRepository.findListRowsByUserId(user.getId()).stream()
+                .map(d -> toUserRow(d, now))
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(cacheNames = "adminDeals", key = "'all'")
+    /**
+     * One keyset page of the user's deals, newest first. `after` is the `nextCursor` of the
+     * previous page (null for the first page); `limit` should already be clamped by the caller.
+     */
+    @Cacheable(cacheNames = "userDealPages",
+            key = "#user.id + ':' + @dealPageGenerations.user(#user.id) + ':' + (#after == null ? '' : #after) + ':' + #limit")
+    public Map<String, Object> pageDealsForUser(User user, String after, int limit) {
+        if (user == null) return page(List.of(), null);
+        Limit fetch = Limit.of(limit + 1);
+        List<DealListRow> rows;
+        if (after == null) {
+            rows = dealRepository.findListRowsByUserId(user.getId(), fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = dealRepository.findListRowsByUserIdAfter(user.getId(), cursor.createdAt(), cursor.id(), fetch);
+        }
+
+        Instant now = Instant.now();
+        List<DealListRow> pageRows = rows.size() > limit ? rows.subList(0, limit) : rows;
+        return page(pageRows.stream().map(d -> toUserRow(d, now)).collect(Collectors.toList()),
+                nextCursor(rows, limit));
+    }
+
+    /**
+     * Admin list assembled from per-deal cached rows plus a cached, ordered id index.
+     *
+     * A deal mutation only evicts that deal's row (see DealCacheService.evictAdminDeal), so the
+     * next call reloads one row instead of the whole table. Creating/deleting a deal drops the
+     * index, which is rebuilt from an id-only query. Rows are read with one MGET and missing ones
+     * written back in one pipeline, so a full list costs a couple of Redis round trips rather
+     * than one per deal. Time-dependent fields (lock window, expired-unpaid) are derived at read
+     * time so cached rows don't go stale by the clock.
+     */
     public List<Map<String, Object>> listAllDealsForAdmin() {
-        var deals = dealRepository.findAllByOrderByCreatedAtDesc();
+        Cache rowCache = cacheManager.getCache(ADMIN_ROW_CACHE);
+        List<Long> ids = loadAdminIndex();
+
+        Map<Long, Map<String, Object>> rows = cachedRows(rowCache, ids);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            if (!rows.containsKey(id)) missing.add(id);
+        }
 
-        // Avoid N+1 queries: load all marketplace "sourceDealId" mappings once.
-        Set<Long> listedDealIds = marketplaceItemRepository.findAll().stream()
-                .map(i -> i.getSourceDealId())
-                .filter(id -> id != null)
-                .collect(Collectors.toSet());
+        for (int i = 0; i < missing.size(); i += ROW_LOAD_CHUNK) {
+            List<Long> chunk = missing.subList(i, Math.min(missing.size(), i + ROW_LOAD_CHUNK));
+            Map<Long, Map<String, Object>> loaded = new HashMap<>();
+            for (DealListRow d : dealRepository.findListRowsByIdIn(chunk)) {
+                loaded.put(d.id(), toAdminBaseRow(d));
+            }
+            rows.putAll(loaded);
+            putRowsQuietly(rowCache, loaded);
+        }
 
         Instant now = Instant.now();
-        return deals.stream()
-                .map(d -> {
-                    Map<String, Object> row = new HashMap<>();
-                    row.put("id", d.getId());
-                    row.put("title", d.getTitle() == null ? "Untitled Deal" : d.getTitle());
-                    row.put("status", d.getStatus() == null ? "Pending Approval" : d.getStatus());
-                    row.put("value", d.getValue() == null ? 0 : d.getValue());
-                    row.put("paymentStatus", d.getPaymentStatus() == null ? "NOT_PAID" : d.getPaymentStatus());
-                    row.put("secured", d.isSecured());
-                    row.put("securedAt", d.getSecuredAt());
-                    row.put("lockedUntil", lockPolicy.lockedUntil(d.getSecuredAt()));
-                    row.put("isLocked", lockPolicy.isStillLocked(d.getSecuredAt(), now));
-                    row.put("balancePaymentStatus", d.getBalancePaymentStatus() == null ? "NOT_PAID" : d.getBalancePaymentStatus());
-                    row.put("deliveryInitiatedAt", d.getDeliveryInitiatedAt());
-                    row.put("deliveryConfirmedByUser", d.isDeliveryConfirmedByUser());
-                    row.put("deliveryConfirmedAt", d.getDeliveryConfirmedAt());
-                    row.put("createdAt", d.getCreatedAt());
-                    row.put("userEmail", d.getUser() == null ? null : d.getUser().getEmail());
-                    row.put("rejectionReason", d.getRejectionReason());
-                    row.put("paymentDueAt", d.getPaymentDueAt());
-                    row.put("extensionWeeksUsed", d.getExtensionWeeksUsed() == null ? 0 : d.getExtensionWeeksUsed());
-
-                    boolean allowListing = d.getAllowMarketplaceListing() == null || d.getAllowMarketplaceListing();
-                    row.put("allowMarketplaceListing", allowListing);
-
-                    boolean expiredUnpaid = isExpiredUnpaidApprovedDeal(d, now);
-                    row.put("expiredUnpaid", expiredUnpaid);
-                    row.put("marketplaceListed", d.getId() != null && listedDealIds.contains(d.getId()));
-                    return row;
-                })
-                .collect(Collectors.toList());
+        List<Map<String, Object>> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Map<String, Object> base = rows.get(id);
+            // Deleted between reading the index and loading rows.
+            if (base != null) {
+                result.add(withAdminTimeFields(base, now));
+            }
+        }
+        return result;
+    }
+
+    private List<Long> loadAdminIndex() {
+        Cache indexCache = cacheManager.getCache(ADMIN_INDEX_CACHE);
+        if (indexCache != null) {
+            try {
+                Cache.ValueWrapper wrapper = indexCache.get(ADMIN_INDEX_KEY);
+                if (wrapper != null && wrapper.get() instanceof List<?> cached) {
+                    // JSON round trips may hand back Integers; keys must stay Long to match evictions.
+                    List<Long> ids = new ArrayList<>(cached.size());
+                    for (Object o : cached) {
+                        if (o instanceof Number n) ids.add(n.longValue());
+                    }
+                    return ids;
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Cache GET failed (cache={}). Rebuilding index.", ADMIN_INDEX_CACHE, ex);
+            }
+        }
+        List<Long> ids = new ArrayList<>(dealRepository.findAllIdsNewestFirst());
+        putQuietly(indexCache, ADMIN_INDEX_KEY, ids);
+        return ids;
+    }
+
+    /**
+     * All cached rows for {@code ids} in one MGET when the cache is two-level, instead of a Redis
+     * round trip per deal.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Map<String, Object>> cachedRows(Cache cache, List<Long> ids) {
+        Map<Long, Map<String, Object>> rows = new HashMap<>();
+        if (cache == null || ids.isEmpty()) return rows;
+        try {
+            Map<Object, Object> found;
+            if (cache instanceof TwoLevelCache twoLevel) {
+                found = twoLevel.getAll(ids);
+            } else {
+                found = new HashMap<>();
+                for (Long id : ids) {
+                    Cache.ValueWrapper wrapper = cache.get(id);
+                    if (wrapper != null) found.put(id, wrapper.get());
+                }
+            }
+            for (Long id : ids) {
+                if (found.get(id) instanceof Map<?, ?> row) rows.put(id, (Map<String, Object>) row);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cache GET failed (cache={}, keys={}). Reloading rows.", cache.getName(), ids.size(), ex);
+        }
+        return rows;
+    }
+
+    private void putRowsQuietly(Cache cache, Map<Long, Map<String, Object>> rows) {
+        if (cache == null || rows.isEmpty()) return;
+        try {
+            if (cache instanceof TwoLevelCache twoLevel) {
+                twoLevel.putAll(rows);
+            } else {
+                rows.forEach(cache::put);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Cache PUT failed (cache={}, keys={}). Continuing.", cache.getName(), rows.size(), ex);
+        }
+    }
+
+    private void putQuietly(Cache cache, Object key, Object value) {
+        if (cache == null) return;
+        try {
+            cache.put(key, value);
+        } catch (RuntimeException ex) {
+            log.warn("Cache PUT failed (cache={}, key={}). Continuing.", cache.getName(), key, ex);
+        }
+    }
+
+    @Cacheable(cacheNames = "adminDealPages",
+            key = "@dealPageGenerations.admin() + ':' + (#after == null ? '' : #after) + ':' + #limit")
+    public Map<String, Object> pageAllDealsForAdmin(String after, int limit) {
+        Limit fetch = Limit.of(limit + 1);
+        List<DealListRow> rows;
+        if (after == null) {
+            rows = dealRepository.findAllListRows(fetch);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = dealRepository.findAllListRowsAfter(cursor.createdAt(), cursor.id(), fetch);
+        }
+        Instant now = Instant.now();
+        List<DealListRow> pageRows = rows.size() > limit ? rows.subList(0, limit) : rows;
+        return page(pageRows.stream().map(d -> toAdminRow(d, now)).collect(Collectors.toList()),
+                nextCursor(rows, limit));
+    }
+
+    public static int clampPageSize(Integer limit) {
+        if (limit == null) return DEFAULT_PAGE_SIZE;
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+    }
+
+    private Map<String, Object> toUserRow(DealListRow d, Instant now) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", d.id());
+        row.put("title", d.title() == null ? "Untitled Deal" : d.title());
+        row.put("status", d.status() == null ? "Pending Approval" : d.status());
+        row.put("value", d.value() == null ? 0 : d.value());
+        row.put("paymentStatus", d.paymentStatus() == null ? "NOT_PAID" : d.paymentStatus());
+        row.put("rejectionReason", d.rejectionReason());
+        row.put("secured", d.secured());
+        row.put("securedAt", d.securedAt());
+        row.put("lockedUntil", lockPolicy.lockedUntil(d.securedAt()));
+        row.put("isLocked", lockPolicy.isStillLocked(d.securedAt(), now));
+        row.put("balancePaymentStatus", d.balancePaymentStatus() == null ? "NOT_PAID" : d.balancePaymentStatus());
+        row.put("deliveryInitiatedAt", d.deliveryInitiatedAt());
+        row.put("deliveryConfirmedByUser", d.deliveryConfirmedByUser());
+        row.put("deliveryConfirmedAt", d.deliveryConfirmedAt());
+        row.put("feedback", d.feedback());
+        row.put("createdAt", d.createdAt());
+        row.put("paymentDueAt", d.paymentDueAt());
+        row.put("extensionWeeksUsed", d.extensionWeeksUsed() == null ? 0 : d.extensionWeeksUsed());
+        boolean approved = d.status() != null && "Approved".equalsIgnoreCase(d.status());
+        boolean notPaid = d.paymentStatus() == null || "NOT_PAID".equalsIgnoreCase(d.paymentStatus());
+        boolean overdue = approved && notPaid && d.paymentDueAt() != null && d.paymentDueAt().isBefore(now);
+        int used = d.extensionWeeksUsed() == null ? 0 : d.extensionWeeksUsed();
+        row.put("overdueForPayment", overdue);
+        row.put("canRequestExtension", overdue && used < 2);
+        return row;
+    }
+
+    private Map<String, Object> toAdminRow(DealListRow d, Instant now) {
+        return withAdminTimeFields(toAdminBaseRow(d), now);
+    }
+
+    private Map<String, Object> toAdminBaseRow(DealListRow d) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", d.id());
+        row.put("title", d.title() == null ? "Untitled Deal" : d.title());
+        row.put("status", d.status() == null ? "Pending Approval" : d.status());
+        row.put("value", d.value() == null ? 0 : d.value());
+        row.put("paymentStatus", d.paymentStatus() == null ? "NOT_PAID" : d.paymentStatus());
+        row.put("secured", d.secured());
+        row.put("securedAt", d.securedAt());
+        row.put("balancePaymentStatus", d.balancePaymentStatus() == null ? "NOT_PAID" : d.balancePaymentStatus());
+        row.put("deliveryInitiatedAt", d.deliveryInitiatedAt());
+        row.put("deliveryConfirmedByUser", d.deliveryConfirmedByUser());
+        row.put("deliveryConfirmedAt", d.deliveryConfirmedAt());
+        row.put("createdAt", d.createdAt());
+        row.put("userEmail", d.userEmail());
+        row.put("rejectionReason", d.rejectionReason());
+        row.put("paymentDueAt", d.paymentDueAt());
+        row.put("extensionWeeksUsed", d.extensionWeeksUsed() == null ? 0 : d.extensionWeeksUsed());
+
+        boolean allowListing = d.allowMarketplaceListing() == null || d.allowMarketplaceListing();
+        row.put("allowMarketplaceListing", allowListing);
+        // In-memory bitmap instead of loading every MarketplaceItem (and its photo BLOBs).
+        row.put("marketplaceListed", listedDealIds.contains(d.id()));
+        return row;
+    }
+
+    private Map<String, Object> withAdminTimeFields(Map<String, Object> base, Instant now) {
+        Map<String, Object> row = new HashMap<>(base);
+        Instant securedAt = toInstant(base.get("securedAt"));
+        row.put("lockedUntil", lockPolicy.lockedUntil(securedAt));
+        row.put("isLocked", lockPolicy.isStillLocked(securedAt, now));
+        row.put("expiredUnpaid", isExpiredUnpaidApprovedDeal(
+                (String) base.get("status"),
+                (String) base.get("paymentStatus"),
+                toInstant(base.get("createdAt")),
+                now));
+        return row;
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value == null) return null;
+        if (value instanceof Instant instant) return instant;
+        if (value instanceof Number n) {
+            // Jackson writes Instants as decimal epoch seconds by default.
+            double seconds = n.doubleValue();
+            long whole = (long) Math.floor(seconds);
+            return Instant.ofEpochSecond(whole, Math.round((seconds - whole) * 1_000_000_000L));
+        }
+        try {
+            return Instant.parse(value.toString());
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private static String nextCursor(List<DealListRow> rows, int limit) {
+        // We fetch limit + 1 rows; the extra one only tells us whether another page exists.
+        if (rows.size() <= limit) return null;
+        DealListRow last = rows.get(limit - 1);
+        if (last.createdAt() == null || last.id() == null) return null;
+        return new KeysetCursor(last.createdAt(), last.id()).encode();
+    }
+
+    private static Map<String, Object> page(List<Map<String, Object>> items, String nextCursor) {
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        page.put("nextCursor", nextCursor);
+        return page;
     }
 
-    private boolean isExpiredUnpaidApprovedDeal(com.deallock.backend.entities.Deal d, Instant now) {
-        if (d == null) return false;
-        if (d.getCreatedAt() == null) return false;
-        if (d.getStatus() == null || !"Approved".equalsIgnoreCase(d.getStatus())) return false;
-        String pay = d.getPaymentStatus() == null ? "NOT_PAID" : d.getPaymentStatus();
+    private boolean isExpiredUnpaidApprovedDeal(String status, String paymentStatus, Instant createdAt, Instant now) {
+        if (createdAt == null) return false;
+        if (status == null || !"Approved".equalsIgnoreCase(status)) return false;
+        String pay = paymentStatus == null ? "NOT_PAID" : paymentStatus;
         if (!"NOT_PAID".equalsIgnoreCase(pay)) return false;
         if (paymentTimeout == null) return false;
-        return d.getCreatedAt().isBefore(now.minus(paymentTimeout));
+        return createdAt.isBefore(now.minus(paymentTimeout));
     }
 }
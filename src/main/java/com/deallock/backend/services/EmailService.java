@@ -1,46 +1,187 @@
 package com.deallock.backend.services;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 @Service
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-    @Value("${SMTP_FROM:no-reply@deallock.ng}")
-    private String smtpFromEmail;
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
+    /** One message of a {@link #sendBulk} batch. */
+    public record Outgoing(String to, String subject, String body) {}
 
-    @Value("${SMTP_FROM_NAME:DealLock}")
-    private String smtpFromName;
+    /** Indexes refer to the list passed to {@link #sendBulk}. */
+    public record BulkResult(int sent, List<Integer> failed) {}
+
+    private final JavaMailSender mailSender;
+    private final SmtpConnectionPool pool;
+    private final String smtpFromEmail;
+    private final String smtpFromName;
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
 
-    public EmailService(@Nullable JavaMailSender mailSender) {
+    public EmailService(@Nullable JavaMailSender mailSender,
+                        MeterRegistry meterRegistry,
+                        @Value("${SMTP_FROM:no-reply@deallock.ng}") String smtpFromEmail,
+                        @Value("${SMTP_FROM_NAME:DealLock}") String smtpFromName,
+                        @Value("${app.mail.pool.max-connections:4}") int maxConnections,
+                        @Value("${app.mail.pool.max-idle:30s}") Duration maxIdle,
+                        @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+                        @Value("${app.mail.pool.acquire-timeout:30s}") Duration acquireTimeout) {
         this.mailSender = mailSender;
+        // Pooling needs the host/credentials, which only the standard implementation exposes.
+        this.pool = mailSender instanceof JavaMailSenderImpl impl
+                ? new SmtpConnectionPool(impl, maxConnections, maxIdle, maxMessagesPerConnection, acquireTimeout)
+                : null;
+        this.smtpFromEmail = smtpFromEmail;
+        this.smtpFromName = smtpFromName;
+        this.sendTimer = Timer.builder("deallock.mail.send")
+                .description("Time to hand one batch (or single message) to SMTP")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("deallock.mail.messages").tag("result", "sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("deallock.mail.messages").tag("result", "failed").register(meterRegistry);
+    }
+
+    public boolean isConfigured() {
+        return mailSender != null;
     }
 
     private boolean send(String to, String subject, String text) {
+        return sendBulk(List.of(new Outgoing(to, subject, text))).sent() == 1;
+    }
+
+    /**
+     * Sends many messages over pooled SMTP connections (one connect/auth for the lot instead of
+     * one per message). Failures are per message and reported by index; nothing throws.
+     */
+    public BulkResult sendBulk(List<Outgoing> messages) {
+        if (messages == null || messages.isEmpty()) {
+            return new BulkResult(0, List.of());
+        }
+        if (mailSender == null) {
+            log.warn("JavaMailSender bean not configured; skipping {} email(s).", messages.size());
+            return new BulkResult(0, indexes(messages.size()));
+        }
+
+        List<Integer> failed = new ArrayList<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        List<Integer> positions = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Outgoing out = messages.get(i);
+            try {
+                mimeMessages.add(build(out));
+                positions.add(i);
+            } catch (Exception ex) {
+                log.warn("Could not build email to {}: {}", out == null ? null : out.to(), ex.getMessage());
+                failed.add(i);
+            }
+        }
+        deliver(mimeMessages).forEach(index -> failed.add(positions.get(index)));
+        failed.sort(null);
+        return new BulkResult(messages.size() - failed.size(), failed);
+    }
+
+    /**
+     * One message to many recipients. Addresses go in Bcc so admins don't see each other's.
+     */
+    public boolean sendBulkWithStatus(List<String> emails, String subject, String body) {
+        if (emails == null || emails.isEmpty() || isBlank(subject) || isBlank(body)) {
+            return false;
+        }
         if (mailSender == null) {
-            System.out.println("[WARN] JavaMailSender bean not configured; skipping email send.");
+            log.warn("JavaMailSender bean not configured; skipping email send.");
             return false;
         }
         try {
             var message = mailSender.createMimeMessage();
             var helper = new MimeMessageHelper(message, false, "UTF-8");
-            helper.setTo(to);
+            InternetAddress from = new InternetAddress(smtpFromEmail, smtpFromName);
+            helper.setFrom(from.toString());
+            helper.setTo(smtpFromEmail);
+            helper.setBcc(emails.toArray(String[]::new));
             helper.setSubject(subject);
-            helper.setText(text, false);
-            helper.setFrom(new InternetAddress(smtpFromEmail, smtpFromName).toString());
-            mailSender.send(message);
-            return true;
+            helper.setText(body, false);
+            return deliver(List.of(message)).isEmpty();
         } catch (Exception ex) {
-            System.out.println("[WARN] SMTP send failed: " + ex.getMessage());
+            log.warn("Could not build bulk email: {}", ex.getMessage());
+            failedCounter.increment();
             return false;
         }
     }
 
+    /** Returns indexes (into {@code messages}) that failed. */
+    private List<Integer> deliver(List<MimeMessage> messages) {
+        if (messages.isEmpty()) return List.of();
+        Timer.Sample sample = Timer.start();
+        List<Integer> failed;
+        try {
+            if (pool != null) {
+                Map<Integer, Exception> failures = pool.sendAll(messages);
+                failures.forEach((index, ex) -> log.warn("SMTP send failed: {}", ex.getMessage()));
+                failed = new ArrayList<>(failures.keySet());
+            } else {
+                mailSender.send(messages.toArray(MimeMessage[]::new));
+                failed = List.of();
+            }
+        } catch (MailSendException ex) {
+            // Non-pooled path: Spring reports which messages failed.
+            log.warn("SMTP send failed: {}", ex.getMessage());
+            failed = new ArrayList<>();
+            for (Object failedMessage : ex.getFailedMessages().keySet()) {
+                int index = messages.indexOf(failedMessage);
+                if (index >= 0) failed.add(index);
+            }
+            if (failed.isEmpty()) failed = indexes(messages.size());
+        } catch (Exception ex) {
+            log.warn("SMTP send failed: {}", ex.getMessage());
+            failed = indexes(messages.size());
+        }
+        sample.stop(sendTimer);
+        sentCounter.increment(messages.size() - failed.size());
+        failedCounter.increment(failed.size());
+        return failed;
+    }
+
+    private MimeMessage build(Outgoing out) throws Exception {
+        var message = mailSender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, false, "UTF-8");
+        helper.setTo(out.to());
+        helper.setSubject(out.subject());
+        helper.setText(out.body(), false);
+        helper.setFrom(new InternetAddress(smtpFromEmail, smtpFromName).toString());
+        return message;
+    }
+
+    private static List<Integer> indexes(int size) {
+        List<Integer> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) all.add(i);
+        return all;
+    }
+
+    @PreDestroy
+    void closePool() {
+        if (pool != null) pool.close();
+    }
+
     public void sendGeneric(String email, String subject, String body) {
         if (isBlank(email) || isBlank(subject) || isBlank(body)) {
             return;
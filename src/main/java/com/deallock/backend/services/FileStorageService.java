@@ -1,25 +1,56 @@
 package com.deallock.backend.services;
 
+import com.deallock.backend.entities.Deal;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Locale;
 import java.util.Set;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+/**
+ * Upload storage on the local filesystem.
+ *
+ * By default uploads are content-addressed: the body is streamed to a temp file while being
+ * hashed, then moved to {@code sha256/ab/cd/<hash>.<ext>}. Identical uploads share one file and
+ * StoredObjectService counts the references; callers {@link #release} keys they stop pointing
+ * at and UploadPurgeScheduler deletes files nobody references any more. With
+ * {@code app.uploads.content-addressed=false} every upload gets its own UUID file as before.
+ */
 @Service
 public class FileStorageService {
 
     public record StoredFile(String key, String contentType, long sizeBytes) {}
 
+    static final String CONTENT_ADDRESSED_PREFIX = "sha256/";
+
+    private static final int COPY_BUFFER_BYTES = 16 * 1024;
+
     private final Path uploadRoot;
+    private final ImageVariantService imageVariantService;
+    private final StoredObjectService storedObjectService;
+    private final boolean contentAddressed;
 
-    public FileStorageService(@Value("${app.upload-dir:}") String uploadDir) {
+    public FileStorageService(@Value("${app.upload-dir:}") String uploadDir,
+                              ImageVariantService imageVariantService,
+                              StoredObjectService storedObjectService,
+                              @Value("${app.uploads.content-addressed:true}") boolean contentAddressed) {
+        this.imageVariantService = imageVariantService;
+        this.storedObjectService = storedObjectService;
+        this.contentAddressed = contentAddressed;
         String normalized = uploadDir == null ? "" : uploadDir.trim();
         if (normalized.isBlank()) {
             normalized = Paths.get(System.getProperty("java.io.tmpdir"), "deallock", "uploads").toString();
@@ -44,6 +75,10 @@ public class FileStorageService {
         }
 
         String ext = extensionForContentType(contentType);
+        if (contentAddressed) {
+            return saveContentAddressed(file, maxBytes, contentType, ext);
+        }
+
         String safeFolder = safeFolder(folder);
         String filename = UUID.randomUUID() + ext;
 
@@ -59,11 +94,119 @@ public class FileStorageService {
         }
 
         Files.write(destination, file.getBytes());
+        imageVariantService.generateAsync(destination, contentType);
 
         String key = safeFolder.isBlank() ? filename : (safeFolder + "/" + filename);
         return new StoredFile(key, contentType, file.getSize());
     }
 
+    private StoredFile saveContentAddressed(MultipartFile file,
+                                            long maxBytes,
+                                            String contentType,
+                                            String ext) throws IOException {
+        Path tmpDir = uploadRoot.resolve(".tmp");
+        Files.createDirectories(tmpDir);
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest sha256 = sha256();
+            long written = 0;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[COPY_BUFFER_BYTES];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    written += read;
+                    if (written > maxBytes) {
+                        throw new IOException("file_too_large");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            String key = CONTENT_ADDRESSED_PREFIX + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+            Path destination = uploadRoot.resolve(key).normalize();
+            if (!destination.startsWith(uploadRoot)) {
+                throw new IOException("invalid_upload_path");
+            }
+
+            // Count the reference before the file is (re)placed: a concurrent purge of the same
+            // key either sees the reference and backs off, or finishes first and we recreate it.
+            try {
+                storedObjectService.retainUpload(key, hash, contentType, written);
+            } catch (DataAccessException ex) {
+                throw new IOException("storage_index_unavailable", ex);
+            }
+
+            try {
+                if (!Files.isRegularFile(destination) || Files.size(destination) != written) {
+                    Files.createDirectories(destination.getParent());
+                    Files.move(tmp, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    imageVariantService.generateAsync(destination, contentType);
+                }
+            } catch (IOException ex) {
+                storedObjectService.release(key);
+                throw ex;
+            }
+            return new StoredFile(key, contentType, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Adds a reference for a key that another row now points at too. No-op for UUID keys.
+     */
+    public void retain(String key) {
+        if (!isContentAddressed(key)) return;
+        storedObjectService.retain(key);
+    }
+
+    /**
+     * Drops one reference per key; a file is removed by UploadPurgeScheduler once nothing points
+     * at it. Null and UUID keys (never shared) are ignored.
+     */
+    public void release(String... keys) {
+        for (String key : keys) {
+            if (isContentAddressed(key)) {
+                storedObjectService.release(key);
+            }
+        }
+    }
+
+    public void release(Deal deal) {
+        release(deal.getItemPhotoKey(), deal.getItemPhoto2Key(), deal.getItemPhoto3Key(),
+                deal.getPaymentProofKey(), deal.getSecuredItemPhotoKey(), deal.getBalancePaymentProofKey());
+    }
+
+    /**
+     * Removes a stored file together with its generated variants.
+     */
+    void deleteWithVariants(String key) {
+        try {
+            Path file = uploadRoot.resolve(key).normalize();
+            if (!file.startsWith(uploadRoot)) return;
+            Files.deleteIfExists(file);
+            for (int width : ImageVariantService.WIDTHS) {
+                Files.deleteIfExists(uploadRoot.resolve(ImageVariantService.variantKey(key, width)).normalize());
+            }
+        } catch (IOException ex) {
+            throw new IllegalStateException("delete_failed: " + key, ex);
+        }
+    }
+
+    private static boolean isContentAddressed(String key) {
+        return key != null && key.startsWith(CONTENT_ADDRESSED_PREFIX);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     public byte[] read(String key) throws IOException {
         if (key == null || key.isBlank()) {
             throw new IOException("missing_key");
@@ -86,6 +229,25 @@ public class FileStorageService {
         return file;
     }
 
+    /**
+     * Key of the smallest downscaled variant that covers {@code width}, or the original key when
+     * no such variant exists (yet): small originals, unscalable formats, or generation still queued.
+     */
+    public String resolveVariantKey(String key, Integer width) {
+        if (key == null || key.isBlank() || width == null || width <= 0) return key;
+        Integer picked = ImageVariantService.pickWidth(width);
+        if (picked == null) return key;
+        for (int candidate : ImageVariantService.WIDTHS) {
+            if (candidate < picked) continue;
+            String variant = ImageVariantService.variantKey(key, candidate);
+            Path file = uploadRoot.resolve(variant).normalize();
+            if (file.startsWith(uploadRoot) && Files.isRegularFile(file)) {
+                return variant;
+            }
+        }
+        return key;
+    }
+
     public String toPublicUrl(String key) {
         if (key == null || key.isBlank()) return null;
         return "/uploads/" + key;
@@ -28,12 +28,18 @@ public class GoogleOauth2UserService implements OAuth2UserService<OAuth2UserRequ
     private static final BCryptPasswordEncoder PASSWORD_ENCODER = new BCryptPasswordEncoder();
 
     private final UserRepository userRepository;
+    private final AdminRecipientService adminRecipientService;
+    private final CurrentUserService currentUserService;
 
     @Value("${app.admin-emails:}")
     private String configuredAdminEmails;
 
-    public GoogleOauth2UserService(UserRepository userRepository) {
+    public GoogleOauth2UserService(UserRepository userRepository,
+                                   AdminRecipientService adminRecipientService,
+                                   CurrentUserService currentUserService) {
         this.userRepository = userRepository;
+        this.adminRecipientService = adminRecipientService;
+        this.currentUserService = currentUserService;
     }
 
     @Override
@@ -76,8 +82,13 @@ public class GoogleOauth2UserService implements OAuth2UserService<OAuth2UserRequ
             user.setFullName(fullName.trim());
         }
         user.setEnabled(true);
+        String previousRole = user.getId() == null ? null : user.getRole();
         user.setRole(admin ? "ROLE_ADMIN" : normalizeRole(user.getRole()));
         userRepository.save(user);
+        if ("ROLE_ADMIN".equals(user.getRole()) != "ROLE_ADMIN".equals(previousRole)) {
+            currentUserService.evict(user);
+            adminRecipientService.evict();
+        }
 
         List<SimpleGrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(user.getRole()));
@@ -0,0 +1,302 @@
+package com.deallock.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Downscaled copies of uploaded photos, so list/grid views don't pull multi-megabyte originals.
+ *
+ * Variants are written next to the original as {@code <name>_w<width>.<ext>} (see
+ * {@link #variantKey}). Generation runs on a small bounded pool after the upload has been
+ * written; when the queue is full the job is dropped and readers simply get the original.
+ * Only JPEG and PNG are scaled (each variant keeps the original's format and extension);
+ * webp isn't decodable by ImageIO and gifs may be animated, so those are left as-is.
+ *
+ * Dimensions are read from the header before anything is decoded, and originals above
+ * {@code app.images.max-pixels} are skipped, so a small file that inflates to a huge bitmap
+ * can't exhaust the heap. Large originals are decoded subsampled, and JPEGs are turned upright
+ * per their EXIF orientation (variants carry no EXIF, so browsers can't do it for us).
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    /** Widths we generate, smallest first. */
+    public static final List<Integer> WIDTHS = List.of(160, 480, 1024);
+
+    private static final int EXIF_SCAN_BYTES = 256 * 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final long maxPixels;
+
+    public ImageVariantService(@Value("${app.images.variant-threads:2}") int threads,
+                               @Value("${app.images.variant-queue:64}") int queueSize,
+                               @Value("${app.images.max-pixels:40000000}") long maxPixels) {
+        this.maxPixels = maxPixels;
+        int poolSize = Math.max(1, threads);
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                r -> {
+                    Thread t = new Thread(r, "image-variants-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues variant generation for an original that has already been written to disk.
+     */
+    public void generateAsync(Path original, String contentType) {
+        if (original == null || !isScalable(contentType)) return;
+        try {
+            executor.execute(() -> generate(original, contentType));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Image variant queue full, skipping {}", original.getFileName());
+        }
+    }
+
+    /**
+     * Key of the variant for {@code width}: {@code deals/abc.jpg} -> {@code deals/abc_w480.jpg}.
+     */
+    public static String variantKey(String key, int width) {
+        int slash = key.lastIndexOf('/');
+        int dot = key.lastIndexOf('.');
+        if (dot <= slash) {
+            return key + "_w" + width;
+        }
+        return key.substring(0, dot) + "_w" + width + key.substring(dot);
+    }
+
+    /**
+     * Smallest generated width that still covers {@code requested}, or null when the original
+     * is the best fit (request larger than every variant).
+     */
+    public static Integer pickWidth(int requested) {
+        for (int width : WIDTHS) {
+            if (width >= requested) return width;
+        }
+        return null;
+    }
+
+    void generate(Path original, String contentType) {
+        BufferedImage source;
+        try {
+            source = decode(original, isJpeg(contentType) ? exifOrientation(original) : 1);
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not decode {} for variants: {}", original.getFileName(), ex.getMessage());
+            return;
+        }
+        if (source == null) {
+            return;
+        }
+
+        String format = isJpeg(contentType) ? "jpg" : "png";
+        String fileName = original.getFileName().toString();
+        for (int width : WIDTHS) {
+            if (source.getWidth() <= width) {
+                // Nothing to gain; readers fall back to the original.
+                break;
+            }
+            Path target = original.resolveSibling(variantKey(fileName, width));
+            try {
+                writeScaled(source, width, format, target);
+            } catch (IOException ex) {
+                log.warn("Failed to write {} variant of {}: {}", width, fileName, ex.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Decodes {@code original} upright, subsampled so it's no more than about twice the widest
+     * variant. Returns null (no variants) when there is no reader or the image is too large.
+     */
+    private BufferedImage decode(Path original, int orientation) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(original.toFile())) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("Skipping variants for {}: {}x{} is over {} pixels",
+                            original.getFileName(), width, height, maxPixels);
+                    return null;
+                }
+                int uprightWidth = swapsAxes(orientation) ? height : width;
+                int step = Math.max(1, uprightWidth / (2 * WIDTHS.get(WIDTHS.size() - 1)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return orient(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static boolean swapsAxes(int orientation) {
+        return orientation >= 5 && orientation <= 8;
+    }
+
+    /** Applies an EXIF orientation (1-8) so the returned image is upright. */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) return image;
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { t.scale(-1, 1); t.translate(-w, 0); }
+            case 3 -> { t.translate(w, h); t.rotate(Math.PI); }
+            case 4 -> { t.scale(1, -1); t.translate(0, -h); }
+            case 5 -> { t.rotate(-Math.PI / 2); t.scale(-1, 1); }
+            case 6 -> { t.translate(h, 0); t.rotate(Math.PI / 2); }
+            case 7 -> { t.scale(-1, 1); t.translate(-h, w); t.rotate(3 * Math.PI / 2); }
+            default -> { t.translate(0, w); t.rotate(3 * Math.PI / 2); }
+        }
+        boolean swap = swapsAxes(orientation);
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage upright = new BufferedImage(swap ? h : w, swap ? w : h, type);
+        Graphics2D g = upright.createGraphics();
+        try {
+            g.drawImage(image, t, null);
+        } finally {
+            g.dispose();
+        }
+        return upright;
+    }
+
+    /**
+     * EXIF orientation tag (0x0112) from a JPEG's APP1 segment, or 1 when absent/unreadable.
+     * Only the first {@value #EXIF_SCAN_BYTES} bytes are looked at; EXIF sits right after SOI.
+     */
+    static int exifOrientation(Path jpeg) {
+        try (InputStream raw = Files.newInputStream(jpeg);
+             DataInputStream in = new DataInputStream(raw)) {
+            if (in.readUnsignedShort() != 0xFFD8) return 1;
+            int scanned = 2;
+            while (scanned < EXIF_SCAN_BYTES) {
+                int marker = in.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) return 1;
+                int length = in.readUnsignedShort() - 2;
+                if (length < 0) return 1;
+                scanned += 4 + length;
+                if (marker != 0xFFE1) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = new byte[length];
+                in.readFully(segment);
+                return orientationFromExif(segment);
+            }
+        } catch (EOFException ex) {
+            return 1;
+        } catch (IOException ex) {
+            log.debug("Could not read EXIF of {}: {}", jpeg.getFileName(), ex.getMessage());
+        }
+        return 1;
+    }
+
+    private static int orientationFromExif(byte[] app1) {
+        // "Exif\0\0", then a TIFF header: byte order, 42, offset of IFD0.
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') return 1;
+        int tiff = 6;
+        boolean little = app1[tiff] == 'I';
+        int ifd = tiff + readInt(app1, tiff + 4, little);
+        if (ifd < tiff || ifd + 2 > app1.length) return 1;
+        int entries = readShort(app1, ifd, little);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > app1.length) return 1;
+            if (readShort(app1, entry, little) == 0x0112) {
+                int value = readShort(app1, entry + 8, little);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] b, int at, boolean little) {
+        int b0 = b[at] & 0xFF;
+        int b1 = b[at + 1] & 0xFF;
+        return little ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] b, int at, boolean little) {
+        return little
+                ? (readShort(b, at + 2, true) << 16) | readShort(b, at, true)
+                : (readShort(b, at, false) << 16) | readShort(b, at + 2, false);
+    }
+
+    private void writeScaled(BufferedImage source, int width, String format, Path target) throws IOException {
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        int type = "jpg".equals(format) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        // Write to a temp file and move, so a reader never sees a half-written variant.
+        Path tmp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, format, tmp.toFile())) {
+                throw new IOException("no_writer_for_" + format);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static boolean isScalable(String contentType) {
+        if (contentType == null) return false;
+        return isJpeg(contentType) || "image/png".equals(contentType);
+    }
+
+    private static boolean isJpeg(String contentType) {
+        return "image/jpeg".equals(contentType) || "image/jpg".equals(contentType);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
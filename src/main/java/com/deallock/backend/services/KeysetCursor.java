@@ -0,0 +1,35 @@
+package com.deallock.backend.services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position in any list ordered by (createdAt DESC, id DESC): the deal lists and the
+ * notification feed.
+ *
+ * Encoded as an opaque URL-safe token so clients just echo back the `nextCursor` they were given.
+ */
+public record KeysetCursor(Instant createdAt, Long id) {
+
+    public String encode() {
+        String raw = createdAt.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Cursor is empty");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep <= 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(Instant.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
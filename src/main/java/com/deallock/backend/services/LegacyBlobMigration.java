@@ -0,0 +1,141 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.entities.DealAttachment;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves blobs out of columns the entities no longer map, on startup.
+ *
+ * The schema is kept by Hibernate ({@code ddl-auto: update}), which adds tables and columns but
+ * never copies or drops anything, so the old LONGBLOB columns keep their bytes after an entity
+ * stops mapping them. This copies them into their new tables in small id batches (one
+ * transaction each, then the old value is set to NULL, which is what makes a rerun cheap) under a
+ * cluster lease. Until a row is moved, the read paths fall back to the old column. The emptied
+ * columns can be dropped by hand once a run logs nothing left to move.
+ */
+@Component
+public class LegacyBlobMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyBlobMigration.class);
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+    private static final int BATCH = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SchedulerLeaseService leaseService;
+
+    public LegacyBlobMigration(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               SchedulerLeaseService leaseService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.leaseService = leaseService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        try {
+            leaseService.runExclusively("legacy-blob-migration", Duration.ofMinutes(10), Duration.ZERO, lease -> {
+                for (DealAttachment.Slot slot : DealAttachment.Slot.values()) {
+                    if (!moveDealSlot(slot, lease)) return;
+                }
+                moveProfileImages(lease);
+            });
+        } catch (RuntimeException ex) {
+            // The read fallback still serves unmoved rows; the next start tries again.
+            log.warn("Legacy blob migration failed. Continuing.", ex);
+        }
+    }
+
+    private boolean moveDealSlot(DealAttachment.Slot slot, SchedulerLeaseService.Lease lease) {
+        String blob = slot.legacyColumn();
+        String contentType = blob + "_content_type";
+        if (!columnExists("deals", blob)) return true;
+        String insert = "INSERT INTO deal_attachments (deal_id, slot, content_type, data, created_at)"
+                + " SELECT d.id, ?, COALESCE(d." + contentType + ", ?), d." + blob + ", ?"
+                + " FROM deals d WHERE d.id BETWEEN ? AND ? AND d." + blob + " IS NOT NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM deal_attachments a WHERE a.deal_id = d.id AND a.slot = ?)";
+        // The content type doubles as the "has media" flag for rows without a storage key.
+        String clear = "UPDATE deals SET " + contentType + " = COALESCE(" + contentType + ", ?), " + blob + " = NULL"
+                + " WHERE id BETWEEN ? AND ? AND " + blob + " IS NOT NULL";
+        return moveInBatches(lease, "deals", blob, (first, last) -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            jdbcTemplate.update(insert, slot.name(), DEFAULT_CONTENT_TYPE, now, first, last, slot.name());
+            jdbcTemplate.update(clear, DEFAULT_CONTENT_TYPE, first, last);
+        });
+    }
+
+    /** users.profile_image into user_profile_images. */
+    private boolean moveProfileImages(SchedulerLeaseService.Lease lease) {
+        if (!columnExists("users", "profile_image")) return true;
+        String insert = "INSERT INTO user_profile_images (user_id, content_type, data, created_at)"
+                + " SELECT u.id, COALESCE(u.profile_image_content_type, ?), u.profile_image, ?"
+                + " FROM users u WHERE u.id BETWEEN ? AND ? AND u.profile_image IS NOT NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM user_profile_images i WHERE i.user_id = u.id)";
+        // The content type doubles as the "has image" flag (User.hasProfileImage) for rows
+        // without a storage key.
+        String clear = "UPDATE users SET profile_image_content_type = COALESCE(profile_image_content_type, ?),"
+                + " profile_image = NULL WHERE id BETWEEN ? AND ? AND profile_image IS NOT NULL";
+        return moveInBatches(lease, "users", "profile_image", (first, last) -> {
+            jdbcTemplate.update(insert, DEFAULT_CONTENT_TYPE, Timestamp.from(Instant.now()), first, last);
+            jdbcTemplate.update(clear, DEFAULT_CONTENT_TYPE, first, last);
+        });
+    }
+
+    /**
+     * Runs {@code move} over id ranges covering the next {@value #BATCH} rows whose
+     * {@code blobColumn} is still set. Returns false if the lease was lost on the way.
+     */
+    private boolean moveInBatches(SchedulerLeaseService.Lease lease, String table, String blobColumn,
+                                  BiConsumer<Long, Long> move) {
+        String nextIds = "SELECT id FROM " + table + " WHERE " + blobColumn + " IS NOT NULL AND id > ?"
+                + " ORDER BY id LIMIT " + BATCH;
+        long after = 0;
+        int moved = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(nextIds, Long.class, after);
+            if (ids.isEmpty()) break;
+            long first = ids.get(0);
+            long last = ids.get(ids.size() - 1);
+            transactionTemplate.executeWithoutResult(status -> move.accept(first, last));
+            moved += ids.size();
+            after = last;
+            if (!lease.extend()) return false;
+        }
+        if (moved > 0) {
+            log.info("Moved {} blobs out of {}.{}", moved, table, blobColumn);
+        }
+        return true;
+    }
+
+    private boolean columnExists(String table, String column) {
+        Boolean exists = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData meta = connection.getMetaData();
+            // MySQL reports names as created; H2 upper-cases unquoted ones.
+            for (boolean upper : new boolean[] {false, true}) {
+                String t = upper ? table.toUpperCase(Locale.ROOT) : table;
+                String c = upper ? column.toUpperCase(Locale.ROOT) : column;
+                try (ResultSet rs = meta.getColumns(connection.getCatalog(), null, t, c)) {
+                    if (rs.next()) return true;
+                }
+            }
+            return false;
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+}
@@ -0,0 +1,110 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.MarketplaceItemRepository;
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-memory set of deal ids that have a marketplace item (MarketplaceItem.sourceDealId).
+ *
+ * Deal ids are dense auto-increment values, so a BitSet is a compact bitmap for them. Reads are
+ * lock-free against a copy-on-write snapshot; writes (list/delete) are rare and synchronized.
+ * The snapshot is reloaded from an id-only query every {@code app.marketplace.listed-ids-refresh}
+ * so other nodes' changes show up without a shared store.
+ */
+@Service
+public class ListedDealIds {
+
+    private final MarketplaceItemRepository marketplaceItemRepository;
+    private final Duration refreshInterval;
+
+    private volatile Snapshot snapshot;
+
+    public ListedDealIds(MarketplaceItemRepository marketplaceItemRepository,
+                         @Value("${app.marketplace.listed-ids-refresh:30s}") Duration refreshInterval) {
+        this.marketplaceItemRepository = marketplaceItemRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    public boolean contains(Long dealId) {
+        if (dealId == null) return false;
+        return current().contains(dealId);
+    }
+
+    public synchronized void markListed(Long dealId) {
+        if (dealId == null) return;
+        snapshot = current().with(dealId, true);
+    }
+
+    public synchronized void markUnlisted(Long dealId) {
+        if (dealId == null) return;
+        snapshot = current().with(dealId, false);
+    }
+
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s != null && System.nanoTime() - s.loadedAtNanos < refreshInterval.toNanos()) {
+            return s;
+        }
+        synchronized (this) {
+            s = snapshot;
+            if (s == null || System.nanoTime() - s.loadedAtNanos >= refreshInterval.toNanos()) {
+                s = Snapshot.of(marketplaceItemRepository.findAllSourceDealIds());
+                snapshot = s;
+            }
+            return s;
+        }
+    }
+
+    private static final class Snapshot {
+        private final BitSet bits;
+        // Ids outside int range (not expected with auto-increment ids, but don't drop them).
+        private final Set<Long> overflow;
+        private final long loadedAtNanos;
+
+        private Snapshot(BitSet bits, Set<Long> overflow, long loadedAtNanos) {
+            this.bits = bits;
+            this.overflow = overflow;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+
+        static Snapshot of(Iterable<Long> ids) {
+            BitSet bits = new BitSet();
+            Set<Long> overflow = ConcurrentHashMap.newKeySet();
+            for (Long id : ids) {
+                if (id == null) continue;
+                if (id >= 0 && id <= Integer.MAX_VALUE) {
+                    bits.set(id.intValue());
+                } else {
+                    overflow.add(id);
+                }
+            }
+            return new Snapshot(bits, overflow, System.nanoTime());
+        }
+
+        boolean contains(long id) {
+            if (id >= 0 && id <= Integer.MAX_VALUE) {
+                return bits.get((int) id);
+            }
+            return overflow.contains(id);
+        }
+
+        Snapshot with(long id, boolean present) {
+            BitSet nextBits = (BitSet) bits.clone();
+            Set<Long> nextOverflow = ConcurrentHashMap.newKeySet();
+            nextOverflow.addAll(overflow);
+            if (id >= 0 && id <= Integer.MAX_VALUE) {
+                nextBits.set((int) id, present);
+            } else if (present) {
+                nextOverflow.add(id);
+            } else {
+                nextOverflow.remove(id);
+            }
+            return new Snapshot(nextBits, nextOverflow, loadedAtNanos);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.deallock.backend.services;
+
+import java.util.Map;
+
+/**
+ * One push message for /api/stream.
+ *
+ * @param id      SSE event id, echoed back by browsers as Last-Event-ID on reconnect
+ * @param type    SSE event name: "notification", "deal" or "order"
+ * @param userId  recipient user, or null when the event is for admins only
+ * @param admins  whether admin sessions receive it (in addition to {@code userId})
+ * @param data    small JSON payload; clients refetch details through the normal APIs
+ */
+public record LiveEvent(String id, String type, Long userId, boolean admins, Map<String, Object> data) {
+
+    boolean isFor(Long subscriberUserId, boolean subscriberIsAdmin) {
+        return (admins && subscriberIsAdmin) || (userId != null && userId.equals(subscriberUserId));
+    }
+}
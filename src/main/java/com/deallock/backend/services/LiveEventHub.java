@@ -0,0 +1,171 @@
+package com.deallock.backend.services;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * This node's open /api/stream connections.
+ *
+ * Events reach every node through LiveEventBus and are written to the matching local emitters
+ * here. A short in-memory backlog lets a reconnecting browser (Last-Event-ID) catch up on what it
+ * missed; if its last id has already dropped out of the backlog it gets a "resync" event and
+ * reloads once. Heartbeats are SSE comments, so proxies keep idle connections open without any
+ * DB work.
+ */
+@Service
+public class LiveEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveEventHub.class);
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long RETRY_MS = 5000;
+    private static final int BACKLOG_SIZE = 512;
+    private static final int MAX_STREAMS_PER_USER = 5;
+
+    private record Subscriber(SseEmitter emitter, Long userId, boolean admin) {}
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, ArrayDeque<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final ArrayDeque<LiveEvent> backlog = new ArrayDeque<>(BACKLOG_SIZE);
+    // Keeps slow clients from stalling the Redis listener / publishing request thread.
+    private final ExecutorService writers = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SseEmitter subscribe(Long userId, boolean admin, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter, userId, admin);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(ex -> remove(subscriber));
+
+        List<LiveEvent> missed = missedSince(lastEventId);
+        try {
+            emitter.send(SseEmitter.event().reconnectTime(RETRY_MS).comment("connected"));
+            if (missed == null) {
+                emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+            } else {
+                for (LiveEvent event : missed) {
+                    if (event.isFor(userId, admin)) {
+                        emitter.send(toSse(event));
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+            return emitter;
+        }
+
+        subscribers.add(subscriber);
+        ArrayDeque<Subscriber> own = byUser.computeIfAbsent(userId, id -> new ArrayDeque<>());
+        Subscriber evicted = null;
+        synchronized (own) {
+            own.addLast(subscriber);
+            if (own.size() > MAX_STREAMS_PER_USER) {
+                evicted = own.pollFirst();
+            }
+        }
+        if (evicted != null) {
+            evicted.emitter().complete();
+        }
+        return emitter;
+    }
+
+    public void deliver(LiveEvent event) {
+        synchronized (backlog) {
+            if (backlog.size() == BACKLOG_SIZE) {
+                backlog.pollFirst();
+            }
+            backlog.addLast(event);
+        }
+        List<Subscriber> targets = new ArrayList<>();
+        for (Subscriber s : subscribers) {
+            if (event.isFor(s.userId(), s.admin())) {
+                targets.add(s);
+            }
+        }
+        if (targets.isEmpty()) return;
+        writers.execute(() -> targets.forEach(s -> send(s, toSse(event))));
+    }
+
+    @Scheduled(fixedDelay = 20 * 1000L)
+    public void heartbeat() {
+        for (Subscriber s : subscribers) {
+            send(s, SseEmitter.event().comment("hb"));
+        }
+    }
+
+    public int connectionCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        subscribers.forEach(s -> s.emitter().complete());
+        writers.shutdownNow();
+    }
+
+    /**
+     * Events after {@code lastEventId}; empty for a fresh connection, null when the id is no
+     * longer in the backlog (the client must resync).
+     */
+    private List<LiveEvent> missedSince(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return List.of();
+        synchronized (backlog) {
+            List<LiveEvent> after = new ArrayList<>();
+            boolean found = false;
+            for (Iterator<LiveEvent> it = backlog.iterator(); it.hasNext(); ) {
+                LiveEvent event = it.next();
+                if (found) {
+                    after.add(event);
+                } else if (event.id().equals(lastEventId)) {
+                    found = true;
+                }
+            }
+            return found ? after : null;
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away; the container calls onError/onCompletion, but don't wait for it.
+            remove(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) return;
+        ArrayDeque<Subscriber> own = byUser.get(subscriber.userId());
+        if (own != null) {
+            synchronized (own) {
+                own.remove(subscriber);
+                if (own.isEmpty()) {
+                    byUser.remove(subscriber.userId(), own);
+                }
+            }
+        }
+        log.debug("Live stream closed for userId={}", subscriber.userId());
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(LiveEvent event) {
+        return SseEmitter.event()
+                .id(event.id())
+                .name(event.type())
+                .data(event.data() == null ? Map.of() : event.data(), MediaType.APPLICATION_JSON);
+    }
+}
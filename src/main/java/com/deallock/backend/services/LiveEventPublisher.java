@@ -0,0 +1,74 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.config.LiveEventBus;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Entry point for pushing changes to open dashboards (/api/stream).
+ *
+ * Events only say "something changed" (ids, status); clients refetch through the regular APIs,
+ * so a missed or duplicated event costs a reload, never wrong data. Inside a transaction the
+ * event goes out after commit, so a client can't refetch the pre-commit state.
+ */
+@Service
+public class LiveEventPublisher {
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final LiveEventBus bus;
+
+    public LiveEventPublisher(LiveEventBus bus) {
+        this.bus = bus;
+    }
+
+    public void notification(Long userId) {
+        if (userId == null) return;
+        publish("notification", userId, false, Map.of());
+    }
+
+    public void adminNotification() {
+        publish("notification", null, true, Map.of());
+    }
+
+    /** A deal changed: its owner (when known) and every admin dashboard get a "deal" event. */
+    public void dealChanged(Long dealId, Long ownerId) {
+        publish("deal", ownerId, true, dealId == null ? Map.of() : Map.of("dealId", dealId));
+    }
+
+    public void userDealsChanged(Long userId) {
+        if (userId == null) return;
+        publish("deal", userId, false, Map.of());
+    }
+
+    /** An order changed: its buyer and every admin dashboard get an "order" event. */
+    public void orderChanged(Long orderId, Long buyerId, String status) {
+        Map<String, Object> data = orderId == null
+                ? Map.of()
+                : status == null ? Map.of("orderId", orderId) : Map.of("orderId", orderId, "status", status);
+        publish("order", buyerId, true, data);
+    }
+
+    private void publish(String type, Long userId, boolean admins, Map<String, Object> data) {
+        LiveEvent event = new LiveEvent(nextId(), type, userId, admins, data);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bus.publish(event);
+            }
+        });
+    }
+
+    /** Unique across nodes; only ever compared for equality (Last-Event-ID lookup). */
+    private String nextId() {
+        return System.currentTimeMillis() + "-" + nodeId + "-" + sequence.incrementAndGet();
+    }
+}
@@ -0,0 +1,141 @@
+package com.deallock.backend.services;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Builds photo/proof responses as streamed {@link Resource}s instead of {@code byte[]}.
+ *
+ * Files on disk are served through FileSystemResource (NIO channel, constant memory). Spring MVC
+ * then handles the conditional and partial parts for us: with the ETag/Last-Modified set here,
+ * If-None-Match / If-Modified-Since answer 304, and a Range header yields 206 with only the
+ * requested region. DB-stored blobs (the fallback path) still go through a byte array.
+ */
+@Service
+public class MediaDelivery {
+
+    private static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+    private static final CacheControl REVALIDATE_PUBLIC = CacheControl.noCache().cachePublic();
+
+    private final FileStorageService fileStorageService;
+
+    public MediaDelivery(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * @param key          storage key ({@code sha256/ab/cd/<hash>.<ext>}, or a UUID filename for
+     *                     older uploads), may be null when only a blob exists
+     * @param contentType  stored content type, may be null
+     * @param blobFallback loads DB bytes when there is no usable file; may be null
+     * @param version      the `v` query param; when it matches the current ETag the response is
+     *                     immutable (the URL then names one exact file), otherwise clients revalidate
+     * @param shared       true for public content (marketplace photos) that shared caches may keep
+     */
+    public ResponseEntity<Resource> serve(String key,
+                                          String contentType,
+                                          Supplier<byte[]> blobFallback,
+                                          String version,
+                                          boolean shared) {
+        return serve(key, contentType, blobFallback, version, shared, null);
+    }
+
+    /**
+     * Same as above, but with {@code size} set the smallest generated variant at least that wide
+     * is served instead of the original (see ImageVariantService). Until the variant exists the
+     * original is returned and the response is not marked immutable, so clients pick up the
+     * smaller file later. `v` stays the original's ETag, so one versioned URL covers every size.
+     */
+    public ResponseEntity<Resource> serve(String key,
+                                          String contentType,
+                                          Supplier<byte[]> blobFallback,
+                                          String version,
+                                          boolean shared,
+                                          Integer size) {
+        MediaType type = MediaType.APPLICATION_OCTET_STREAM;
+        if (contentType != null && !contentType.isBlank()) {
+            type = MediaType.parseMediaType(contentType);
+        }
+
+        String fileKey = key;
+        boolean settled = true;
+        if (size != null && size > 0 && key != null && !key.isBlank()) {
+            fileKey = fileStorageService.resolveVariantKey(key, size);
+            settled = !fileKey.equals(key) || ImageVariantService.pickWidth(size) == null;
+        }
+
+        Path file = findFile(fileKey);
+        if (file != null) {
+            String etag = etagForKey(fileKey);
+            String expectedVersion = settled ? etagForKey(key) : null;
+            long lastModified;
+            try {
+                lastModified = Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException ex) {
+                lastModified = -1;
+            }
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(type)
+                    .eTag(etag)
+                    .cacheControl(cacheControl(expectedVersion, version, shared));
+            if (lastModified > 0) {
+                builder.lastModified(lastModified);
+            }
+            return builder.body(new FileSystemResource(file));
+        }
+
+        byte[] bytes = blobFallback == null ? null : blobFallback.get();
+        if (bytes == null || bytes.length == 0) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        String etag = DigestUtils.md5DigestAsHex(bytes);
+        return ResponseEntity.ok()
+                .contentType(type)
+                .eTag(etag)
+                .cacheControl(cacheControl(etag, version, shared))
+                .body(new ByteArrayResource(bytes));
+    }
+
+    public boolean exists(String key) {
+        return findFile(key) != null;
+    }
+
+    /**
+     * Strong validator: keys are derived from the content ({@code sha256/ab/cd/<hash>.<ext>}, see
+     * FileStorageService), so a key always names the same bytes. Older UUID-filename keys were
+     * never rewritten either, so the key alone identifies the bytes for them too.
+     */
+    public static String etagForKey(String key) {
+        return DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path findFile(String key) {
+        if (key == null || key.isBlank()) return null;
+        try {
+            return fileStorageService.resolvePath(key);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private static CacheControl cacheControl(String expectedVersion, String version, boolean shared) {
+        if (version != null && version.equals(expectedVersion)) {
+            CacheControl immutable = CacheControl.maxAge(365, TimeUnit.DAYS).immutable();
+            return shared ? immutable.cachePublic() : immutable.cachePrivate();
+        }
+        return shared ? REVALIDATE_PUBLIC : REVALIDATE_PRIVATE;
+    }
+}
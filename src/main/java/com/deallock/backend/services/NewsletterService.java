@@ -1,27 +1,82 @@
 package com.deallock.backend.services;
 
+import com.deallock.backend.entities.NewsletterDigestRun;
 import com.deallock.backend.entities.NewsletterSubscription;
+import com.deallock.backend.repositories.DigestRecipient;
+import com.deallock.backend.repositories.NewsletterDigestRunRepository;
 import com.deallock.backend.repositories.NewsletterSubscriptionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 @Service
 public class NewsletterService {
 
+    private static final Logger log = LoggerFactory.getLogger(NewsletterService.class);
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^\\s@]+@[^\\s@]+\\.[^\\s@]+$");
+    /** A subscription gets at most one digest per this interval (runs are daily; allows cron drift). */
+    private static final Duration DIGEST_INTERVAL = Duration.ofHours(23);
+
     private final NewsletterSubscriptionRepository repository;
+    private final NewsletterDigestRunRepository runRepository;
     private final EmailService emailService;
+    private final SchedulerLeaseService leaseService;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ExecutorService digestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicBoolean digestRunning = new AtomicBoolean();
+    private final Counter digestSent;
+    private final Counter digestFailed;
+    private final Timer digestDuration;
 
-    public NewsletterService(NewsletterSubscriptionRepository repository, EmailService emailService) {
+    public NewsletterService(NewsletterSubscriptionRepository repository,
+                             NewsletterDigestRunRepository runRepository,
+                             EmailService emailService,
+                             SchedulerLeaseService leaseService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.newsletter.chunk-size:500}") int chunkSize,
+                             @Value("${app.newsletter.parallelism:2}") int parallelism,
+                             @Value("${app.mail.pool.max-connections:4}") int mailPoolSize) {
         this.repository = repository;
+        this.runRepository = runRepository;
         this.emailService = emailService;
+        this.leaseService = leaseService;
+        this.chunkSize = Math.max(1, chunkSize);
+        // The digest shares EmailService's SMTP pool with OTPs and deal mail; never take more
+        // than half of it, or a digest run queues every other email behind thousands of sends.
+        int cap = Math.max(1, mailPoolSize / 2);
+        if (parallelism > cap) {
+            log.info("app.newsletter.parallelism={} capped at {} (half the SMTP pool)", parallelism, cap);
+        }
+        this.parallelism = Math.max(1, Math.min(parallelism, cap));
+        this.digestSent = Counter.builder("deallock.newsletter.digest.recipients")
+                .tag("result", "sent").register(meterRegistry);
+        this.digestFailed = Counter.builder("deallock.newsletter.digest.recipients")
+                .tag("result", "failed").register(meterRegistry);
+        this.digestDuration = Timer.builder("deallock.newsletter.digest.duration").register(meterRegistry);
+        Gauge.builder("deallock.newsletter.digest.running", digestRunning, running -> running.get() ? 1 : 0)
+                .register(meterRegistry);
     }
 
     public SubscribeResult subscribe(String emailRaw, String fullNameRaw, String sourceRaw) {
@@ -62,24 +117,126 @@ public class NewsletterService {
         return new SubscribeResult(true, created, created ? "Subscribed successfully" : "You are already subscribed");
     }
 
+    /**
+     * Sends the digest to every due subscription in id-ordered chunks of {@code chunkSize}.
+     * Each chunk is split over {@code parallelism} pooled SMTP connections (at most half the
+     * pool), and the delivered rows are stamped with one UPDATE. Progress is checkpointed per
+     * chunk in newsletter_digest_runs, so a run cut short by a restart resumes (see
+     * {@link #resumeInterruptedDigest}) instead of starting over or double-sending.
+     */
     @Scheduled(cron = "${app.newsletter.daily-cron:0 0 9 * * *}", zone = "${app.newsletter.timezone:Africa/Lagos}")
     public void sendDailyNewsletterDigest() {
-        Instant cutoff = Instant.now().minus(23, ChronoUnit.HOURS);
-        Map<Long, NewsletterSubscription> dedup = new LinkedHashMap<>();
-        repository.findByActiveTrueAndLastDigestSentAtIsNull().forEach(s -> dedup.put(s.getId(), s));
-        repository.findByActiveTrueAndLastDigestSentAtBefore(cutoff).forEach(s -> dedup.put(s.getId(), s));
-        List<NewsletterSubscription> due = dedup.values().stream().toList();
-        if (due.isEmpty()) return;
+        if (!digestRunning.compareAndSet(false, true)) {
+            log.info("Newsletter digest already running; skipping this trigger.");
+            return;
+        }
+        try {
+            // One node per trigger; the run row is the shared checkpoint if the lease changes hands.
+            leaseService.runExclusively("newsletter-digest", Duration.ofMinutes(10), Duration.ofHours(1), lease -> {
+                Instant now = Instant.now();
+                NewsletterDigestRun run = runRepository
+                        .findFirstByFinishedAtIsNullAndStartedAtAfterOrderByIdDesc(now.minus(DIGEST_INTERVAL))
+                        .orElseGet(() -> {
+                            NewsletterDigestRun fresh = new NewsletterDigestRun();
+                            fresh.setCutoff(now.minus(DIGEST_INTERVAL));
+                            fresh.setStartedAt(now);
+                            fresh.setUpdatedAt(now);
+                            return runRepository.save(fresh);
+                        });
+                runDigest(run, lease);
+            });
+        } finally {
+            digestRunning.set(false);
+        }
+    }
 
+    /**
+     * Picks up a run that was interrupted (restart, or a node that died holding the lease) once
+     * its lease has expired. Polled rather than tied to startup: the node that resumes is not
+     * necessarily one that just restarted.
+     */
+    @Scheduled(initialDelay = 60 * 1000L, fixedDelay = 15 * 60 * 1000L)
+    public void resumeInterruptedDigest() {
+        Instant since = Instant.now().minus(DIGEST_INTERVAL);
+        if (runRepository.findFirstByFinishedAtIsNullAndStartedAtAfterOrderByIdDesc(since).isPresent()) {
+            sendDailyNewsletterDigest();
+        }
+    }
+
+    private void runDigest(NewsletterDigestRun run, SchedulerLeaseService.Lease lease) {
         String subject = "DealLock Daily Update";
         String body = buildDailyDigestBody();
-        Instant now = Instant.now();
-        for (NewsletterSubscription sub : due) {
-            if (sub.getEmail() == null || sub.getEmail().isBlank()) continue;
-            emailService.sendGeneric(sub.getEmail(), subject, body);
-            sub.setLastDigestSentAt(now);
-            repository.save(sub);
+        long started = System.nanoTime();
+        if (run.getLastSubscriptionId() > 0) {
+            log.info("Resuming newsletter digest run {} after subscription {}", run.getId(), run.getLastSubscriptionId());
         }
+
+        while (true) {
+            List<DigestRecipient> chunk = repository.findDigestChunk(
+                    run.getLastSubscriptionId(), run.getCutoff(), Limit.of(chunkSize));
+            if (chunk.isEmpty()) break;
+            if (!lease.extend()) {
+                // Another node holds a newer lease and continues from the checkpoint.
+                return;
+            }
+
+            List<Long> delivered = sendChunk(chunk, subject, body);
+            if (!delivered.isEmpty()) {
+                repository.markDigestSent(delivered, Instant.now());
+            }
+            int failed = chunk.size() - delivered.size();
+            digestSent.increment(delivered.size());
+            digestFailed.increment(failed);
+
+            run.setLastSubscriptionId(chunk.get(chunk.size() - 1).id());
+            run.setSent(run.getSent() + delivered.size());
+            run.setFailed(run.getFailed() + failed);
+            run.setUpdatedAt(Instant.now());
+            runRepository.save(run);
+            log.debug("Newsletter digest run {}: sent={} failed={} through id={}",
+                    run.getId(), run.getSent(), run.getFailed(), run.getLastSubscriptionId());
+            if (chunk.size() < chunkSize) break;
+        }
+
+        run.setFinishedAt(Instant.now());
+        run.setUpdatedAt(run.getFinishedAt());
+        runRepository.save(run);
+        digestDuration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        log.info("Newsletter digest run {} finished: sent={} failed={}", run.getId(), run.getSent(), run.getFailed());
+    }
+
+    /** Returns the ids that were handed to SMTP successfully. */
+    private List<Long> sendChunk(List<DigestRecipient> chunk, String subject, String body) {
+        List<DigestRecipient> recipients = chunk.stream()
+                .filter(r -> r.email() != null && !r.email().isBlank())
+                .toList();
+        int sliceSize = Math.max(1, (recipients.size() + parallelism - 1) / parallelism);
+        List<CompletableFuture<List<Long>>> slices = new ArrayList<>();
+        for (int from = 0; from < recipients.size(); from += sliceSize) {
+            List<DigestRecipient> slice = recipients.subList(from, Math.min(recipients.size(), from + sliceSize));
+            slices.add(CompletableFuture.supplyAsync(() -> sendSlice(slice, subject, body), digestExecutor));
+        }
+        List<Long> delivered = new ArrayList<>(recipients.size());
+        slices.forEach(f -> delivered.addAll(f.join()));
+        return delivered;
+    }
+
+    private List<Long> sendSlice(List<DigestRecipient> slice, String subject, String body) {
+        List<EmailService.Outgoing> messages = slice.stream()
+                .map(r -> new EmailService.Outgoing(r.email(), subject, body))
+                .toList();
+        // One pooled SMTP session per slice.
+        Set<Integer> failed = new HashSet<>(emailService.sendBulk(messages).failed());
+        List<Long> delivered = new ArrayList<>(slice.size());
+        for (int i = 0; i < slice.size(); i++) {
+            if (!failed.contains(i)) delivered.add(slice.get(i).id());
+        }
+        return delivered;
+    }
+
+    @PreDestroy
+    void shutdownDigest() {
+        digestExecutor.shutdownNow();
     }
 
     private String buildDailyDigestBody() {
@@ -1,30 +1,36 @@
 package com.deallock.backend.services;
 
+import com.deallock.backend.entities.NotificationOutbox;
 import com.deallock.backend.entities.User;
-import com.deallock.backend.repositories.UserRepository;
+import java.util.ArrayList;
 import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * In-app notifications are written directly; email, SMS and WhatsApp go through the
+ * notification outbox and are delivered by NotificationOutboxWorker, so callers never wait on
+ * SMTP or Termii.
+ */
 @Service
 public class NotificationDispatchService {
 
     private static final Logger log = LoggerFactory.getLogger(NotificationDispatchService.class);
 
     private final NotificationService notificationService;
-    private final EmailService emailService;
+    private final NotificationOutboxService outboxService;
     private final SmsService smsService;
-    private final UserRepository userRepository;
+    private final AdminRecipientService adminRecipientService;
 
     public NotificationDispatchService(NotificationService notificationService,
-                                       EmailService emailService,
+                                       NotificationOutboxService outboxService,
                                        SmsService smsService,
-                                       UserRepository userRepository) {
+                                       AdminRecipientService adminRecipientService) {
         this.notificationService = notificationService;
-        this.emailService = emailService;
+        this.outboxService = outboxService;
         this.smsService = smsService;
-        this.userRepository = userRepository;
+        this.adminRecipientService = adminRecipientService;
     }
 
     public void notifyUser(User user,
@@ -42,24 +48,16 @@ public class NotificationDispatchService {
                 log.warn("In-app user notification failed for userId={}. Continuing.", user.getId(), ex);
             }
         }
-        if (user.getEmail() != null && emailSubject != null && emailBody != null) {
-            try {
-                emailService.sendGeneric(user.getEmail(), emailSubject, emailBody);
-            } catch (RuntimeException ex) {
-                log.warn("Email notification failed for userId={}. Continuing.", user.getId(), ex);
+        try {
+            if (user.getEmail() != null && emailSubject != null && emailBody != null) {
+                outboxService.enqueue(NotificationOutbox.Channel.EMAIL, user.getEmail(), emailSubject, emailBody);
             }
-        }
-        if (user.getPhone() != null && smsBody != null && !smsBody.isBlank()) {
-            try {
-                smsService.sendToUser(user.getPhone(), smsBody);
-            } catch (RuntimeException ex) {
-                log.warn("SMS notification failed for userId={}. Continuing.", user.getId(), ex);
-            }
-            try {
-                smsService.sendWhatsAppToUser(user.getPhone(), smsBody);
-            } catch (RuntimeException ex) {
-                log.warn("WhatsApp notification failed for userId={}. Continuing.", user.getId(), ex);
+            if (user.getPhone() != null && smsBody != null && !smsBody.isBlank()) {
+                outboxService.enqueue(NotificationOutbox.Channel.SMS, user.getPhone(), null, smsBody);
+                outboxService.enqueue(NotificationOutbox.Channel.WHATSAPP, user.getPhone(), null, smsBody);
             }
+        } catch (RuntimeException ex) {
+            log.warn("Queueing notifications failed for userId={}. Continuing.", user.getId(), ex);
         }
     }
 
@@ -74,30 +72,40 @@ public class NotificationDispatchService {
                 log.warn("In-app admin notification failed. Continuing.", ex);
             }
         }
-        List<User> admins = userRepository.findByRole("ROLE_ADMIN");
-        if (emailSubject != null && emailBody != null) {
-            admins.stream()
-                    .map(User::getEmail)
-                    .filter(e -> e != null && !e.isBlank())
-                    .forEach(e -> {
-                        try {
-                            emailService.sendGeneric(e, emailSubject, emailBody);
-                        } catch (RuntimeException ex) {
-                            log.warn("Admin email notification failed for {}. Continuing.", e, ex);
-                        }
-                    });
-        }
-        if (smsBody != null && !smsBody.isBlank()) {
-            try {
-                smsService.sendToAdmins(smsBody);
-            } catch (RuntimeException ex) {
-                log.warn("Admin SMS notification failed. Continuing.", ex);
+        try {
+            if (emailSubject != null && emailBody != null) {
+                // One row (and one message) per admin: a dead mailbox only fails its own copy.
+                outboxService.enqueueAll(NotificationOutbox.Channel.EMAIL,
+                        adminRecipientService.emails(), emailSubject, emailBody);
             }
-            try {
-                smsService.sendWhatsAppToAdmins(smsBody);
-            } catch (RuntimeException ex) {
-                log.warn("Admin WhatsApp notification failed. Continuing.", ex);
+            if (smsBody != null && !smsBody.isBlank()) {
+                List<String> phones = smsService.adminPhoneNumbers();
+                // Termii bulk requests, each small enough for the recipient column; WhatsApp has
+                // no bulk endpoint.
+                outboxService.enqueueAll(NotificationOutbox.Channel.SMS, joinedBatches(phones), null, smsBody);
+                outboxService.enqueueAll(NotificationOutbox.Channel.WHATSAPP, phones, null, smsBody);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Queueing admin notifications failed. Continuing.", ex);
+        }
+    }
+
+    /** Comma-joined recipient lists that each fit the outbox recipient column. */
+    static List<String> joinedBatches(List<String> recipients) {
+        List<String> batches = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String recipient : recipients) {
+            if (recipient == null || recipient.isBlank()) continue;
+            String value = recipient.trim();
+            if (current.length() > 0
+                    && current.length() + 1 + value.length() > NotificationOutboxService.MAX_RECIPIENT_LENGTH) {
+                batches.add(current.toString());
+                current.setLength(0);
             }
+            if (current.length() > 0) current.append(',');
+            current.append(value);
         }
+        if (current.length() > 0) batches.add(current.toString());
+        return batches;
     }
 }
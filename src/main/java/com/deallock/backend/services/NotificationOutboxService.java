@@ -0,0 +1,152 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.entities.NotificationOutbox;
+import com.deallock.backend.repositories.NotificationOutboxRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes and claims rows of the notification outbox. Enqueue joins the caller's transaction when
+ * there is one, so a rolled-back deal update never sends its email.
+ */
+@Service
+public class NotificationOutboxService {
+
+    /** Published after enqueue; the worker wakes up on commit instead of waiting for its next poll. */
+    public record Enqueued() {}
+
+    public record Message(Long id,
+                          String claimToken,
+                          NotificationOutbox.Channel channel,
+                          String recipient,
+                          String subject,
+                          String body,
+                          int attempts) {}
+
+    /** Column sizes of notification_outbox (V18). */
+    static final int MAX_RECIPIENT_LENGTH = 2000;
+    private static final int MAX_SUBJECT_LENGTH = 255;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ApplicationEventPublisher events;
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     ApplicationEventPublisher events) {
+        this.outboxRepository = outboxRepository;
+        this.events = events;
+    }
+
+    @Transactional
+    public void enqueue(NotificationOutbox.Channel channel, String recipient, String subject, String body) {
+        enqueueAll(channel, recipient == null ? List.of() : List.of(recipient), subject, body);
+    }
+
+    /**
+     * One row per recipient, so a bad address only fails its own message.
+     *
+     * Inputs are checked here rather than left to the database: an insert that fails inside the
+     * caller's transaction marks it rollback-only even when the caller catches the exception, so
+     * an over-long recipient must never reach the INSERT. Such recipients are logged and skipped.
+     */
+    @Transactional
+    public void enqueueAll(NotificationOutbox.Channel channel, List<String> recipients, String subject, String body) {
+        if (recipients == null || body == null || body.isBlank()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<NotificationOutbox> rows = new ArrayList<>(recipients.size());
+        for (String recipient : recipients) {
+            if (recipient == null || recipient.isBlank()) continue;
+            String to = recipient.trim();
+            if (to.length() > MAX_RECIPIENT_LENGTH) {
+                log.warn("Not queueing {} message: recipient is {} chars (max {})", channel, to.length(), MAX_RECIPIENT_LENGTH);
+                continue;
+            }
+            NotificationOutbox row = new NotificationOutbox();
+            row.setChannel(channel);
+            row.setRecipient(to);
+            row.setSubject(truncate(subject, MAX_SUBJECT_LENGTH));
+            row.setBody(body);
+            row.setStatus(NotificationOutbox.Status.PENDING);
+            row.setAttempts(0);
+            row.setNextAttemptAt(now);
+            row.setCreatedAt(now);
+            rows.add(row);
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        outboxRepository.saveAll(rows);
+        events.publishEvent(new Enqueued());
+    }
+
+    /**
+     * Marks up to {@code limit} due rows of {@code channel} as SENDING for {@code lease} and
+     * returns them. Each call stamps a fresh claim token; the mark* methods only update rows that
+     * still carry it.
+     */
+    @Transactional
+    public List<Message> claim(NotificationOutbox.Channel channel, int limit, Duration lease) {
+        if (limit <= 0) return List.of();
+        Instant now = Instant.now();
+        String token = UUID.randomUUID().toString();
+        List<NotificationOutbox> rows = outboxRepository.findClaimable(channel, now, Limit.of(limit));
+        List<Message> claimed = new ArrayList<>(rows.size());
+        for (NotificationOutbox row : rows) {
+            row.setStatus(NotificationOutbox.Status.SENDING);
+            row.setLockedUntil(now.plus(lease));
+            row.setClaimToken(token);
+            claimed.add(new Message(row.getId(), token, row.getChannel(), row.getRecipient(),
+                    row.getSubject(), row.getBody(), row.getAttempts()));
+        }
+        return claimed;
+    }
+
+    /** False when the claim was lost (lease expired and the row was re-claimed). */
+    public boolean markSent(Message message) {
+        return finish(message, NotificationOutbox.Status.SENT, null);
+    }
+
+    public boolean markSkipped(Message message, String reason) {
+        return finish(message, NotificationOutbox.Status.SKIPPED, reason);
+    }
+
+    public boolean markDead(Message message, String error) {
+        return finish(message, NotificationOutbox.Status.DEAD, error);
+    }
+
+    public boolean markRetry(Message message, Instant nextAttemptAt, String error) {
+        return outboxRepository.markRetry(message.id(), message.claimToken(), nextAttemptAt, truncate(error)) > 0;
+    }
+
+    private boolean finish(Message message, NotificationOutbox.Status status, String error) {
+        return outboxRepository.markFinished(message.id(), message.claimToken(), status, truncate(error), Instant.now()) > 0;
+    }
+
+    public int deleteFinishedBefore(Instant cutoff) {
+        return outboxRepository.deleteFinishedBefore(
+                Set.of(NotificationOutbox.Status.SENT, NotificationOutbox.Status.SKIPPED), cutoff);
+    }
+
+    private static String truncate(String value) {
+        return truncate(value, MAX_ERROR_LENGTH);
+    }
+
+    private static String truncate(String value, int max) {
+        if (value == null || value.length() <= max) return value;
+        return value.substring(0, max);
+    }
+}
@@ -0,0 +1,250 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.entities.NotificationOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Drains the notification outbox.
+ *
+ * One poller thread claims due rows channel by channel and hands each to a virtual thread. Every
+ * channel has its own number of send slots, and the poller claims at most that channel's free
+ * slots, so a slow provider can't hold rows (or threads) the other channels could be sending, and
+ * a backlog of one channel never sits claimed-but-waiting in memory. Status updates carry the
+ * claim token, so a send that outlived its lease can't overwrite a newer claim. Failures are
+ * retried with exponential backoff plus jitter; after {@code max-attempts} the row is left as
+ * DEAD for manual inspection.
+ */
+@Service
+public class NotificationOutboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxWorker.class);
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration BASE_BACKOFF = Duration.ofSeconds(30);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+    private static final Duration KEEP_FINISHED = Duration.ofDays(7);
+
+    private final NotificationOutboxService outboxService;
+    private final EmailService emailService;
+    private final SmsService smsService;
+    private final SchedulerLeaseService leaseService;
+    private final boolean enabled;
+    private final Duration pollInterval;
+    private final int maxAttempts;
+    private final Map<NotificationOutbox.Channel, Semaphore> channelPermits = new EnumMap<>(NotificationOutbox.Channel.class);
+
+    private final Semaphore wakeUp = new Semaphore(0);
+    private volatile boolean running;
+    private ExecutorService senders;
+    private Thread poller;
+
+    public NotificationOutboxWorker(NotificationOutboxService outboxService,
+                                    EmailService emailService,
+                                    SmsService smsService,
+                                    SchedulerLeaseService leaseService,
+                                    @Value("${app.notifications.outbox.enabled:true}") boolean enabled,
+                                    @Value("${app.notifications.outbox.poll-interval:5s}") Duration pollInterval,
+                                    @Value("${app.notifications.outbox.max-attempts:8}") int maxAttempts,
+                                    @Value("${app.notifications.outbox.email-concurrency:4}") int emailConcurrency,
+                                    @Value("${app.notifications.outbox.sms-concurrency:2}") int smsConcurrency,
+                                    @Value("${app.notifications.outbox.whatsapp-concurrency:2}") int whatsappConcurrency) {
+        this.outboxService = outboxService;
+        this.emailService = emailService;
+        this.smsService = smsService;
+        this.leaseService = leaseService;
+        this.enabled = enabled;
+        this.pollInterval = pollInterval;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        channelPermits.put(NotificationOutbox.Channel.EMAIL, new Semaphore(Math.max(1, emailConcurrency)));
+        channelPermits.put(NotificationOutbox.Channel.SMS, new Semaphore(Math.max(1, smsConcurrency)));
+        channelPermits.put(NotificationOutbox.Channel.WHATSAPP, new Semaphore(Math.max(1, whatsappConcurrency)));
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Notification outbox worker disabled");
+            return;
+        }
+        running = true;
+        senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("outbox-send-", 0).factory());
+        poller = Thread.ofPlatform().name("outbox-poller").daemon(true).start(this::pollLoop);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+            poller.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (senders != null) {
+            // Rows still SENDING are picked up again once their lease expires.
+            senders.shutdown();
+            senders.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEnqueued(NotificationOutboxService.Enqueued event) {
+        wakeUp.release();
+    }
+
+    @Scheduled(fixedDelay = 6 * 60 * 60 * 1000L)
+    public void purgeFinished() {
+        leaseService.runExclusively("outbox-purge", Duration.ofMinutes(10), Duration.ofHours(5), lease -> {
+            int deleted = outboxService.deleteFinishedBefore(Instant.now().minus(KEEP_FINISHED));
+            if (deleted > 0) {
+                log.info("Removed {} delivered outbox rows", deleted);
+            }
+        });
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                for (var entry : channelPermits.entrySet()) {
+                    claimAndSubmit(entry.getKey(), entry.getValue());
+                }
+                // Wait for new rows (enqueue) or a freed slot (finished send), else the next poll.
+                wakeUp.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUp.drainPermits();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.warn("Outbox poll failed: {}", ex.getMessage());
+                sleepQuietly(pollInterval);
+            }
+        }
+    }
+
+    private void claimAndSubmit(NotificationOutbox.Channel channel, Semaphore permits) {
+        int free = permits.availablePermits();
+        if (free == 0) return;
+        List<NotificationOutboxService.Message> batch = outboxService.claim(channel, free, LEASE);
+        // Only this thread takes permits, so the ones we just counted are still there.
+        permits.acquireUninterruptibly(batch.size());
+        for (NotificationOutboxService.Message message : batch) {
+            submit(message, permits);
+        }
+    }
+
+    private void submit(NotificationOutboxService.Message message, Semaphore permits) {
+        try {
+            senders.execute(() -> {
+                try {
+                    deliver(message);
+                } catch (RuntimeException ex) {
+                    log.warn("Outbox delivery of id={} failed unexpectedly", message.id(), ex);
+                } finally {
+                    permits.release();
+                    wakeUp.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down; the row is picked up again once its lease expires.
+            permits.release();
+        }
+    }
+
+    private void deliver(NotificationOutboxService.Message message) {
+        String error;
+        switch (message.channel()) {
+            case EMAIL -> {
+                if (!emailService.isConfigured()) {
+                    skipped(message, "email_not_configured");
+                    return;
+                }
+                // Comma lists only exist in rows queued before admin mail went one row per admin.
+                boolean sent = message.recipient().indexOf(',') >= 0
+                        ? emailService.sendBulkWithStatus(List.of(message.recipient().split(",")), message.subject(), message.body())
+                        : emailService.sendGenericWithStatus(message.recipient(), message.subject(), message.body());
+                error = sent ? null : "smtp_send_failed";
+            }
+            case SMS -> {
+                if (!smsService.isSmsConfigured()) {
+                    skipped(message, "sms_not_configured");
+                    return;
+                }
+                SmsService.SmsResult result = message.recipient().indexOf(',') >= 0
+                        ? smsService.sendBulkSmsResult(List.of(message.recipient().split(",")), message.body())
+                        : smsService.sendSmsResult(message.recipient(), message.body());
+                error = result.ok ? null : result.message;
+            }
+            case WHATSAPP -> {
+                if (!smsService.isWhatsAppConfigured()) {
+                    skipped(message, "whatsapp_not_configured");
+                    return;
+                }
+                SmsService.SmsResult result = smsService.sendWhatsAppResult(message.recipient(), message.body());
+                error = result.ok ? null : result.message;
+            }
+            default -> error = "unknown_channel";
+        }
+
+        boolean current;
+        if (error == null) {
+            current = outboxService.markSent(message);
+        } else {
+            int attempt = message.attempts() + 1;
+            if (attempt >= maxAttempts) {
+                log.warn("Outbox id={} ({}) dead after {} attempts: {}", message.id(), message.channel(), attempt, error);
+                current = outboxService.markDead(message, error);
+            } else {
+                current = outboxService.markRetry(message, Instant.now().plus(backoff(attempt)), error);
+            }
+        }
+        if (!current) {
+            claimLost(message);
+        }
+    }
+
+    private void skipped(NotificationOutboxService.Message message, String reason) {
+        if (!outboxService.markSkipped(message, reason)) {
+            claimLost(message);
+        }
+    }
+
+    private static void claimLost(NotificationOutboxService.Message message) {
+        log.warn("Outbox id={} ({}) was re-claimed after its lease expired; result of this attempt dropped",
+                message.id(), message.channel());
+    }
+
+    /**
+     * 30s, 60s, 120s, ... capped at an hour, each +/-20% so a provider outage doesn't bring
+     * every queued message back in the same second.
+     */
+    static Duration backoff(int attempt) {
+        long base = BASE_BACKOFF.toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(base, MAX_BACKOFF.toMillis());
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return Duration.ofMillis((long) (capped * jitter));
+    }
+
+    private static void sleepQuietly(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,23 +2,39 @@ package com.deallock.backend.services;
 
 import com.deallock.backend.entities.Notification;
 import com.deallock.backend.entities.User;
+import com.deallock.backend.repositories.AdminRecipient;
 import com.deallock.backend.repositories.NotificationRepository;
-import com.deallock.backend.repositories.UserRepository;
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class NotificationService {
 
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (user_id, message, created_at, is_read) VALUES (?, ?, ?, false)";
+
     private final NotificationRepository notificationRepository;
-    private final UserRepository userRepository;
+    private final AdminRecipientService adminRecipientService;
+    private final JdbcTemplate jdbcTemplate;
+    private final UnreadNotificationCounter unreadCounter;
+    private final LiveEventPublisher liveEventPublisher;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               UserRepository userRepository) {
+                               AdminRecipientService adminRecipientService,
+                               JdbcTemplate jdbcTemplate,
+                               UnreadNotificationCounter unreadCounter,
+                               LiveEventPublisher liveEventPublisher) {
         this.notificationRepository = notificationRepository;
-        this.userRepository = userRepository;
+        this.adminRecipientService = adminRecipientService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.unreadCounter = unreadCounter;
+        this.liveEventPublisher = liveEventPublisher;
     }
 
     public void notifyUser(User user, String message) {
@@ -31,21 +47,57 @@ public class NotificationService {
         n.setCreatedAt(Instant.now());
         n.setRead(false);
         notificationRepository.save(n);
+        Long userId = user.getId();
+        afterCommit(() -> unreadCounter.increment(userId, 1));
+        liveEventPublisher.notification(userId);
     }
 
     public void notifyAdmins(String message) {
         if (message == null || message.isBlank()) {
             return;
         }
-        List<User> admins = userRepository.findByRole("ROLE_ADMIN");
-        admins.forEach(admin -> notifyUser(admin, message));
+        List<AdminRecipient> admins = adminRecipientService.recipients();
+        if (admins.isEmpty()) {
+            return;
+        }
+        // IDENTITY ids rule out Hibernate insert batching, so write the rows in one JDBC batch.
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, admins, admins.size(), (ps, admin) -> {
+            ps.setLong(1, admin.id());
+            ps.setString(2, message);
+            ps.setTimestamp(3, now);
+        });
+        afterCommit(() -> admins.forEach(admin -> unreadCounter.increment(admin.id(), 1)));
+        liveEventPublisher.adminNotification();
+    }
+
+    public record UserMessage(Long userId, String message) {}
+
+    /**
+     * In-app notifications for many users at once, written in one JDBC batch.
+     */
+    public void notifyUsers(List<UserMessage> messages) {
+        List<UserMessage> rows = messages.stream()
+                .filter(m -> m.userId() != null && m.message() != null && !m.message().isBlank())
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(INSERT_NOTIFICATION, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.userId());
+            ps.setString(2, row.message());
+            ps.setTimestamp(3, now);
+        });
+        afterCommit(() -> rows.forEach(row -> unreadCounter.increment(row.userId(), 1)));
+        rows.forEach(row -> liveEventPublisher.notification(row.userId()));
     }
 
     public long countUnread(User user) {
         if (user == null) {
             return 0;
         }
-        return notificationRepository.countByUserAndReadIsFalse(user);
+        return unreadCounter.get(user.getId());
     }
 
     @Transactional
@@ -54,5 +106,25 @@ public class NotificationService {
             return;
         }
         notificationRepository.markAllReadByUser(user);
+        Long userId = user.getId();
+        // Re-read rather than zero: notifications created while this ran are still unread.
+        afterCommit(() -> unreadCounter.refresh(userId));
+    }
+
+    /**
+     * Counter updates wait for the caller's transaction to commit, so a rollback can't leave a
+     * count for rows that were never written (or a read-mark that never happened).
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
@@ -0,0 +1,77 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.entities.User;
+import com.deallock.backend.entities.UserProfileImage;
+import com.deallock.backend.repositories.UserProfileImageRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class ProfileImageService {
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private final UserProfileImageRepository imageRepository;
+    private final JdbcTemplate jdbcTemplate;
+    /** Set once users.profile_image turns out not to exist in this schema. */
+    private volatile boolean legacyColumnMissing;
+
+    public ProfileImageService(UserProfileImageRepository imageRepository, JdbcTemplate jdbcTemplate) {
+        this.imageRepository = imageRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * DB fallback for when filesystem storage isn't available. Returns the content type recorded
+     * so the caller can mirror it on the user row (it doubles as the "has image" flag).
+     */
+    @Transactional
+    public String storeBlob(User user, byte[] bytes, String contentType) {
+        String type = contentType == null || contentType.isBlank() ? DEFAULT_CONTENT_TYPE : contentType;
+        UserProfileImage image = imageRepository.findById(user.getId()).orElseGet(UserProfileImage::new);
+        image.setUserId(user.getId());
+        image.setContentType(type);
+        image.setData(bytes);
+        image.setCreatedAt(Instant.now());
+        imageRepository.save(image);
+        return type;
+    }
+
+    /**
+     * Drops a previously stored DB blob once the image has been re-uploaded to file storage.
+     */
+    @Transactional
+    public void clear(User user) {
+        if (user == null || user.getId() == null) return;
+        imageRepository.deleteByUserId(user.getId());
+    }
+
+    /**
+     * The user's DB blob: the user_profile_images row, or else bytes still in the old
+     * users.profile_image column that LegacyBlobMigration hasn't moved yet.
+     */
+    public Optional<byte[]> readBlob(User user) {
+        if (user == null || user.getId() == null) return Optional.empty();
+        Optional<byte[]> stored = imageRepository.findById(user.getId())
+                .map(UserProfileImage::getData)
+                .filter(bytes -> bytes.length > 0);
+        return stored.isPresent() ? stored : readLegacyBlob(user.getId());
+    }
+
+    private Optional<byte[]> readLegacyBlob(Long userId) {
+        if (legacyColumnMissing) return Optional.empty();
+        try {
+            List<byte[]> rows = jdbcTemplate.query("SELECT profile_image FROM users WHERE id = ?",
+                    (rs, rowNum) -> rs.getBytes(1), userId);
+            return rows.stream().filter(bytes -> bytes != null && bytes.length > 0).findFirst();
+        } catch (BadSqlGrammarException ex) {
+            legacyColumnMissing = true;
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.SchedulerLeaseRepository;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Makes a {@code @Scheduled} job run on one node per tick (ShedLock-style, on the
+ * scheduler_leases table).
+ *
+ * A job takes the lease for at most {@code lockAtMostFor} (the expiry if the node dies mid-run)
+ * and on completion keeps it until {@code lockAtLeastFor} after the start, so nodes whose timers
+ * fire a little later in the same period skip instead of repeating the work. Long chunked jobs
+ * call {@link Lease#extend} between chunks; it returns false once the lease expired and another
+ * node took over (its fencing token is newer), and the job must stop writing. All times are
+ * taken from the database clock, so nodes with skewed clocks still agree on when a lease expires.
+ */
+@Service
+public class SchedulerLeaseService {
+
+    private static final Logger log = LoggerFactory.getLogger(SchedulerLeaseService.class);
+
+    private final SchedulerLeaseRepository repository;
+    private final String owner;
+
+    public SchedulerLeaseService(SchedulerLeaseRepository repository) {
+        this.repository = repository;
+        this.owner = hostName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /** A held lease; {@code token} is the fencing token of this acquisition. */
+    public final class Lease {
+        private final String name;
+        private final long token;
+        private final Duration lockAtMostFor;
+
+        private Lease(String name, long token, Duration lockAtMostFor) {
+            this.name = name;
+            this.token = token;
+            this.lockAtMostFor = lockAtMostFor;
+        }
+
+        public long token() {
+            return token;
+        }
+
+        /** Pushes the expiry another {@code lockAtMostFor} out; false if the lease was lost. */
+        public boolean extend() {
+            boolean held = repository.extend(name, owner, token, micros(lockAtMostFor)) == 1;
+            if (!held) {
+                log.warn("Lease {} (token {}) was lost; stopping", name, token);
+            }
+            return held;
+        }
+    }
+
+    /**
+     * Runs {@code task} if this node wins the lease for {@code name}; returns whether it ran.
+     */
+    public boolean runExclusively(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Consumer<Lease> task) {
+        Lease lease = tryAcquire(name, lockAtMostFor);
+        if (lease == null) {
+            log.debug("Skipping {}: lease held by another node", name);
+            return false;
+        }
+        try {
+            task.accept(lease);
+        } finally {
+            repository.release(name, owner, lease.token, micros(lockAtLeastFor));
+        }
+        return true;
+    }
+
+    private Lease tryAcquire(String name, Duration lockAtMostFor) {
+        long lockMicros = micros(lockAtMostFor);
+        int taken = repository.acquire(name, owner, lockMicros);
+        if (taken == 0 && !repository.existsById(name)) {
+            try {
+                repository.insertFree(name);
+            } catch (DataIntegrityViolationException ignored) {
+                // Another node created the row first; compete for it below.
+            }
+            taken = repository.acquire(name, owner, lockMicros);
+        }
+        if (taken == 0) return null;
+        // Nobody else can acquire until it expires, so this reads our own token.
+        return repository.findFencingToken(name, owner)
+                .map(token -> new Lease(name, token, lockAtMostFor))
+                .orElse(null);
+    }
+
+    private static long micros(Duration duration) {
+        return duration.toNanos() / 1_000;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            return "unknown-host";
+        }
+    }
+}
@@ -1,45 +1,110 @@
 package com.deallock.backend.services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.net.ConnectException;
 import java.net.URI;
+import java.net.UnknownHostException;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.channels.UnresolvedAddressException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+/**
+ * Termii SMS / WhatsApp client.
+ *
+ * Everything is built on {@link HttpClient#sendAsync}: at most {@code termii.max-concurrency}
+ * requests are in flight (extra calls queue without holding a thread), requests Termii never
+ * processed (connect failures, 429, 503) are retried with jittered exponential backoff, and a
+ * circuit breaker fails calls fast while Termii is down instead of letting them pile up on
+ * timeouts. The blocking {@code *Result} methods just wait on the async ones.
+ */
 @Service
 public class SmsService {
 
-    private static final HttpClient HTTP = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(10))
-            .build();
+    private static final Logger log = LoggerFactory.getLogger(SmsService.class);
+
+    /** Termii accepts up to 100 numbers per bulk request. */
+    static final int BULK_MAX_RECIPIENTS = 100;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http;
+
+    private final String baseUrl;
+    private final String apiKey;
+    private final String senderId;
+    private final String smsChannel;
+    private final String whatsappSender;
+    private final List<String> adminPhoneNumbers;
+
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final CircuitBreaker circuitBreaker;
 
-    @Value("${termii.base-url:https://api.ng.termii.com/api}")
-    private String baseUrl;
-    @Value("${termii.api-key:}")
-    private String apiKey;
-    @Value("${termii.sender-id:}")
-    private String senderId;
-    @Value("${termii.sms-channel:dnd}")
-    private String smsChannel;
-    @Value("${termii.whatsapp-sender:}")
-    private String whatsappSender;
-    @Value("${app.admin-phones:}")
-    private String adminPhones;
-
-    private boolean isSmsConfigured() {
+    public SmsService(@Value("${termii.base-url:https://api.ng.termii.com/api}") String baseUrl,
+                      @Value("${termii.api-key:}") String apiKey,
+                      @Value("${termii.sender-id:}") String senderId,
+                      @Value("${termii.sms-channel:dnd}") String smsChannel,
+                      @Value("${termii.whatsapp-sender:}") String whatsappSender,
+                      @Value("${app.admin-phones:}") String adminPhones,
+                      @Value("${termii.connect-timeout:5s}") Duration connectTimeout,
+                      @Value("${termii.request-timeout:10s}") Duration requestTimeout,
+                      @Value("${termii.max-concurrency:8}") int maxConcurrency,
+                      @Value("${termii.max-attempts:3}") int maxAttempts,
+                      @Value("${termii.retry-backoff:500ms}") Duration retryBackoff,
+                      @Value("${termii.circuit.failure-threshold:5}") int failureThreshold,
+                      @Value("${termii.circuit.open-duration:30s}") Duration openDuration) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.senderId = senderId;
+        this.smsChannel = smsChannel;
+        this.whatsappSender = whatsappSender;
+        // Parsed once; it's static configuration.
+        this.adminPhoneNumbers = adminPhones == null ? List.of() : Arrays.stream(adminPhones.split(","))
+                .map(String::trim)
+                .filter(p -> !p.isBlank())
+                .toList();
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.permits = new Semaphore(Math.max(1, maxConcurrency));
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .executor(httpExecutor)
+                .build();
+    }
+
+    public boolean isSmsConfigured() {
         return apiKey != null && !apiKey.isBlank()
                 && senderId != null && !senderId.isBlank();
     }
 
-    private boolean isWhatsAppConfigured() {
+    public boolean isWhatsAppConfigured() {
         return apiKey != null && !apiKey.isBlank()
                 && whatsappSender != null && !whatsappSender.isBlank();
     }
@@ -54,32 +119,234 @@ public class SmsService {
         }
     }
 
+    /** Fire-and-forget; SMS and WhatsApp go out concurrently. */
     public void sendToUser(String phone, String message) {
         if (phone == null || phone.isBlank()) return;
-        sendSmsResult(phone, message);
+        sendSmsAsync(phone, message);
     }
 
     public void sendWhatsAppToUser(String phone, String message) {
         if (phone == null || phone.isBlank()) return;
-        sendWhatsAppResult(phone, message);
+        sendWhatsAppAsync(phone, message);
     }
 
     public void sendToAdmins(String message) {
-        if (adminPhones == null || adminPhones.isBlank()) return;
-        List<String> phones = Arrays.stream(adminPhones.split(","))
-                .map(String::trim)
-                .filter(p -> !p.isBlank())
-                .toList();
-        phones.forEach(p -> sendSmsResult(p, message));
+        sendBulkSmsAsync(adminPhoneNumbers, message);
     }
 
     public void sendWhatsAppToAdmins(String message) {
-        if (adminPhones == null || adminPhones.isBlank()) return;
-        List<String> phones = Arrays.stream(adminPhones.split(","))
+        adminPhoneNumbers.forEach(p -> sendWhatsAppAsync(p, message));
+    }
+
+    public List<String> adminPhoneNumbers() {
+        return adminPhoneNumbers;
+    }
+
+    public SmsResult sendSmsResult(String to, String message) {
+        return sendSmsAsync(to, message).join();
+    }
+
+    public SmsResult sendWhatsAppResult(String to, String message) {
+        return sendWhatsAppAsync(to, message).join();
+    }
+
+    public SmsResult sendBulkSmsResult(List<String> to, String message) {
+        return sendBulkSmsAsync(to, message).join();
+    }
+
+    public CompletableFuture<SmsResult> sendSmsAsync(String to, String message) {
+        if (!isSmsConfigured()) {
+            log.info("Termii SMS not configured. To: {} | {}", to, message);
+            return CompletableFuture.completedFuture(new SmsResult(false, "SMS not configured. Please contact support."));
+        }
+        Map<String, Object> payload = smsPayload(message);
+        payload.put("to", to);
+        return post("/sms/send", payload, "SMS sending failed. Please try again.");
+    }
+
+    /**
+     * One request per {@value #BULK_MAX_RECIPIENTS} numbers via Termii's bulk endpoint. The result
+     * is ok only if every chunk was accepted.
+     */
+    public CompletableFuture<SmsResult> sendBulkSmsAsync(List<String> to, String message) {
+        List<String> recipients = to == null ? List.of() : to.stream()
+                .filter(p -> p != null && !p.isBlank())
                 .map(String::trim)
-                .filter(p -> !p.isBlank())
+                .distinct()
                 .toList();
-        phones.forEach(p -> sendWhatsAppResult(p, message));
+        if (recipients.isEmpty()) {
+            return CompletableFuture.completedFuture(new SmsResult(true, "OK"));
+        }
+        if (recipients.size() == 1) {
+            return sendSmsAsync(recipients.get(0), message);
+        }
+        if (!isSmsConfigured()) {
+            log.info("Termii SMS not configured. To: {} | {}", recipients, message);
+            return CompletableFuture.completedFuture(new SmsResult(false, "SMS not configured. Please contact support."));
+        }
+        List<CompletableFuture<SmsResult>> chunks = new ArrayList<>();
+        for (int from = 0; from < recipients.size(); from += BULK_MAX_RECIPIENTS) {
+            Map<String, Object> payload = smsPayload(message);
+            payload.put("to", recipients.subList(from, Math.min(recipients.size(), from + BULK_MAX_RECIPIENTS)));
+            chunks.add(post("/sms/send/bulk", payload, "SMS sending failed. Please try again."));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> chunks.stream()
+                        .map(CompletableFuture::join)
+                        .filter(result -> !result.ok)
+                        .findFirst()
+                        .orElse(new SmsResult(true, "OK")));
+    }
+
+    public CompletableFuture<SmsResult> sendWhatsAppAsync(String to, String message) {
+        if (!isWhatsAppConfigured()) {
+            log.info("Termii WhatsApp not configured. To: {} | {}", to, message);
+            return CompletableFuture.completedFuture(new SmsResult(false, "WhatsApp not configured."));
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("to", to);
+        payload.put("from", whatsappSender);
+        payload.put("message", message);
+        payload.put("api_key", apiKey);
+        return post("/whatsapp/send", payload, "WhatsApp sending failed. Please try again.");
+    }
+
+    private Map<String, Object> smsPayload(String message) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("from", senderId);
+        payload.put("sms", message);
+        payload.put("type", "plain");
+        payload.put("channel", smsChannel);
+        payload.put("api_key", apiKey);
+        return payload;
+    }
+
+    private CompletableFuture<SmsResult> post(String path, Map<String, Object> payload, String failureMessage) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
+                    .build();
+        } catch (Exception ex) {
+            return CompletableFuture.completedFuture(new SmsResult(false, ex.getMessage()));
+        }
+        return attempt(request, path, failureMessage, 1);
+    }
+
+    private CompletableFuture<SmsResult> attempt(HttpRequest request, String path, String failureMessage, int attempt) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.completedFuture(new SmsResult(false, "Termii unavailable (circuit open)"));
+        }
+        return limited(() -> http.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .handle((response, error) -> {
+                    boolean transientFailure = error != null || isTransient(response.statusCode());
+                    if (transientFailure) {
+                        circuitBreaker.onFailure();
+                    } else {
+                        circuitBreaker.onSuccess();
+                    }
+                    if (error != null) {
+                        log.warn("Termii {} attempt {} failed: {}", path, attempt, rootMessage(error));
+                    } else {
+                        log.debug("Termii {} status={} body={}", path, response.statusCode(), response.body());
+                    }
+                    // Anything else (read timeout, reset, 500) may already have sent the message;
+                    // resending here could text the user twice, so that's left to the outbox.
+                    boolean retryable = error != null ? neverSent(error) : isRejectedUnprocessed(response.statusCode());
+                    if (retryable && attempt < maxAttempts && !circuitBreaker.isOpen()) {
+                        return retryLater(request, path, failureMessage, attempt);
+                    }
+                    if (error != null) {
+                        return CompletableFuture.completedFuture(new SmsResult(false, rootMessage(error)));
+                    }
+                    if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                        log.warn("Termii {} status={} body={}", path, response.statusCode(), response.body());
+                        return CompletableFuture.completedFuture(
+                                new SmsResult(false, extractMessage(response.body(), failureMessage)));
+                    }
+                    return CompletableFuture.completedFuture(new SmsResult(true, "OK"));
+                })
+                .thenCompose(result -> result);
+    }
+
+    private CompletableFuture<SmsResult> retryLater(HttpRequest request, String path, String failureMessage, int attempt) {
+        // Full backoff doubles per attempt; +-50% jitter so a burst of failures doesn't retry in lockstep.
+        long base = retryBackoff.toMillis() << (attempt - 1);
+        long delay = Math.max(1, (long) (base * (0.5 + ThreadLocalRandom.current().nextDouble())));
+        Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, httpExecutor);
+        return CompletableFuture.supplyAsync(() -> attempt(request, path, failureMessage, attempt + 1), delayed)
+                .thenCompose(result -> result);
+    }
+
+    /**
+     * Runs {@code call} once a concurrency permit is free. Waiting calls sit in a queue rather than
+     * blocking a thread; each completion hands its permit to the next one.
+     */
+    private <T> CompletableFuture<T> limited(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException ex) {
+                future = CompletableFuture.failedFuture(ex);
+            }
+            future.whenComplete((value, error) -> {
+                permits.release();
+                drain();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    private static boolean isTransient(int status) {
+        return status == 429 || status >= 500;
+    }
+
+    /** 429 and 503 mean Termii turned the request away without acting on it. */
+    private static boolean isRejectedUnprocessed(int status) {
+        return status == 429 || status == 503;
+    }
+
+    /** The request never left: connection refused, connect timeout or unknown host. */
+    private static boolean neverSent(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof HttpConnectTimeoutException
+                    || t instanceof ConnectException
+                    || t instanceof UnknownHostException
+                    || t instanceof UnresolvedAddressException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() == null ? root.getClass().getSimpleName() : root.getMessage();
     }
 
     private String extractMessage(String body, String fallback) {
@@ -95,69 +362,12 @@ public class SmsService {
         }
     }
 
-    public SmsResult sendSmsResult(String to, String message) {
-        if (!isSmsConfigured()) {
-            String msg = "SMS not configured. Please contact support.";
-            System.out.println("[DEV] Termii SMS not configured. To: " + to + " | " + message);
-            return new SmsResult(false, msg);
-        }
-        try {
-            String payload = objectMapper.writeValueAsString(Map.of(
-                    "to", to,
-                    "from", senderId,
-                    "sms", message,
-                    "type", "plain",
-                    "channel", smsChannel,
-                    "api_key", apiKey
-            ));
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/sms/send"))
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(15))
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .build();
-            HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
-            System.out.println("[TERMII] SMS status=" + response.statusCode() + " body=" + response.body());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                String msg = extractMessage(response.body(), "SMS sending failed. Please try again.");
-                return new SmsResult(false, msg);
-            }
-            return new SmsResult(true, "OK");
-        } catch (Exception ex) {
-            System.out.println("[WARN] Termii SMS failed: " + ex.getMessage());
-            return new SmsResult(false, ex.getMessage());
-        }
+    boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
     }
 
-    public SmsResult sendWhatsAppResult(String to, String message) {
-        if (!isWhatsAppConfigured()) {
-            String msg = "WhatsApp not configured.";
-            System.out.println("[DEV] Termii WhatsApp not configured. To: " + to + " | " + message);
-            return new SmsResult(false, msg);
-        }
-        try {
-            String payload = objectMapper.writeValueAsString(Map.of(
-                    "to", to,
-                    "from", whatsappSender,
-                    "message", message,
-                    "api_key", apiKey
-            ));
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/whatsapp/send"))
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(15))
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .build();
-            HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
-            System.out.println("[TERMII] WhatsApp status=" + response.statusCode() + " body=" + response.body());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                String msg = extractMessage(response.body(), "WhatsApp sending failed. Please try again.");
-                return new SmsResult(false, msg);
-            }
-            return new SmsResult(true, "OK");
-        } catch (Exception ex) {
-            System.out.println("[WARN] Termii WhatsApp failed: " + ex.getMessage());
-            return new SmsResult(false, ex.getMessage());
-        }
+    @PreDestroy
+    void shutdown() {
+        httpExecutor.shutdownNow();
     }
 }
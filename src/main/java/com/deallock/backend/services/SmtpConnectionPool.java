@@ -0,0 +1,195 @@
+package com.deallock.backend.services;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * A few authenticated SMTP connections kept open between sends.
+ *
+ * {@link JavaMailSenderImpl#send} connects, authenticates (and negotiates STARTTLS) on every call;
+ * here a connection is borrowed, used for as many messages as the caller has, and put back.
+ * At most {@code maxConnections} sessions are open at once; callers beyond that wait up to
+ * {@code acquireTimeout}. Connections idle longer than {@code maxIdle} or that have carried
+ * {@code maxMessagesPerConnection} messages are closed rather than reused, since providers drop
+ * long-lived sessions and cap messages per session.
+ *
+ * {@link Transport#isConnected} costs a NOOP round trip, so it is only asked of a connection that
+ * has sat idle for a while. A session that dies anyway shows up as a failed send; the pool then
+ * reconnects and retries that message once.
+ */
+class SmtpConnectionPool implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpConnectionPool.class);
+    private static final long VALIDATE_AFTER_IDLE_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private record Connection(Transport transport, long idleSinceNanos, int sent) {}
+
+    private final JavaMailSenderImpl sender;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final Duration acquireTimeout;
+    private final long maxIdleNanos;
+    private final int maxMessagesPerConnection;
+
+    SmtpConnectionPool(JavaMailSenderImpl sender, int maxConnections, Duration maxIdle,
+                       int maxMessagesPerConnection, Duration acquireTimeout) {
+        this.sender = sender;
+        this.permits = new Semaphore(Math.max(1, maxConnections), true);
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.maxMessagesPerConnection = Math.max(1, maxMessagesPerConnection);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    /**
+     * Sends every message, reusing one connection (reconnecting when it drops or hits the
+     * per-connection cap). Returns the failures keyed by index; one bad recipient doesn't stop
+     * the rest. Throws only when no connection could be obtained at all.
+     */
+    Map<Integer, Exception> sendAll(List<MimeMessage> messages) throws MessagingException {
+        Map<Integer, Exception> failures = new LinkedHashMap<>();
+        if (messages.isEmpty()) return failures;
+        acquirePermit();
+        Connection connection = null;
+        int i = 0;
+        try {
+            connection = borrow();
+            for (; i < messages.size(); i++) {
+                if (connection == null || connection.sent() >= maxMessagesPerConnection) {
+                    closeQuietly(connection);
+                    connection = null;
+                    connection = open();
+                }
+                MimeMessage message = messages.get(i);
+                try {
+                    if (message.getSentDate() == null) {
+                        message.setSentDate(new Date());
+                    }
+                    message.saveChanges();
+                    try {
+                        send(connection, message);
+                    } catch (MessagingException | IllegalStateException ex) {
+                        if (!connectionLost(ex)) throw ex;
+                        log.debug("SMTP session dropped, reconnecting: {}", ex.getMessage());
+                        closeQuietly(connection);
+                        connection = null;
+                        connection = open();
+                        send(connection, message);
+                    }
+                    connection = new Connection(connection.transport(), 0, connection.sent() + 1);
+                } catch (SendFailedException ex) {
+                    failures.put(i, ex);
+                } catch (MessagingException | IllegalStateException ex) {
+                    if (connectionLost(ex)) {
+                        // Still no working session after the retry; the next message reconnects.
+                        closeQuietly(connection);
+                        connection = null;
+                    }
+                    failures.put(i, ex);
+                }
+            }
+        } catch (MessagingException ex) {
+            // Couldn't (re)connect: everything not yet attempted fails with the connect error.
+            if (i == 0) throw ex;
+            for (; i < messages.size(); i++) {
+                failures.put(i, ex);
+            }
+        } finally {
+            giveBack(connection);
+            permits.release();
+        }
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection);
+        }
+    }
+
+    private void acquirePermit() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("smtp_pool_exhausted");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("smtp_pool_interrupted", ex);
+        }
+    }
+
+    private Connection borrow() throws MessagingException {
+        long now = System.nanoTime();
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            long idleNanos = now - connection.idleSinceNanos();
+            if (idleNanos < maxIdleNanos
+                    && (idleNanos < VALIDATE_AFTER_IDLE_NANOS || connection.transport().isConnected())) {
+                return connection;
+            }
+            closeQuietly(connection);
+        }
+        return open();
+    }
+
+    private static void send(Connection connection, MimeMessage message) throws MessagingException {
+        connection.transport().sendMessage(message, message.getAllRecipients());
+    }
+
+    /**
+     * Whether a send failed because the session is gone rather than because of the message:
+     * SMTPTransport throws IllegalStateException("Not connected") on a closed transport and
+     * wraps socket errors (reset, EOF, timeout) in a MessagingException.
+     */
+    private static boolean connectionLost(Exception ex) {
+        if (ex instanceof SendFailedException) return false;
+        if (ex instanceof IllegalStateException) return true;
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    private Connection open() throws MessagingException {
+        Transport transport = sender.getSession().getTransport(sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(), sender.getUsername(), sender.getPassword());
+        return new Connection(transport, 0, 0);
+    }
+
+    private void giveBack(Connection connection) {
+        if (connection == null) return;
+        if (connection.sent() >= maxMessagesPerConnection) {
+            closeQuietly(connection);
+            return;
+        }
+        idle.offerFirst(new Connection(connection.transport(), System.nanoTime(), connection.sent()));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) return;
+        try {
+            connection.transport().close();
+        } catch (MessagingException ex) {
+            log.debug("SMTP close failed: {}", ex.getMessage());
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+}
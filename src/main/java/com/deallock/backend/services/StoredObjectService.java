@@ -0,0 +1,76 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.StoredObjectRepository;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reference counting for content-addressed uploads. Counts only move through single UPDATE
+ * statements so concurrent uploads/releases of the same key never lose an increment.
+ */
+@Service
+public class StoredObjectService {
+
+    private final StoredObjectRepository storedObjectRepository;
+
+    public StoredObjectService(StoredObjectRepository storedObjectRepository) {
+        this.storedObjectRepository = storedObjectRepository;
+    }
+
+    /**
+     * Records one more reference for a freshly uploaded object, creating its row on first sight.
+     */
+    public void retainUpload(String key, String sha256, String contentType, long sizeBytes) {
+        Instant now = Instant.now();
+        if (storedObjectRepository.increment(key, now) > 0) return;
+        try {
+            storedObjectRepository.insertFirstReference(key, sha256, contentType, sizeBytes, now);
+        } catch (DataIntegrityViolationException ex) {
+            // Another upload of the same bytes created the row first.
+            storedObjectRepository.increment(key, now);
+        }
+    }
+
+    /**
+     * Adds a reference to an object that is already stored (e.g. a deal photo reused by a
+     * marketplace item). Returns false for keys we don't track.
+     */
+    public boolean retain(String key) {
+        return storedObjectRepository.increment(key, Instant.now()) > 0;
+    }
+
+    public void release(String key) {
+        storedObjectRepository.decrement(key, Instant.now());
+    }
+
+    public List<String> findUnreferenced(Instant cutoff, int limit) {
+        return storedObjectRepository.findUnreferencedKeys(cutoff, Limit.of(limit));
+    }
+
+    /**
+     * Deletes the object if it is still unreferenced. The row stays locked while the file is
+     * removed, so an upload of the same bytes waits and then recreates both row and file.
+     */
+    @Transactional
+    public boolean purge(String key, Consumer<String> deleteFiles) {
+        var row = storedObjectRepository.findForUpdate(key).orElse(null);
+        if (row == null || row.getRefCount() > 0) {
+            return false;
+        }
+        long live = storedObjectRepository.countLiveReferences(key);
+        if (live > 0) {
+            // Count drifted below reality; repair it and leave the file alone.
+            row.setRefCount((int) live);
+            row.setUpdatedAt(Instant.now());
+            return false;
+        }
+        deleteFiles.accept(key);
+        storedObjectRepository.delete(row);
+        return true;
+    }
+}
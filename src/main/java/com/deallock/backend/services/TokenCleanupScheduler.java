@@ -3,10 +3,11 @@ package com.deallock.backend.services;
 import com.deallock.backend.repositories.ActivationTokenRepository;
 import com.deallock.backend.repositories.OtpCodeRepository;
 import com.deallock.backend.repositories.PasswordResetTokenRepository;
+import java.time.Duration;
 import java.time.Instant;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class TokenCleanupScheduler {
@@ -14,21 +15,29 @@ public class TokenCleanupScheduler {
     private final OtpCodeRepository otpRepo;
     private final ActivationTokenRepository activationRepo;
     private final PasswordResetTokenRepository resetRepo;
+    private final SchedulerLeaseService leaseService;
+    private final TransactionTemplate transactionTemplate;
 
     public TokenCleanupScheduler(OtpCodeRepository otpRepo,
                                  ActivationTokenRepository activationRepo,
-                                 PasswordResetTokenRepository resetRepo) {
+                                 PasswordResetTokenRepository resetRepo,
+                                 SchedulerLeaseService leaseService,
+                                 TransactionTemplate transactionTemplate) {
         this.otpRepo = otpRepo;
         this.activationRepo = activationRepo;
         this.resetRepo = resetRepo;
+        this.leaseService = leaseService;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
     @Scheduled(fixedDelay = 60 * 60 * 1000L)
     public void cleanupExpiredTokens() {
-        Instant now = Instant.now();
-        otpRepo.deleteByExpiresAtBefore(now);
-        activationRepo.deleteByExpiresAtBeforeOrUsedTrue(now);
-        resetRepo.deleteByExpiresAtBeforeOrUsedTrue(now);
+        leaseService.runExclusively("token-cleanup", Duration.ofMinutes(10), Duration.ofMinutes(50), lease ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Instant now = Instant.now();
+                    otpRepo.deleteByExpiresAtBefore(now);
+                    activationRepo.deleteByExpiresAtBeforeOrUsedTrue(now);
+                    resetRepo.deleteByExpiresAtBeforeOrUsedTrue(now);
+                }));
     }
 }
@@ -0,0 +1,219 @@
+package com.deallock.backend.services;
+
+import com.deallock.backend.repositories.NotificationRepository;
+import com.deallock.backend.repositories.UnreadCount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Per-user unread notification count, so page renders don't run a COUNT query each time.
+ *
+ * With Redis (profile "redis") the counters are shared by all nodes under
+ * {@code deallock:unread:<userId>}; otherwise, or while Redis is unreachable, an in-process
+ * Caffeine map is used. Counters are only incremented when present: a missing counter is loaded
+ * from the DB on the next read, so an expired key can never come back too low. A periodic
+ * reconcile overwrites drifted values (e.g. a lost increment) with the DB count: every node checks
+ * its own local map, and one node per period (scheduler lease) checks the shared Redis keys.
+ */
+public class UnreadNotificationCounter {
+
+    static final String KEY_PREFIX = "deallock:unread:";
+
+    private static final Logger log = LoggerFactory.getLogger(UnreadNotificationCounter.class);
+    private static final Duration REDIS_TTL = Duration.ofHours(1);
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(10);
+    private static final int RECONCILE_CHUNK = 500;
+
+    /** INCRBY only if the key exists, so we never create a counter that starts from 0. */
+    private static final DefaultRedisScript<Long> INCR_IF_PRESENT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return redis.call('INCRBY', KEYS[1], ARGV[1]) end return nil",
+            Long.class);
+
+    /** SET only if the value is still what reconcile read, so a concurrent INCR isn't overwritten. */
+    private static final DefaultRedisScript<Long> SET_IF_UNCHANGED = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL') return 1 end return 0",
+            Long.class);
+
+    private final NotificationRepository notificationRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final SchedulerLeaseService leaseService;
+    private final Cache<Long, AtomicLong> local = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(LOCAL_TTL)
+            .build();
+
+    /**
+     * @param redisTemplate null when running without Redis
+     */
+    public UnreadNotificationCounter(NotificationRepository notificationRepository,
+                                     StringRedisTemplate redisTemplate,
+                                     SchedulerLeaseService leaseService) {
+        this.notificationRepository = notificationRepository;
+        this.redisTemplate = redisTemplate;
+        this.leaseService = leaseService;
+    }
+
+    public long get(Long userId) {
+        if (userId == null) return 0;
+        if (redisTemplate != null) {
+            try {
+                String key = KEY_PREFIX + userId;
+                String value = redisTemplate.opsForValue().get(key);
+                if (value != null) {
+                    return Long.parseLong(value);
+                }
+                long count = notificationRepository.countByUserIdAndReadIsFalse(userId);
+                // NX: a concurrent reset/load may have set the key meanwhile; theirs wins.
+                redisTemplate.opsForValue().setIfAbsent(key, Long.toString(count), REDIS_TTL);
+                return count;
+            } catch (RuntimeException ex) {
+                log.warn("Unread counter GET failed for userId={}. Using local counter.", userId, ex);
+            }
+        }
+        return local.get(userId, id -> new AtomicLong(notificationRepository.countByUserIdAndReadIsFalse(id))).get();
+    }
+
+    public void increment(Long userId, long delta) {
+        if (userId == null || delta == 0) return;
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.execute(INCR_IF_PRESENT, List.of(KEY_PREFIX + userId), Long.toString(delta));
+            } catch (RuntimeException ex) {
+                log.warn("Unread counter INCR failed for userId={}. Continuing.", userId, ex);
+            }
+        }
+        AtomicLong counter = local.getIfPresent(userId);
+        if (counter != null) {
+            counter.addAndGet(delta);
+        }
+    }
+
+    /**
+     * Overwrites the counter with the DB count. Call once the change is committed; an increment
+     * landing between the COUNT and the SET is lost until the next reconcile.
+     */
+    public void refresh(Long userId) {
+        if (userId == null) return;
+        long count = notificationRepository.countByUserIdAndReadIsFalse(userId);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + userId, Long.toString(count), REDIS_TTL);
+            } catch (RuntimeException ex) {
+                log.warn("Unread counter refresh failed for userId={}. Continuing.", userId, ex);
+            }
+        }
+        local.put(userId, new AtomicLong(count));
+    }
+
+    @Scheduled(fixedDelay = 5 * 60 * 1000L, initialDelay = 5 * 60 * 1000L)
+    public void reconcile() {
+        int fixed = reconcileLocal();
+        if (redisTemplate != null) {
+            AtomicInteger fixedInRedis = new AtomicInteger();
+            try {
+                leaseService.runExclusively("unread-reconcile", Duration.ofMinutes(4), Duration.ofMinutes(4),
+                        lease -> fixedInRedis.set(reconcileRedis()));
+            } catch (RuntimeException ex) {
+                log.warn("Unread counter reconcile against Redis failed. Continuing.", ex);
+            }
+            fixed += fixedInRedis.get();
+        }
+        if (fixed > 0) {
+            log.info("Reconciled {} drifted unread notification counters", fixed);
+        }
+    }
+
+    private int reconcileLocal() {
+        List<Long> userIds = new ArrayList<>(local.asMap().keySet());
+        int fixed = 0;
+        for (int i = 0; i < userIds.size(); i += RECONCILE_CHUNK) {
+            List<Long> chunk = userIds.subList(i, Math.min(userIds.size(), i + RECONCILE_CHUNK));
+            Map<Long, Long> snapshot = new HashMap<>();
+            for (Long id : chunk) {
+                AtomicLong counter = local.getIfPresent(id);
+                if (counter != null) snapshot.put(id, counter.get());
+            }
+            Map<Long, Long> actual = countsFor(chunk);
+            for (var e : snapshot.entrySet()) {
+                long expected = actual.getOrDefault(e.getKey(), 0L);
+                AtomicLong counter = local.getIfPresent(e.getKey());
+                if (counter != null && e.getValue() != expected && counter.compareAndSet(e.getValue(), expected)) {
+                    fixed++;
+                }
+            }
+        }
+        return fixed;
+    }
+
+    private int reconcileRedis() {
+        int fixed = 0;
+        List<String> keys = new ArrayList<>(RECONCILE_CHUNK);
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(RECONCILE_CHUNK).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == RECONCILE_CHUNK) {
+                    fixed += reconcileRedisChunk(keys);
+                    keys.clear();
+                }
+            }
+        }
+        if (!keys.isEmpty()) {
+            fixed += reconcileRedisChunk(keys);
+        }
+        return fixed;
+    }
+
+    private int reconcileRedisChunk(List<String> keys) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        if (values == null) return 0;
+        List<Long> userIds = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            userIds.add(parseUserId(key));
+        }
+        Map<Long, Long> actual = countsFor(userIds.stream().filter(id -> id != null).toList());
+        int fixed = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Long userId = userIds.get(i);
+            String seen = values.get(i);
+            if (userId == null || seen == null) continue;
+            String expected = Long.toString(actual.getOrDefault(userId, 0L));
+            if (!expected.equals(seen)) {
+                Long swapped = redisTemplate.execute(SET_IF_UNCHANGED, List.of(keys.get(i)), seen, expected);
+                if (swapped != null && swapped == 1L) fixed++;
+            }
+        }
+        return fixed;
+    }
+
+    private Map<Long, Long> countsFor(List<Long> userIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        if (userIds.isEmpty()) return counts;
+        for (UnreadCount c : notificationRepository.countUnreadByUserIds(userIds)) {
+            counts.put(c.userId(), c.count());
+        }
+        return counts;
+    }
+
+    private static Long parseUserId(String key) {
+        try {
+            return Long.parseLong(key.substring(KEY_PREFIX.length()));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
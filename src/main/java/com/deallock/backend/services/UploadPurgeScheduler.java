@@ -0,0 +1,71 @@
+package com.deallock.backend.services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Deletes content-addressed uploads whose reference count has been zero for longer than the
+ * grace period. The grace covers requests that released a key just before saving the row that
+ * replaced it.
+ */
+@Service
+public class UploadPurgeScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadPurgeScheduler.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final StoredObjectService storedObjectService;
+    private final FileStorageService fileStorageService;
+    private final Duration grace;
+    private final SchedulerLeaseService leaseService;
+
+    public UploadPurgeScheduler(StoredObjectService storedObjectService,
+                                FileStorageService fileStorageService,
+                                @Value("${app.uploads.purge-grace:24h}") Duration grace,
+                                SchedulerLeaseService leaseService) {
+        this.storedObjectService = storedObjectService;
+        this.fileStorageService = fileStorageService;
+        this.grace = grace;
+        this.leaseService = leaseService;
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000L)
+    public void purgeUnreferenced() {
+        leaseService.runExclusively("upload-purge", Duration.ofMinutes(30), Duration.ofMinutes(50), this::purge);
+    }
+
+    private void purge(SchedulerLeaseService.Lease lease) {
+        Instant cutoff = Instant.now().minus(grace);
+        int purged = 0;
+        List<String> keys;
+        do {
+            keys = storedObjectService.findUnreferenced(cutoff, BATCH_SIZE);
+            int before = purged;
+            for (String key : keys) {
+                try {
+                    if (storedObjectService.purge(key, fileStorageService::deleteWithVariants)) {
+                        purged++;
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("Could not purge upload {}: {}", key, ex.getMessage());
+                }
+            }
+            if (purged == before) {
+                // Nothing in this batch could be removed; retry on the next run instead of spinning.
+                break;
+            }
+            if (!lease.extend()) {
+                break;
+            }
+        } while (keys.size() == BATCH_SIZE);
+        if (purged > 0) {
+            log.info("Purged {} unreferenced uploads", purged);
+        }
+    }
+}
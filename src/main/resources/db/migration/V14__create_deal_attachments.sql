@@ -0,0 +1,14 @@
+-- Photo/proof bytes move out of `deals`. Existing blobs in the old deals columns are copied
+-- here at startup by LegacyBlobMigration (the schema is kept by Hibernate, so this script is
+-- documentation of the table rather than the copy path); the old columns are left in place
+-- and emptied, not dropped.
+CREATE TABLE IF NOT EXISTS deal_attachments (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    deal_id BIGINT NOT NULL,
+    slot VARCHAR(32) NOT NULL,
+    content_type VARCHAR(255),
+    data LONGBLOB NOT NULL,
+    created_at DATETIME(6),
+    CONSTRAINT uq_deal_attachments_deal_slot UNIQUE (deal_id, slot),
+    CONSTRAINT fk_deal_attachments_deal FOREIGN KEY (deal_id) REFERENCES deals(id) ON DELETE CASCADE
+);
@@ -0,0 +1,3 @@
+-- Keyset pagination for /api/deals and /api/admin/deals orders by (created_at DESC, id DESC).
+CREATE INDEX IF NOT EXISTS idx_deals_created_id ON deals (created_at, id);
+CREATE INDEX IF NOT EXISTS idx_deals_user_created_id ON deals (user_id, created_at, id);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_marketplace_items_source_deal ON marketplace_items (source_deal_id);
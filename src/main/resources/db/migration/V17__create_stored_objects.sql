@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS stored_objects (
+    storage_key VARCHAR(191) NOT NULL PRIMARY KEY,
+    sha256 CHAR(64) NOT NULL,
+    content_type VARCHAR(255),
+    size_bytes BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_stored_objects_refs ON stored_objects (ref_count, updated_at);
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    channel VARCHAR(16) NOT NULL,
+    recipient VARCHAR(2000) NOT NULL,
+    subject VARCHAR(255),
+    body TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6),
+    locked_until DATETIME(6),
+    last_error VARCHAR(1000),
+    created_at DATETIME(6),
+    sent_at DATETIME(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON notification_outbox (status, next_attempt_at);
@@ -0,0 +1,2 @@
+-- /api/notifications pages over (created_at DESC, id DESC) per user.
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created_id ON notifications (user_id, created_at, id);
@@ -0,0 +1,14 @@
+-- Checkpoint for the chunked daily digest, so a restart resumes instead of starting over.
+CREATE TABLE IF NOT EXISTS newsletter_digest_runs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    cutoff DATETIME(6) NOT NULL,
+    last_subscription_id BIGINT NOT NULL DEFAULT 0,
+    sent INT NOT NULL DEFAULT 0,
+    failed INT NOT NULL DEFAULT 0,
+    started_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    finished_at DATETIME(6)
+);
+
+-- Digest chunks walk active subscriptions in id order.
+CREATE INDEX IF NOT EXISTS idx_newsletter_active_id ON newsletter_subscriptions (active, id);
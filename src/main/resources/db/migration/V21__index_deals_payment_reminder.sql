@@ -0,0 +1,4 @@
+-- DealPaymentReminderScheduler walks (status, payment_status) in id order and filters on the
+-- reminder timestamp from the index alone, so recently reminded deals are skipped without
+-- reading their rows.
+CREATE INDEX IF NOT EXISTS idx_deals_payment_reminder ON deals (status, payment_status, id, last_payment_reminder_at);
@@ -0,0 +1,9 @@
+-- One row per @Scheduled job; the holder of an unexpired lease runs the job on this tick.
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(64) PRIMARY KEY,
+    owner VARCHAR(128) NOT NULL,
+    lease_until DATETIME(6) NOT NULL,
+    fencing_token BIGINT NOT NULL DEFAULT 0,
+    acquired_at DATETIME(6),
+    updated_at DATETIME(6) NOT NULL
+);
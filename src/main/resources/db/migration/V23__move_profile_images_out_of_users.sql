@@ -0,0 +1,11 @@
+-- Profile image bytes move to their own table so `users` rows stay narrow. Existing
+-- users.profile_image blobs are copied here at startup by LegacyBlobMigration (the schema is
+-- kept by Hibernate, so this script documents the table rather than performing the copy); the
+-- old column is emptied, not dropped.
+CREATE TABLE IF NOT EXISTS user_profile_images (
+    user_id BIGINT NOT NULL PRIMARY KEY,
+    content_type VARCHAR(255),
+    data LONGBLOB NOT NULL,
+    created_at DATETIME(6),
+    CONSTRAINT fk_user_profile_images_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
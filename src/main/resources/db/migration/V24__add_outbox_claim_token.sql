@@ -0,0 +1,7 @@
+-- Set on every claim; the worker's status updates only apply while the row still carries it, so
+-- a send that outlived its lease can't overwrite the state another worker has since written.
+ALTER TABLE notification_outbox
+  ADD COLUMN IF NOT EXISTS claim_token VARCHAR(36) NULL;
+
+-- The worker claims per channel (each up to that channel's free send slots).
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_channel_due ON notification_outbox (channel, status, next_attempt_at);
@@ -701,4 +701,12 @@ async function submitNewProduct() {
 // Initial Run
 document.addEventListener('DOMContentLoaded', () => {
   switchPage('Pending Approval');
+
+  // Live updates (live.js): refetch the visible page instead of waiting for a manual refresh.
+  if (window.deallockDebounce) {
+    const refresh = window.deallockDebounce(() => loadCurrentPageData(), 1000);
+    window.addEventListener('deallock:deal', () => { if (currentPage !== 'Products' && currentPage !== 'Orders') refresh(); });
+    window.addEventListener('deallock:order', () => { if (currentPage === 'Orders') refresh(); });
+    window.addEventListener('deallock:resync', refresh);
+  }
 });
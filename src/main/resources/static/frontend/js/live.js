@@ -0,0 +1,57 @@
+// ====================== LIVE UPDATES (/api/stream) ======================
+// Re-dispatches server-sent events as window events named "deallock:<type>"
+// (deallock:deal, deallock:order, deallock:notification, deallock:resync).
+// EventSource reconnects on its own and sends Last-Event-ID, so missed events are replayed.
+
+(function () {
+  if (!('EventSource' in window)) return;
+
+  const TYPES = ['deal', 'order', 'notification', 'resync'];
+  let source = null;
+
+  function dispatch(type, raw) {
+    let detail = {};
+    try {
+      detail = raw ? JSON.parse(raw) : {};
+    } catch (e) {
+      detail = {};
+    }
+    window.dispatchEvent(new CustomEvent('deallock:' + type, { detail }));
+  }
+
+  function open() {
+    if (source) return;
+    source = new EventSource('/api/stream', { withCredentials: true });
+    TYPES.forEach(type => source.addEventListener(type, e => dispatch(type, e.data)));
+    source.onerror = () => {
+      // CLOSED means the server refused (e.g. logged out); don't hammer it.
+      if (source && source.readyState === EventSource.CLOSED) {
+        source = null;
+      }
+    };
+  }
+
+  // Background tabs don't need a connection; catch up with a resync when shown again.
+  document.addEventListener('visibilitychange', () => {
+    if (document.hidden) {
+      if (source) {
+        source.close();
+        source = null;
+      }
+    } else if (!source) {
+      open();
+      dispatch('resync', '{}');
+    }
+  });
+
+  // Coalesces bursts (e.g. an admin action fires deal + notification) into one reload.
+  window.deallockDebounce = function (fn, wait = 800) {
+    let timer = null;
+    return function () {
+      clearTimeout(timer);
+      timer = setTimeout(fn, wait);
+    };
+  };
+
+  open();
+})();
@@ -60,7 +60,7 @@ function renderProducts() {
   grid.innerHTML = products.map(p => `
     <div onclick="showProductDetail(${p.id})" class="flex flex-col border border-black bg-white cursor-pointer group h-full">
       <div class="h-48 w-full overflow-hidden border-b border-black flex-shrink-0 flex items-center justify-center bg-gray-50">
-        <img src="${p.image}" class="max-w-full max-h-full object-contain p-2" alt="${escapeHtml(p.name)}">
+        <img src="${p.thumb || p.image}" class="max-w-full max-h-full object-contain p-2" alt="${escapeHtml(p.name)}">
       </div>
       <div class="p-3 flex flex-col justify-between flex-grow">
         <h3 class="text-[10px] font-black uppercase mb-2 line-clamp-2">${escapeHtml(p.name)}</h3>
@@ -87,6 +87,7 @@ async function loadProducts() {
       image: (Array.isArray(r.imageUrls) && r.imageUrls.length > 0)
         ? r.imageUrls[0]
         : (r.imageUrl || '/frontend/images/logo.jpeg'),
+      thumb: r.thumbnailUrl || r.imageUrl || '/frontend/images/logo.jpeg',
       descriptionHTML: (r.description || '').toString().trim()
     }));
   } catch (e) {
@@ -719,6 +719,16 @@ document.addEventListener('DOMContentLoaded', () => {
   showNewDealIndicatorIfRequested();
   loadDeals();
 
+  // ── Live updates (live.js) ──
+  if (window.deallockDebounce) {
+    const ordersTabActive = () => document.getElementById('orders-tab')?.classList.contains('active');
+    const refreshDeals = window.deallockDebounce(() => loadDeals());
+    const refreshOrders = window.deallockDebounce(() => { if (ordersTabActive()) loadOrders(); });
+    window.addEventListener('deallock:deal', refreshDeals);
+    window.addEventListener('deallock:order', refreshOrders);
+    window.addEventListener('deallock:resync', () => { refreshDeals(); refreshOrders(); });
+  }
+
   // ── Expose globals (for inline onclick attributes in HTML) ──
   window.showToast              = showToast;
   window.showShortPopup         = showShortPopup;
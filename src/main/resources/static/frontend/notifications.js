@@ -43,4 +43,40 @@
       pop.classList.remove('active');
     }
   });
+
+  async function refreshBadge() {
+    try {
+      const res = await fetch('/api/notifications/unread-count', {
+        headers: { 'Accept': 'application/json' },
+        credentials: 'include'
+      });
+      if (!res.ok) return;
+      const data = await res.json();
+      const count = Number(data && data.count) || 0;
+      let badge = toggle.querySelector('.notification-badge');
+      if (count <= 0) {
+        if (badge) badge.remove();
+        return;
+      }
+      if (!badge) {
+        badge = document.createElement('span');
+        badge.className = 'notification-badge';
+        toggle.appendChild(badge);
+      }
+      badge.textContent = count;
+    } catch (e) {
+      // Keep the server-rendered badge; the next event or page load corrects it.
+    }
+  }
+
+  // Live updates (live.js): new notifications refresh the badge, and the list when it's open.
+  function onNotification() {
+    refreshBadge();
+    if (pop.classList.contains('active')) {
+      loadNotifications();
+    }
+  }
+  const onLive = window.deallockDebounce ? window.deallockDebounce(onNotification) : onNotification;
+  window.addEventListener('deallock:notification', onLive);
+  window.addEventListener('deallock:resync', onLive);
 })();
@@ -0,0 +1,95 @@
+package com.deallock.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Per-request overhead of RateLimitFilter with 64 threads hammering it: once spread over many
+ * client IPs (mostly allowed, store churn) and once on a single hot key (CAS contention, mostly
+ * rejected). Opt-in:
+ *
+ *   mvn test -Dtest=RateLimitFilterBenchmarkTest -Dbenchmarks=true [-Dbenchmarks.requests=2000000]
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class RateLimitFilterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilterBenchmarkTest.class);
+    private static final int THREADS = 64;
+    private static final int ROUNDS = 5;
+    private static final long MAX_KEYS = 100_000;
+
+    @Test
+    void filterOverheadUnderContention() throws Exception {
+        int perThread = Integer.getInteger("benchmarks.requests", 2_000_000) / THREADS;
+        RateLimiter rateLimiter = new RateLimiter(null, MAX_KEYS);
+        RateLimitPolicies policies = new RateLimitPolicies(List.of(new RateLimitProperties.Policy(
+                "verify-otp", List.of("POST"), List.of("/api/verify-otp"), RateLimitProperties.Key.IP,
+                10, null, Duration.ofMinutes(1))));
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, policies, DataSize.ofMegabytes(3));
+
+        long spreadNanos = measure(filter, perThread, false);
+        long hotNanos = measure(filter, perThread, true);
+        long total = (long) THREADS * perThread;
+
+        log.info("rate limit filter, {} threads x {} requests: spread keys {} ns/req, hot key {} ns/req"
+                        + " (best of {}), {} buckets held",
+                THREADS, perThread, spreadNanos / total, hotNanos / total, ROUNDS, rateLimiter.localSize());
+        assertTrue(rateLimiter.localSize() <= MAX_KEYS, "bucket store grew past app.rate-limit.max-keys");
+        // Loose ceiling, mock request included: the filter is a map lookup and a CAS, so ten
+        // microseconds per request means a lock crept back in rather than a slow machine.
+        assertTrue(spreadNanos / total < 10_000, "spread keys " + spreadNanos / total + " ns/req");
+        assertTrue(hotNanos / total < 10_000, "hot key " + hotNanos / total + " ns/req");
+    }
+
+    private long measure(RateLimitFilter filter, int perThread, boolean hotKey) throws InterruptedException {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            LongAdder allowed = new LongAdder();
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(THREADS);
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/verify-otp");
+                            request.setRemoteAddr(hotKey ? "10.0.0.1"
+                                    : "10." + thread + "." + (i >> 8 & 0xff) + "." + (i & 0xff));
+                            MockHttpServletResponse response = new MockHttpServletResponse();
+                            filter.doFilter(request, response, new MockFilterChain());
+                            if (response.getStatus() != 429) allowed.increment();
+                        }
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            done.await();
+            best = Math.min(best, System.nanoTime() - started);
+            if (hotKey) {
+                // 10/min on verify-otp: the bucket must never hand out more than its capacity
+                // plus what refilled during the round, however many threads race for it.
+                long refilled = Duration.ofNanos(System.nanoTime() - started).toSeconds() / 6 + 1;
+                assertTrue(allowed.sum() <= 10 + refilled, "hot key allowed " + allowed.sum());
+            }
+        }
+        return best;
+    }
+}
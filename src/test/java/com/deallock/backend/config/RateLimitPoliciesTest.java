@@ -0,0 +1,37 @@
+package com.deallock.backend.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.deallock.backend.config.RateLimitProperties.Key;
+import com.deallock.backend.config.RateLimitProperties.Policy;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RateLimitPoliciesTest {
+
+    private final RateLimitPolicies policies = new RateLimitPolicies(List.of(
+            policy("deal-create", List.of("POST"), "/api/deals"),
+            policy("payment-proof", List.of("POST"), "/api/deals/{id}/payment-proof"),
+            policy("ai", List.of(), "/api/ai/**"),
+            policy("api", List.of(), "/api/**")));
+
+    @Test
+    void mostSpecificPatternWins() {
+        assertEquals("deal-create", policies.match("POST", "/api/deals").name());
+        assertEquals("payment-proof", policies.match("post", "/api/deals/42/payment-proof/").name());
+        assertEquals("ai", policies.match("POST", "/api/ai/query").name());
+        assertEquals("api", policies.match("POST", "/api/deals/42/cancel").name());
+    }
+
+    @Test
+    void methodMismatchFallsThroughToBroaderPattern() {
+        assertEquals("api", policies.match("GET", "/api/deals").name());
+        assertEquals("api", policies.match("GET", "/api").name());
+        assertNull(policies.match("GET", "/dashboard"));
+    }
+
+    private static Policy policy(String name, List<String> methods, String path) {
+        return new Policy(name, methods, List.of(path), Key.USER, 10, null, null);
+    }
+}
@@ -0,0 +1,112 @@
+package com.deallock.backend.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.deallock.backend.entities.Deal;
+import com.deallock.backend.entities.User;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+/**
+ * Before/after comparison for the admin deal list: full entity hydration vs the DealListRow
+ * projection. Opt-in because seeding takes a while:
+ *
+ *   mvn test -Dtest=DealListQueryBenchmarkTest -Dbenchmarks=true [-Dbenchmarks.deals=50000]
+ */
+@DataJpaTest
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class DealListQueryBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DealListQueryBenchmarkTest.class);
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DealRepository dealRepository;
+
+    @Test
+    void compareEntityAndProjectionListing() {
+        int dealCount = Integer.getInteger("benchmarks.deals", 50_000);
+        seed(dealCount);
+
+        long entityNanos = measure(() -> {
+            List<Deal> deals = dealRepository.findAllByOrderByCreatedAtDesc();
+            // The old admin list touched the lazy user for every row.
+            deals.forEach(d -> d.getUser().getEmail());
+            return deals.size();
+        }, dealCount);
+
+        long projectionNanos = measure(() -> dealRepository.findAllListRows(Limit.unlimited()).size(), dealCount);
+
+        log.info("deal list over {} rows: entities {} ms, projection {} ms (best of {})",
+                dealCount,
+                Duration.ofNanos(entityNanos).toMillis(),
+                Duration.ofNanos(projectionNanos).toMillis(),
+                ROUNDS);
+        // The projection skips hydration, the persistence-context snapshot and the per-row user
+        // load, so it must come out ahead; equal or slower means the query regressed.
+        assertTrue(projectionNanos < entityNanos,
+                "projection " + projectionNanos + " ns vs entities " + entityNanos + " ns");
+    }
+
+    private long measure(Supplier<Integer> run, int expected) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            int size = run.get();
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(expected, size);
+        }
+        return best;
+    }
+
+    private void seed(int dealCount) {
+        User[] users = new User[50];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = User.builder()
+                    .email("bench" + i + "@example.com")
+                    .fullName("Bench User " + i)
+                    .role("ROLE_USER")
+                    .enabled(true)
+                    .creation(Instant.now())
+                    .build();
+            entityManager.persist(users[i]);
+        }
+        Instant base = Instant.now();
+        for (int i = 0; i < dealCount; i++) {
+            Deal deal = new Deal();
+            deal.setUser(users[i % users.length]);
+            deal.setTitle("Deal " + i);
+            deal.setStatus(i % 3 == 0 ? "Approved" : "Pending Approval");
+            deal.setPaymentStatus("NOT_PAID");
+            deal.setValue(BigDecimal.valueOf(1000 + i));
+            deal.setDescription("Benchmark deal " + i);
+            deal.setCreatedAt(base.minusSeconds(i));
+            entityManager.persist(deal);
+            if (i % 1000 == 999) {
+                entityManager.flush();
+                entityManager.clear();
+                for (int u = 0; u < users.length; u++) {
+                    users[u] = entityManager.getReference(User.class, users[u].getId());
+                }
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,146 @@
+package com.deallock.backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Buffer, spill and replay paths of the audit writer against an in-memory H2 table. The writer
+ * thread isn't started; {@code stop()} drains the buffer the same way it does on shutdown.
+ */
+class AuditLogServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private SwitchableDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:audit-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource = new SwitchableDataSource(h2);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Same sizes as the migrations, except email, which is narrowed so a row can be rejected.
+        jdbcTemplate.execute("""
+                CREATE TABLE audit_logs (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    event_type VARCHAR(64) NOT NULL,
+                    email VARCHAR(20),
+                    ip_address VARCHAR(64),
+                    user_agent VARCHAR(255),
+                    details VARCHAR(2000),
+                    success BOOLEAN NOT NULL,
+                    created_at TIMESTAMP NOT NULL
+                )""");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void bufferedEventsAreInsertedAndOverlongFieldsCut() throws InterruptedException {
+        AuditLogService service = service(100);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("User-Agent", "x".repeat(1000));
+
+        service.log("E".repeat(300), "a@d.ng", request, true, null);
+        service.log("LOGIN_FAILURE", "b@d.ng", request, false, "d".repeat(5000));
+        service.stop();
+
+        assertEquals(2, count());
+        assertEquals(64, jdbcTemplate.queryForObject("SELECT MAX(LENGTH(event_type)) FROM audit_logs", Integer.class));
+    }
+
+    @Test
+    void rowTheDatabaseRejectsIsSetAsideAndTheRestOfTheBatchIsInserted() throws Exception {
+        AuditLogService service = service(100);
+
+        service.log("LOGIN_FAILURE", "ok-1@d.ng", null, false, null);
+        service.log("LOGIN_FAILURE", "way-too-long-for-the-column@d.ng", null, false, null);
+        service.log("LOGIN_FAILURE", "ok-2@d.ng", null, false, null);
+        service.stop();
+
+        assertEquals(2, count());
+        assertEquals(1.0, meterRegistry.get("deallock.audit.rejected").counter().count());
+        assertEquals(1, Files.readAllLines(dir.resolve("spill.jsonl.rejected")).size());
+        assertFalse(Files.exists(dir.resolve("spill.jsonl")));
+    }
+
+    @Test
+    void eventsAreSpilledWhileTheDatabaseIsDownAndReplayedAfterwards() throws Exception {
+        AuditLogService service = service(100);
+        dataSource.down = true;
+
+        service.log("LOGIN_SUCCESS", "a@d.ng", null, true, null);
+        service.log("LOGIN_SUCCESS", "b@d.ng", null, true, null);
+        service.stop();
+        assertEquals(2, Files.readAllLines(dir.resolve("spill.jsonl")).size());
+
+        service.replaySpill();
+        assertEquals(2, Files.readAllLines(dir.resolve("spill.jsonl")).size(), "still down: kept for later");
+
+        dataSource.down = false;
+        service.replaySpill();
+        assertEquals(2, count());
+        assertFalse(Files.exists(dir.resolve("spill.jsonl")));
+        assertFalse(Files.exists(dir.resolve("spill.jsonl.replaying")));
+    }
+
+    @Test
+    void fullBufferDropsAndCountsInsteadOfBlocking() throws InterruptedException {
+        AuditLogService service = service(2);
+
+        for (int i = 0; i < 5; i++) {
+            service.log("OTP_SEND", "a@d.ng", null, true, null);
+        }
+
+        assertEquals(3.0, meterRegistry.get("deallock.audit.dropped").counter().count());
+        service.stop();
+        assertEquals(2, count());
+        assertTrue(Files.notExists(dir.resolve("spill.jsonl")));
+    }
+
+    private AuditLogService service(int bufferSize) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        return new AuditLogService(jdbcTemplate, transactionTemplate, meterRegistry,
+                bufferSize, 50, Duration.ofMillis(100), dir.resolve("spill.jsonl").toString());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class);
+    }
+
+    /** Fails every connection attempt while {@code down}, like an unreachable database. */
+    private static final class SwitchableDataSource extends DelegatingDataSource {
+
+        volatile boolean down;
+
+        SwitchableDataSource(JdbcDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) throw new SQLException("Connection refused", "08001");
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.deallock.backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.deallock.backend.services.DealLifecycleStage.Signals;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pins {@link DealLifecycleStage#classify} to the per-stage stream filters AdminController used
+ * before the dashboard switched to grouped counts, over every combination of the signals.
+ */
+class DealLifecycleStageTest {
+
+    private static final List<String> STATUSES =
+            Arrays.asList(null, "Pending Approval", "pending approval", "Approved", "APPROVED", "Rejected", "Cancelled");
+    private static final List<String> PAYMENT_STATUSES = Arrays.asList(null, "PAID_CONFIRMED", "NOT_PAID", "PENDING");
+    private static final List<String> BALANCE_STATUSES = Arrays.asList(null, "PAID_CONFIRMED", "paid_confirmed", "PENDING");
+
+    @Test
+    void classifyMatchesTheOriginalAdminFilters() {
+        int checked = 0;
+        for (Signals s : allSignals()) {
+            assertEquals(originalFilters(s), DealLifecycleStage.classify(s), s.toString());
+            checked++;
+        }
+        assertEquals(STATUSES.size() * PAYMENT_STATUSES.size() * BALANCE_STATUSES.size() * 32, checked);
+    }
+
+    @Test
+    void approvedDealCanSitInSeveralStagesAtOnce() {
+        Signals s = new Signals("Approved", "PAID_CONFIRMED", true, null, false, false, false, true);
+
+        assertEquals(EnumSet.of(DealLifecycleStage.APPROVED, DealLifecycleStage.PAYMENT_CONFIRMED,
+                        DealLifecycleStage.SECURED, DealLifecycleStage.BALANCE_PAYMENT, DealLifecycleStage.FEEDBACK),
+                DealLifecycleStage.classify(s));
+    }
+
+    /** The filters from the old AdminController#admin, one per model attribute. */
+    private static EnumSet<DealLifecycleStage> originalFilters(Signals d) {
+        EnumSet<DealLifecycleStage> stages = EnumSet.noneOf(DealLifecycleStage.class);
+        boolean approved = "Approved".equalsIgnoreCase(d.status());
+        if (d.status() == null || "Pending Approval".equalsIgnoreCase(d.status())) stages.add(DealLifecycleStage.PENDING);
+        if (approved) stages.add(DealLifecycleStage.APPROVED);
+        if ("Rejected".equalsIgnoreCase(d.status())) stages.add(DealLifecycleStage.REJECTED);
+        if (approved && "PAID_CONFIRMED".equalsIgnoreCase(d.paymentStatus())) {
+            stages.add(DealLifecycleStage.PAYMENT_CONFIRMED);
+        }
+        if (approved && "NOT_PAID".equalsIgnoreCase(d.paymentStatus())) {
+            stages.add(DealLifecycleStage.PAYMENT_NOT_RECEIVED);
+        }
+        if (approved && d.secured()) stages.add(DealLifecycleStage.SECURED);
+        if (approved && d.secured()
+                && (d.balancePaymentStatus() == null || !"PAID_CONFIRMED".equalsIgnoreCase(d.balancePaymentStatus()))) {
+            stages.add(DealLifecycleStage.BALANCE_PAYMENT);
+        }
+        if (approved && d.secured() && "PAID_CONFIRMED".equalsIgnoreCase(d.balancePaymentStatus())
+                && !d.deliveryInitiated()) {
+            stages.add(DealLifecycleStage.DELIVERY_INITIATION);
+        }
+        if (approved && d.deliveryInitiated() && !d.deliveryConfirmed()) stages.add(DealLifecycleStage.IN_TRANSIT);
+        if (approved && d.deliveryInitiated() && d.deliveryConfirmedByUser() && !d.deliveryConfirmed()) {
+            stages.add(DealLifecycleStage.DELIVERY_CONFIRMATION);
+        }
+        if (approved && d.hasFeedback()) stages.add(DealLifecycleStage.FEEDBACK);
+        if (approved && d.deliveryConfirmed()) stages.add(DealLifecycleStage.CONCLUDED);
+        return stages;
+    }
+
+    private static List<Signals> allSignals() {
+        List<Signals> all = new ArrayList<>();
+        for (String status : STATUSES) {
+            for (String payment : PAYMENT_STATUSES) {
+                for (String balance : BALANCE_STATUSES) {
+                    for (int flags = 0; flags < 32; flags++) {
+                        all.add(new Signals(status, payment, (flags & 1) != 0, balance, (flags & 2) != 0,
+                                (flags & 4) != 0, (flags & 8) != 0, (flags & 16) != 0));
+                    }
+                }
+            }
+        }
+        return all;
+    }
+}
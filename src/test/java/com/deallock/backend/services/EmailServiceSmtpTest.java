@@ -0,0 +1,148 @@
+package com.deallock.backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+/**
+ * Bulk sending against a tiny in-process SMTP stand-in: connections are reused, and a rejected
+ * recipient fails only its own message.
+ */
+class EmailServiceSmtpTest {
+
+    private FakeSmtpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new FakeSmtpServer();
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(server.port());
+        meterRegistry = new SimpleMeterRegistry();
+        emailService = new EmailService(sender, meterRegistry, "no-reply@deallock.test", "DealLock",
+                2, Duration.ofSeconds(30), 100, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        emailService.closePool();
+        server.close();
+    }
+
+    @Test
+    void bulkSendReusesOneConnection() {
+        List<EmailService.Outgoing> messages = List.of(
+                new EmailService.Outgoing("a@deallock.test", "Hi", "One"),
+                new EmailService.Outgoing("b@deallock.test", "Hi", "Two"),
+                new EmailService.Outgoing("c@deallock.test", "Hi", "Three"));
+
+        EmailService.BulkResult result = emailService.sendBulk(messages);
+        emailService.sendGenericWithStatus("d@deallock.test", "Hi", "Four");
+
+        assertEquals(3, result.sent());
+        assertEquals(List.of(), result.failed());
+        assertEquals(4, server.messages.get());
+        assertEquals(1, server.connections.get());
+        assertEquals(4.0, meterRegistry.get("deallock.mail.messages").tag("result", "sent").counter().count());
+    }
+
+    @Test
+    void rejectedRecipientOnlyFailsItsOwnMessage() {
+        EmailService.BulkResult result = emailService.sendBulk(List.of(
+                new EmailService.Outgoing("a@deallock.test", "Hi", "One"),
+                new EmailService.Outgoing("reject@deallock.test", "Hi", "Two"),
+                new EmailService.Outgoing("c@deallock.test", "Hi", "Three")));
+
+        assertEquals(2, result.sent());
+        assertEquals(List.of(1), result.failed());
+        assertEquals(2, server.messages.get());
+        assertEquals(1.0, meterRegistry.get("deallock.mail.messages").tag("result", "failed").counter().count());
+    }
+
+    /** Just enough SMTP for JavaMail: no AUTH, no STARTTLS, rejects recipients starting with "reject". */
+    private static final class FakeSmtpServer implements AutoCloseable {
+
+        final AtomicInteger connections = new AtomicInteger();
+        final AtomicInteger messages = new AtomicInteger();
+        private final ServerSocket socket = new ServerSocket(0);
+
+        FakeSmtpServer() throws IOException {
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return socket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!socket.isClosed()) {
+                try {
+                    Socket client = socket.accept();
+                    connections.incrementAndGet();
+                    Thread.ofVirtual().start(() -> session(client));
+                } catch (IOException ex) {
+                    return;
+                }
+            }
+        }
+
+        private void session(Socket client) {
+            try (client;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO")) {
+                        reply(out, "250-localhost\r\n250 8BITMIME");
+                    } else if (command.startsWith("RCPT TO") && command.contains("<REJECT")) {
+                        reply(out, "550 No such user");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard body
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException ignored) {
+                // client went away
+            }
+        }
+
+        private static void reply(PrintWriter out, String text) {
+            out.print(text + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
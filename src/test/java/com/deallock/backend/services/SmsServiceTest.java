@@ -0,0 +1,102 @@
+package com.deallock.backend.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * SmsService against a local HTTP stub standing in for Termii.
+ */
+class SmsServiceTest {
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger failureStatus = new AtomicInteger(503);
+    private SmsService smsService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            boolean fail = failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+            byte[] body = (fail ? "{\"message\":\"down\"}" : "{\"message\":\"Successfully Sent\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(fail ? failureStatus.get() : 200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        smsService = new SmsService("http://127.0.0.1:" + server.getAddress().getPort() + "/api",
+                "key", "DealLock", "dnd", "", "+2348000000001, +2348000000002",
+                Duration.ofSeconds(2), Duration.ofSeconds(2), 4, 3, Duration.ofMillis(10), 3, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        smsService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void adminSmsUsesOneBulkRequest() {
+        SmsService.SmsResult result = smsService.sendBulkSmsResult(smsService.adminPhoneNumbers(), "New deal");
+
+        assertTrue(result.ok);
+        assertEquals(1, hits.get("/api/sms/send/bulk").get());
+        assertTrue(bodies.get(0).contains("[\"+2348000000001\",\"+2348000000002\"]"));
+    }
+
+    @Test
+    void transientFailuresAreRetried() {
+        failuresLeft.set(2);
+
+        SmsService.SmsResult result = smsService.sendSmsResult("+2348000000001", "OTP 1234");
+
+        assertTrue(result.ok);
+        assertEquals(3, hits.get("/api/sms/send").get());
+    }
+
+    @Test
+    void failuresThatMayHaveSentAreNotRetried() {
+        failuresLeft.set(1);
+        failureStatus.set(500);
+
+        SmsService.SmsResult result = smsService.sendSmsResult("+2348000000001", "OTP 1234");
+
+        assertFalse(result.ok);
+        assertEquals(1, hits.get("/api/sms/send").get());
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingTermii() {
+        failuresLeft.set(100);
+
+        assertFalse(smsService.sendSmsResult("+2348000000001", "one").ok);
+        assertTrue(smsService.isCircuitOpen());
+        int callsBefore = hits.get("/api/sms/send").get();
+
+        SmsService.SmsResult result = smsService.sendSmsResult("+2348000000001", "two");
+
+        assertFalse(result.ok);
+        assertEquals(callsBefore, hits.get("/api/sms/send").get());
+    }
+}